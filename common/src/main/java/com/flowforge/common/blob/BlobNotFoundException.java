@@ -0,0 +1,7 @@
+package com.flowforge.common.blob;
+
+public class BlobNotFoundException extends RuntimeException {
+    public BlobNotFoundException(String key) {
+        super("Blob not found: " + key);
+    }
+}
@@ -0,0 +1,31 @@
+package com.flowforge.common.blob;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The inline stand-in for an offloaded value: {@code {"$blobRef": "sha256:...", "size": 12345}}.
+ */
+public final class BlobReference {
+
+    public static final String REF_FIELD = "$blobRef";
+    public static final String SIZE_FIELD = "size";
+
+    private BlobReference() {
+    }
+
+    public static Map<String, Object> of(String key, int size) {
+        Map<String, Object> reference = new LinkedHashMap<>();
+        reference.put(REF_FIELD, key);
+        reference.put(SIZE_FIELD, size);
+        return reference;
+    }
+
+    public static boolean isReference(Object value) {
+        return value instanceof Map<?, ?> map && map.get(REF_FIELD) instanceof String;
+    }
+
+    public static String keyOf(Object value) {
+        return isReference(value) ? (String) ((Map<?, ?>) value).get(REF_FIELD) : null;
+    }
+}
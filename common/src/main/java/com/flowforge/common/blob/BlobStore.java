@@ -0,0 +1,40 @@
+package com.flowforge.common.blob;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Content-addressed storage for payloads too large to carry inline in Kafka messages and jsonb
+ * columns. Keys are derived from the content, so storing the same bytes twice only refreshes the
+ * blob's store time.
+ * <p>
+ * Nothing deletes a blob on its own: the orchestrator's blob retention job removes blobs stored
+ * before a horizon that no live execution references.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the bytes if not already present and returns their content-addressed key.
+     */
+    String put(byte[] content);
+
+    /**
+     * Returns the bytes stored under {@code key}.
+     *
+     * @throws BlobNotFoundException if nothing is stored under the key
+     */
+    byte[] get(String key);
+
+    /**
+     * Keys of the blobs last stored before {@code cutoff}.
+     */
+    List<String> keysStoredBefore(Instant cutoff);
+
+    /**
+     * Deletes the blob under {@code key} if it was last stored before {@code cutoff}, so a blob stored
+     * again since it was listed survives.
+     *
+     * @return whether the blob was deleted
+     */
+    boolean deleteIfStoredBefore(String key, Instant cutoff);
+}
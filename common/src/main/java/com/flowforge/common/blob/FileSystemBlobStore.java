@@ -0,0 +1,125 @@
+package com.flowforge.common.blob;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores blobs as files named by their SHA-256, fanned out into two-character subdirectories.
+ * Services sharing a blob directory (e.g. a mounted volume) can resolve each other's references.
+ * A blob's store time is its file's modification time, refreshed each time the same bytes are put.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String KEY_PREFIX = "sha256:";
+
+    private final Path root;
+
+    public FileSystemBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String put(byte[] content) {
+        String hash = sha256(content);
+        Path target = pathFor(hash);
+        try {
+            if (Files.exists(target)) {
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                return KEY_PREFIX + hash;
+            }
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // Swept between the existence check and the touch: store it again.
+            return put(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob " + hash, e);
+        }
+        return KEY_PREFIX + hash;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return Files.readAllBytes(pathFor(hashOf(key)));
+        } catch (NoSuchFileException e) {
+            throw new BlobNotFoundException(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + key, e);
+        }
+    }
+
+    @Override
+    public List<String> keysStoredBefore(Instant cutoff) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            return files.filter(file -> file.getFileName().toString().matches("[0-9a-f]{64}"))
+                    .filter(file -> storedBefore(file, cutoff))
+                    .map(file -> KEY_PREFIX + file.getFileName())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list blobs in " + root, e);
+        }
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String key, Instant cutoff) {
+        Path file = pathFor(hashOf(key));
+        if (!storedBefore(file, cutoff)) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete blob " + key, e);
+        }
+    }
+
+    private static boolean storedBefore(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the store time of " + file, e);
+        }
+    }
+
+    private static String hashOf(String key) {
+        if (key == null || !key.startsWith(KEY_PREFIX)) {
+            throw new BlobNotFoundException(key);
+        }
+        String hash = key.substring(KEY_PREFIX.length());
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new BlobNotFoundException(key);
+        }
+        return hash;
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.flowforge.common.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs tasks on virtual threads: tasks with the same key one at a time in submission order, tasks
+ * with different keys concurrently. At most {@code maxInFlight} tasks are submitted but not finished;
+ * {@link #submit} blocks the caller until one finishes, which is how a Kafka listener thread holds
+ * back its consumer instead of buffering without bound.
+ * <p>
+ * A failed task does not stop the ones queued behind it under the same key; callers decide from the
+ * returned future what a failure means.
+ */
+public class KeyedSequencer implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Map<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyedSequencer(String threadNamePrefix, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix + "-", 0).factory());
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Queues {@code task} behind the unfinished tasks of {@code key}. The future completes when the
+     * task has run, exceptionally if it threw.
+     */
+    public CompletableFuture<Void> submit(Object key, Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> (tail == null)
+                ? CompletableFuture.runAsync(task, executor)
+                : tail.handle((ignored, error) -> null).thenRunAsync(task, executor));
+        next.whenComplete((ignored, error) -> {
+            tails.remove(key, next);
+            permits.release();
+        });
+        return next;
+    }
+
+    /**
+     * Keys with unfinished tasks.
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
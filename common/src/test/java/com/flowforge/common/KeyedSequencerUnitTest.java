@@ -0,0 +1,76 @@
+package com.flowforge.common;
+
+import com.flowforge.common.concurrent.KeyedSequencer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedSequencerUnitTest {
+
+    @Test
+    void tasksOfOneKeyRunInOrderEvenAfterAFailure() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        try (KeyedSequencer sequencer = new KeyedSequencer("test", 64)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                int value = i;
+                futures.add(sequencer.submit("execution-1", () -> {
+                    order.add(value);
+                    if (value == 10) {
+                        throw new IllegalStateException("boom");
+                    }
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            assertThat(futures.get(10)).isCompletedExceptionally();
+            assertThat(futures.get(11)).isCompleted().isNotCompletedExceptionally();
+        }
+        assertThat(order).hasSize(50).isSorted();
+    }
+
+    @Test
+    void differentKeysRunConcurrentlyUpToTheInFlightLimit() throws Exception {
+        int maxInFlight = 4;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyedSequencer sequencer = new KeyedSequencer("test", maxInFlight)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            Thread submitter = Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 12; i++) {
+                    futures.add(sequencer.submit("key-" + i, () -> {
+                        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                    }));
+                }
+            });
+
+            // The submitter blocks once maxInFlight tasks are waiting on the latch.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (running.get() < maxInFlight && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(running.get()).isEqualTo(maxInFlight);
+            assertThat(submitter.isAlive()).isTrue();
+
+            release.countDown();
+            submitter.join(5000);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            assertThat(futures).hasSize(12);
+        }
+        assertThat(peak.get()).isEqualTo(maxInFlight);
+    }
+}
@@ -60,13 +60,103 @@ CREATE TABLE IF NOT EXISTS orchestrator.workflow_executions (
   user_id uuid NOT NULL,
   status text NOT NULL,
   current_step integer NOT NULL,
+  definition_hash varchar(64),
   trigger_payload jsonb,
   step_outputs jsonb,
+  step_states jsonb,
+  journal_seq integer NOT NULL DEFAULT 0,
+  snapshot_seq integer NOT NULL DEFAULT 0,
+  dispatched_context_version integer,
+  parent_execution_id uuid,
+  parent_step_index integer,
+  parent_attempt integer,
+  depth integer NOT NULL DEFAULT 0,
   created_at timestamptz NOT NULL DEFAULT now(),
   updated_at timestamptz NOT NULL DEFAULT now()
 );
 
+-- Terminal executions moved out of workflow_executions past app.execution-retention.archive-after,
+-- with their journal folded into step_outputs/step_states. A low toast_tuple_target makes Postgres
+-- compress (and move out of line) every non-trivial document.
+CREATE TABLE IF NOT EXISTS orchestrator.workflow_executions_archive (
+  id uuid PRIMARY KEY,
+  workflow_id uuid NOT NULL,
+  user_id uuid NOT NULL,
+  status text NOT NULL,
+  definition_hash varchar(64),
+  parent_execution_id uuid,
+  trigger_payload jsonb,
+  step_outputs jsonb,
+  step_states jsonb,
+  created_at timestamptz NOT NULL,
+  updated_at timestamptz NOT NULL,
+  archived_at timestamptz NOT NULL DEFAULT now()
+) WITH (toast_tuple_target = 128);
+
+CREATE TABLE IF NOT EXISTS orchestrator.workflow_definition_snapshots (
+  hash varchar(64) PRIMARY KEY,
+  actions jsonb NOT NULL,
+  created_at timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS orchestrator.execution_events (
+  execution_id uuid NOT NULL,
+  seq integer NOT NULL,
+  type text NOT NULL,
+  step_index integer NOT NULL,
+  payload jsonb,
+  created_at timestamptz NOT NULL DEFAULT now(),
+  PRIMARY KEY (execution_id, seq)
+);
+
+CREATE SEQUENCE IF NOT EXISTS orchestrator.execution_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS orchestrator.execution_outbox (
+  id bigint PRIMARY KEY,
+  message_key varchar(64) NOT NULL,
+  payload jsonb,
+  result jsonb,
+  created_at timestamptz NOT NULL DEFAULT now(),
+  attempts integer NOT NULL DEFAULT 0,
+  last_error varchar(1000),
+  dead_lettered_at timestamptz
+);
+
+-- Relay claim order; dead-lettered rows stay in the table but are never claimed.
+CREATE INDEX IF NOT EXISTS idx_execution_outbox_pending
+  ON orchestrator.execution_outbox (created_at, id) WHERE dead_lettered_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS orchestrator.processed_results (
+  execution_id uuid NOT NULL,
+  step_index integer NOT NULL,
+  attempt integer NOT NULL,
+  processed_at timestamptz NOT NULL DEFAULT now(),
+  PRIMARY KEY (execution_id, step_index, attempt)
+);
+
+CREATE INDEX IF NOT EXISTS idx_processed_results_processed_at
+  ON orchestrator.processed_results (processed_at);
+
+CREATE TABLE IF NOT EXISTS orchestrator.execution_timers (
+  execution_id uuid NOT NULL,
+  step_index integer NOT NULL,
+  attempt integer NOT NULL,
+  kind varchar(16) NOT NULL DEFAULT 'COMPLETE',
+  fire_at timestamptz NOT NULL,
+  PRIMARY KEY (execution_id, step_index, attempt)
+);
+
+CREATE INDEX IF NOT EXISTS idx_execution_timers_fire_at
+  ON orchestrator.execution_timers (fire_at);
+
 CREATE INDEX IF NOT EXISTS idx_executions_workflow_id
   ON orchestrator.workflow_executions (workflow_id);
-CREATE INDEX IF NOT EXISTS idx_executions_user_id
-  ON orchestrator.workflow_executions (user_id);
+-- Serves keyset pagination of a user's executions (newest first); replaces the plain user_id index.
+DROP INDEX IF EXISTS orchestrator.idx_executions_user_id;
+CREATE INDEX IF NOT EXISTS idx_executions_user_created
+  ON orchestrator.workflow_executions (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_executions_parent_execution_id
+  ON orchestrator.workflow_executions (parent_execution_id) WHERE parent_execution_id IS NOT NULL;
+-- Serves the keyset pages that fall back to the archive once the hot table runs out.
+CREATE INDEX IF NOT EXISTS idx_executions_archive_user_created
+  ON orchestrator.workflow_executions_archive (user_id, created_at DESC, id DESC);
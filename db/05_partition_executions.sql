@@ -0,0 +1,53 @@
+-- Opt-in: converts orchestrator.workflow_executions into a table range-partitioned by month on
+-- created_at. Not run by setup_db.sh. Run it once with the orchestrators stopped, then set
+-- app.execution-retention.partitioning=true so they keep creating partitions ahead of time.
+--
+-- The primary key becomes (id, created_at), as Postgres requires the partition key in it; ids are
+-- still unique UUIDs. Listings ordered by created_at read the newest partition first and stop at
+-- their LIMIT.
+
+BEGIN;
+-- Partition bounds are UTC month starts, matching what the orchestrator creates.
+SET LOCAL TimeZone = 'UTC';
+
+ALTER TABLE orchestrator.workflow_executions RENAME TO workflow_executions_unpartitioned;
+ALTER INDEX orchestrator.workflow_executions_pkey RENAME TO workflow_executions_unpartitioned_pkey;
+ALTER INDEX orchestrator.idx_executions_workflow_id RENAME TO idx_executions_unpartitioned_workflow_id;
+ALTER INDEX orchestrator.idx_executions_user_created RENAME TO idx_executions_unpartitioned_user_created;
+ALTER INDEX orchestrator.idx_executions_parent_execution_id RENAME TO idx_executions_unpartitioned_parent_execution_id;
+
+CREATE TABLE orchestrator.workflow_executions (
+  LIKE orchestrator.workflow_executions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_executions_workflow_id
+  ON orchestrator.workflow_executions (workflow_id);
+CREATE INDEX idx_executions_user_created
+  ON orchestrator.workflow_executions (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_executions_parent_execution_id
+  ON orchestrator.workflow_executions (parent_execution_id) WHERE parent_execution_id IS NOT NULL;
+
+-- Catches rows outside the managed months; the orchestrator creates partitions ahead so it stays empty.
+CREATE TABLE orchestrator.workflow_executions_default
+  PARTITION OF orchestrator.workflow_executions DEFAULT;
+
+DO $$
+DECLARE
+  m timestamptz;
+BEGIN
+  FOR m IN
+    SELECT generate_series(date_trunc('month', coalesce(min(created_at), now())),
+                           date_trunc('month', now()) + interval '2 months',
+                           interval '1 month')
+    FROM orchestrator.workflow_executions_unpartitioned
+  LOOP
+    EXECUTE format('CREATE TABLE orchestrator.%I PARTITION OF orchestrator.workflow_executions FOR VALUES FROM (%L) TO (%L)',
+      'workflow_executions_p' || to_char(m, 'YYYYMM'), m, m + interval '1 month');
+  END LOOP;
+END $$;
+
+INSERT INTO orchestrator.workflow_executions SELECT * FROM orchestrator.workflow_executions_unpartitioned;
+DROP TABLE orchestrator.workflow_executions_unpartitioned;
+
+COMMIT;
@@ -0,0 +1,105 @@
+package com.flowforge.executor.bulkhead;
+
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Caps the concurrent calls of one action type. Calls beyond {@code maxConcurrent} wait in a FIFO
+ * queue and are subscribed as running ones finish; nothing is rejected. {@code maxQueue} is the depth
+ * at which the bulkhead reports itself saturated so that its owner can stop taking new work; calls
+ * already accepted still queue past it.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Runnable onChange;
+
+    private final Deque<Runnable> waiting = new ArrayDeque<>(); // Guarded by this
+    private int active; // Guarded by this
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, Runnable onChange) {
+        if (maxConcurrent < 1 || maxQueue < 1) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs max-concurrent and max-queue of at least 1");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Subscribes {@code call} once a slot is free. Cancelling the returned Mono while it waits
+     * removes it from the queue.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.create(sink -> {
+            Runnable start = () -> sink.onDispose(call
+                    .doFinally(signal -> release())
+                    .subscribe(sink::success, sink::error, sink::success));
+            boolean now;
+            synchronized (this) {
+                now = active < maxConcurrent;
+                if (now) {
+                    active++;
+                } else {
+                    waiting.addLast(start);
+                }
+            }
+            if (now) {
+                start.run();
+            } else {
+                sink.onCancel(() -> {
+                    synchronized (this) {
+                        waiting.remove(start);
+                    }
+                    onChange.run();
+                });
+                onChange.run();
+            }
+        });
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized int active() {
+        return active;
+    }
+
+    public synchronized int queued() {
+        return waiting.size();
+    }
+
+    /**
+     * Whether the queue has reached {@code maxQueue}.
+     */
+    public synchronized boolean isSaturated() {
+        return waiting.size() >= maxQueue;
+    }
+
+    /**
+     * Whether the queue has drained to half of {@code maxQueue}, low enough to take work again.
+     */
+    public synchronized boolean isDrained() {
+        return waiting.size() <= maxQueue / 2;
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) {
+                active--;
+            }
+        }
+        if (next != null) {
+            next.run(); // The slot passes straight to the next waiting call
+        }
+        onChange.run();
+    }
+}
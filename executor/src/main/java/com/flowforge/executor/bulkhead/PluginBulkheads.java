@@ -0,0 +1,94 @@
+package com.flowforge.executor.bulkhead;
+
+import com.flowforge.executor.kafka.consumer.ExecutionStartConsumer;
+import com.flowforge.executor.plugin.ActionPlugin;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link Bulkhead} per {@link ActionPlugin}, sized by
+ * {@code app.bulkheads.<supported type>.max-concurrent / max-queue} with {@code app.bulkheads.default}
+ * as fallback.
+ * <p>
+ * When any bulkhead's queue reaches its depth the execution.start listener container is paused, and it
+ * is resumed once every bulkhead has drained to half its depth. Unconsumed start events then wait in
+ * Kafka rather than as queued calls on the heap; at most the records of the poll in progress queue past
+ * the depth. Queued and running calls are not acknowledged until their result is sent, so they are
+ * redelivered if the instance stops or loses the partition.
+ * <p>
+ * Isolation stops at the consumer. Start events are keyed by execution, so every partition
+ * interleaves all action types, and pausing is the only way to stop taking work without dropping or
+ * reordering records. One saturated bulkhead pauses every type. The other bulkheads keep running the
+ * calls they hold, and a slow plugin delays the rest only once it has {@code max-queue} calls waiting.
+ */
+@Component
+@Slf4j
+public class PluginBulkheads {
+
+    private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry;
+
+    public PluginBulkheads(List<ActionPlugin> plugins,
+                           Environment environment,
+                           MeterRegistry meterRegistry,
+                           ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry) {
+        this.listenerRegistry = listenerRegistry;
+        int defaultConcurrent = environment.getProperty("app.bulkheads.default.max-concurrent", Integer.class, 64);
+        int defaultQueue = environment.getProperty("app.bulkheads.default.max-queue", Integer.class, 256);
+        for (ActionPlugin plugin : plugins) {
+            String type = plugin.getSupportedType();
+            Bulkhead bulkhead = new Bulkhead(type,
+                    environment.getProperty("app.bulkheads." + type + ".max-concurrent", Integer.class, defaultConcurrent),
+                    environment.getProperty("app.bulkheads." + type + ".max-queue", Integer.class, defaultQueue),
+                    this::updateConsumer);
+            bulkheads.put(type, bulkhead);
+            Gauge.builder("flowforge.bulkhead.active", bulkhead, Bulkhead::active)
+                    .description("Action calls running")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("flowforge.bulkhead.queued", bulkhead, Bulkhead::queued)
+                    .description("Action calls waiting for a slot")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs {@code call} within the bulkhead of {@code actionType}; unknown types are not limited.
+     */
+    public <T> Mono<T> execute(String actionType, Mono<T> call) {
+        Bulkhead bulkhead = (actionType == null) ? null : bulkheads.get(actionType);
+        return (bulkhead == null) ? call : bulkhead.execute(call);
+    }
+
+    public Bulkhead get(String actionType) {
+        return bulkheads.get(actionType);
+    }
+
+    private synchronized void updateConsumer() {
+        KafkaListenerEndpointRegistry registry = listenerRegistry.getIfAvailable();
+        MessageListenerContainer container = (registry == null) ? null : registry.getListenerContainer(ExecutionStartConsumer.LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        boolean saturated = bulkheads.values().stream().anyMatch(Bulkhead::isSaturated);
+        if (saturated && !container.isPauseRequested()) {
+            log.info("Bulkhead saturated; pausing the execution.start consumer");
+            container.pause();
+        } else if (!saturated && container.isPauseRequested() && bulkheads.values().stream().allMatch(Bulkhead::isDrained)) {
+            log.info("Bulkheads drained; resuming the execution.start consumer");
+            container.resume();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.flowforge.executor.client;
+
+import com.flowforge.executor.dto.ExecutionContextDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrchestratorClient {
+
+    private final WebClient orchestratorWebClient;
+
+    public Mono<ExecutionContextDto> getExecutionContext(UUID executionId, UUID userId) {
+        log.info("Fetching full context for executionId: {}", executionId);
+        return orchestratorWebClient.get()
+                .uri("/executions/{id}/context", executionId)
+                .header("X-User-Id", userId.toString())
+                .retrieve()
+                .bodyToMono(ExecutionContextDto.class)
+                .doOnError(error -> log.error("Failed to fetch context for execution {}: {}", executionId, error.getMessage()));
+    }
+}
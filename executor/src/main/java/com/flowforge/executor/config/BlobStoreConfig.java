@@ -0,0 +1,21 @@
+package com.flowforge.executor.config;
+
+import com.flowforge.common.blob.BlobStore;
+import com.flowforge.common.blob.FileSystemBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class BlobStoreConfig {
+
+    @Value("${app.blob-store.directory}")
+    private String blobDirectory;
+
+    @Bean
+    public BlobStore blobStore() {
+        return new FileSystemBlobStore(Path.of(blobDirectory));
+    }
+}
@@ -1,4 +1,24 @@
 package com.flowforge.executor.config;
+
+import com.flowforge.common.concurrent.KeyedSequencer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
-@EnableKafka @Configuration public class KafkaConfig {}
\ No newline at end of file
+
+@EnableKafka
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Virtual-thread mode of the execution.start listener: each action runs to completion on its own
+     * virtual thread, at most {@code max-in-flight} at a time, and its record is acknowledged once the
+     * result is on the broker.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.kafka.virtual-threads.enabled", havingValue = "true")
+    public KeyedSequencer startSequencer(@Value("${app.kafka.virtual-threads.max-in-flight:256}") int maxInFlight) {
+        return new KeyedSequencer("start-listener", maxInFlight);
+    }
+}
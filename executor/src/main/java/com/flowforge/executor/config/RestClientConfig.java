@@ -1,14 +1,88 @@
 package com.flowforge.executor.config;
 
+import com.flowforge.executor.http.AdaptiveConcurrencyFilter;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class RestClientConfig {
 
+    @Value("${app.services.orchestrator.url}")
+    private String orchestratorServiceUrl;
+
+    /**
+     * Connection pool shared by all action plugins, one pool per remote host. Idle connections are kept
+     * long enough to carry a burst into the next one without new TLS handshakes, and retired after
+     * {@code max-life-time} so DNS changes are picked up. Pool gauges are published as
+     * {@code reactor.netty.connection.provider.*} (total, active, idle and pending connections).
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider actionConnectionProvider(
+            @Value("${app.http.max-connections-per-host:100}") int maxConnections,
+            @Value("${app.http.pending-acquire-max:1000}") int pendingAcquireMax,
+            @Value("${app.http.pending-acquire-timeout:PT10S}") Duration pendingAcquireTimeout,
+            @Value("${app.http.max-idle-time:PT55S}") Duration maxIdleTime,
+            @Value("${app.http.max-life-time:PT5M}") Duration maxLifeTime,
+            @Value("${app.http.evict-interval:PT30S}") Duration evictInterval) {
+        return ConnectionProvider.builder("actions")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * HTTP client of the action plugins: HTTP/2 negotiated over TLS where the host offers it (many
+     * requests share one connection), gzip responses, and bounded connect and response times. Warmed
+     * up at startup so the first burst does not also pay for event loop and TLS provider setup.
+     */
+    @Bean
+    public HttpClient actionHttpClient(ConnectionProvider actionConnectionProvider,
+                                       @Value("${app.http.connect-timeout:PT5S}") Duration connectTimeout,
+                                       @Value("${app.http.response-timeout:PT30S}") Duration responseTimeout,
+                                       @Value("${app.http.http2:true}") boolean http2,
+                                       @Value("${app.http.compression:true}") boolean compression) {
+        HttpClient httpClient = HttpClient.create(actionConnectionProvider)
+                .protocol(http2 ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11} : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout)
+                .compress(compression);
+        httpClient.warmup().block();
+        return httpClient;
+    }
+
+    /**
+     * Builder for the action plugins' WebClients: the shared {@link #actionHttpClient} with the per-host
+     * adaptive limit applied to every request.
+     */
+    @Bean
+    public WebClient.Builder webClientBuilder(HttpClient actionHttpClient, AdaptiveConcurrencyFilter adaptiveConcurrencyFilter) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(actionHttpClient))
+                .filter(adaptiveConcurrencyFilter);
+    }
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient orchestratorWebClient() {
+        return WebClient.builder()
+                .baseUrl(orchestratorServiceUrl)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
     }
 }
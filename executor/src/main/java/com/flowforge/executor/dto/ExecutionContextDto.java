@@ -0,0 +1,15 @@
+package com.flowforge.executor.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+import java.util.UUID;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class ExecutionContextDto {
+    private UUID executionId;
+    private int version;
+    private Map<String, Object> trigger;
+    private Map<String, Object> steps;
+}
@@ -12,7 +12,10 @@ public class ExecutionResultDto {
     private UUID workflowId;
     private UUID userId;
     private int stepIndex;
+    private int attempt;
     private String status;
     private Map<String, Object> output;
     private String errorMessage;
+    private String errorCode;
+    private Long retryAfterMillis;
 }
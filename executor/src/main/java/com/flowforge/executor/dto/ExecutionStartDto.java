@@ -12,8 +12,12 @@ public class ExecutionStartDto {
     private UUID workflowId;
     private UUID userId;
     private int stepIndex;
+    private int attempt;
     private String actionType;
     private Map<String, Object> actionConfig;
     private Map<String, Object> triggerPayload;
     private Map<String, Object> context;
+    private Integer contextVersion;
+    private Integer contextBaseVersion;
+    private Map<String, Object> contextDelta;
 }
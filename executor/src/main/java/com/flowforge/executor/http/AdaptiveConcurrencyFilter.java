@@ -0,0 +1,83 @@
+package com.flowforge.executor.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies an {@link AdaptiveLimit} per destination host to every request of the action plugins'
+ * WebClient, so each Slack webhook host or Sheets endpoint runs at the concurrency it sustains.
+ * A permit is held until the response status arrives.
+ */
+@Component
+public class AdaptiveConcurrencyFilter implements ExchangeFilterFunction {
+
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry,
+                                     @Value("${app.adaptive-limit.initial-limit:10}") int initialLimit,
+                                     @Value("${app.adaptive-limit.min-limit:1}") int minLimit,
+                                     @Value("${app.adaptive-limit.max-limit:200}") int maxLimit,
+                                     @Value("${app.adaptive-limit.backoff-ratio:0.75}") double backoffRatio,
+                                     @Value("${app.adaptive-limit.latency-tolerance:2.0}") double latencyTolerance) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        AdaptiveLimit limit = limitFor(request.url().getHost());
+        return limit.acquire().flatMap(permit -> {
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnSuccess(response -> permit.release(outcome(response.statusCode()), System.nanoTime() - start))
+                    .doOnError(e -> permit.release(AdaptiveLimit.Outcome.DROPPED, System.nanoTime() - start))
+                    .doOnCancel(() -> permit.release(AdaptiveLimit.Outcome.IGNORED, 0));
+        });
+    }
+
+    public AdaptiveLimit limitFor(String host) {
+        return limits.computeIfAbsent(host == null ? "" : host, key -> {
+            AdaptiveLimit limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance);
+            Gauge.builder("flowforge.http.adaptive.limit", limit, AdaptiveLimit::limit)
+                    .description("Learned concurrency limit of an action destination")
+                    .tag("host", key)
+                    .register(meterRegistry);
+            Gauge.builder("flowforge.http.adaptive.waiting", limit, AdaptiveLimit::waiting)
+                    .description("Action requests waiting for the destination's limit")
+                    .tag("host", key)
+                    .register(meterRegistry);
+            return limit;
+        });
+    }
+
+    private static AdaptiveLimit.Outcome outcome(HttpStatusCode status) {
+        int code = status.value();
+        return (code == HttpStatus.TOO_MANY_REQUESTS.value()
+                || code == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || code == HttpStatus.GATEWAY_TIMEOUT.value())
+                ? AdaptiveLimit.Outcome.DROPPED
+                : AdaptiveLimit.Outcome.SUCCESS;
+    }
+}
@@ -0,0 +1,155 @@
+package com.flowforge.executor.http;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrency limit of one destination, learned with AIMD from the calls it admits.
+ * <p>
+ * A call that comes back while at least half the limit was in use raises the limit by {@code 1/limit},
+ * i.e. by about one per round trip. A call rejected as overloaded (429, 503, 504, connection failure)
+ * cuts it by {@code backoffRatio}. A call slower than {@code latencyTolerance} times the no-load latency
+ * cuts it by a smaller step, so the limit also backs off when a host queues requests before it starts
+ * throttling them. The no-load latency is the lowest latency seen, drifting slowly towards the current
+ * latency so that a host which permanently got slower is re-learned.
+ * <p>
+ * Calls over the limit wait in FIFO order; the bulkheads in front bound how many can wait.
+ */
+public class AdaptiveLimit {
+
+    private static final double LATENCY_BACKOFF_RATIO = 0.95;
+    private static final double NO_LOAD_DRIFT = 0.01;
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final Deque<Permit> waiting = new ArrayDeque<>(); // Guarded by this
+    private double limit; // Guarded by this
+    private int inFlight; // Guarded by this
+    private double noLoadNanos; // Guarded by this
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Adaptive limit needs 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (backoffRatio <= 0.0 || backoffRatio >= 1.0 || latencyTolerance <= 1.0) {
+            throw new IllegalArgumentException("Adaptive limit needs 0 < backoff-ratio < 1 and latency-tolerance > 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public enum Outcome {
+        /** Completed; its latency is a sample. */
+        SUCCESS,
+        /** Rejected or failed by an overloaded destination. */
+        DROPPED,
+        /** Cancelled or otherwise not telling anything about the destination. */
+        IGNORED
+    }
+
+    /**
+     * Emits a permit once the call may start. Cancelling while waiting gives up the place in line.
+     */
+    public Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Permit permit = new Permit(sink);
+            sink.onCancel(() -> {
+                boolean admitted;
+                synchronized (this) {
+                    admitted = permit.admitted;
+                    waiting.remove(permit);
+                }
+                if (admitted) {
+                    permit.release(Outcome.IGNORED, 0); // Cancelled just as it was admitted
+                }
+            });
+            boolean now;
+            synchronized (this) {
+                now = waiting.isEmpty() && inFlight < limit;
+                if (now) {
+                    admit(permit);
+                } else {
+                    waiting.addLast(permit);
+                }
+            }
+            if (now) {
+                sink.success(permit);
+            }
+        });
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int waiting() {
+        return waiting.size();
+    }
+
+    private void onRelease(Outcome outcome, long latencyNanos) {
+        Deque<Permit> admitted = new ArrayDeque<>();
+        synchronized (this) {
+            int inUse = inFlight;
+            inFlight--;
+            switch (outcome) {
+                case DROPPED -> limit = Math.max(minLimit, limit * backoffRatio);
+                case SUCCESS -> {
+                    noLoadNanos = (noLoadNanos == 0 || latencyNanos < noLoadNanos)
+                            ? latencyNanos
+                            : noLoadNanos + (latencyNanos - noLoadNanos) * NO_LOAD_DRIFT;
+                    if (latencyNanos > noLoadNanos * latencyTolerance) {
+                        limit = Math.max(minLimit, limit * LATENCY_BACKOFF_RATIO);
+                    } else if (inUse * 2 >= limit) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                case IGNORED -> {
+                }
+            }
+            while (!waiting.isEmpty() && inFlight < limit) {
+                Permit next = waiting.pollFirst();
+                admit(next);
+                admitted.add(next);
+            }
+        }
+        admitted.forEach(permit -> permit.sink.success(permit));
+    }
+
+    private void admit(Permit permit) {
+        inFlight++;
+        permit.admitted = true;
+    }
+
+    /**
+     * Slot of one admitted call; the first release counts, later ones are ignored.
+     */
+    public final class Permit {
+        private final MonoSink<Permit> sink;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private boolean admitted; // Guarded by the enclosing AdaptiveLimit
+
+        private Permit(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        public void release(Outcome outcome, long latencyNanos) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(outcome, latencyNanos);
+            }
+        }
+    }
+}
@@ -1,20 +1,68 @@
 package com.flowforge.executor.kafka.consumer;
+import com.flowforge.common.concurrent.KeyedSequencer;
+import com.flowforge.executor.bulkhead.PluginBulkheads;
+import com.flowforge.executor.dto.ExecutionResultDto;
 import com.flowforge.executor.dto.ExecutionStartDto;
 import com.flowforge.executor.kafka.producer.ExecutionResultProducer;
 import com.flowforge.executor.service.ActionExecutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
 
 @Component @RequiredArgsConstructor @Slf4j
 public class ExecutionStartConsumer {
+    public static final String LISTENER_ID = "execution-start";
+    private static final Duration MAX_SEND_BACKOFF = Duration.ofSeconds(30);
+
     private final ActionExecutorService executorService;
+    private final PluginBulkheads bulkheads;
     private final ExecutionResultProducer producer;
+    private final ObjectProvider<KeyedSequencer> startSequencer;
+    @Value("${app.kafka.result-send-backoff:PT1S}") private Duration sendBackoff = Duration.ofSeconds(1);
 
-    @KafkaListener(topics = "${app.kafka.topics.execution-start}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consume(ExecutionStartDto startDto) {
+    @KafkaListener(id = LISTENER_ID, topics = "${app.kafka.topics.execution-start}", groupId = "${spring.kafka.consumer.group-id}")
+    public void consume(ExecutionStartDto startDto, Acknowledgment acknowledgment) {
         log.info("Consuming start event: {}", startDto.getExecutionId());
-        executorService.executeAction(startDto).subscribe(producer::sendExecutionResult);
+        // Called here, on the consumer thread, so context deltas are still applied in consumption order.
+        // The bulkhead bounds concurrent calls per action type and pauses this listener when saturated.
+        Mono<ExecutionResultDto> execution = bulkheads.execute(startDto.getActionType(), executorService.executeAction(startDto));
+        KeyedSequencer sequencer = startSequencer.getIfAvailable();
+        if (sequencer == null) {
+            // Acknowledged only once the result is on the broker: calls still queued in a bulkhead are
+            // redelivered after a restart or rebalance instead of being lost with the heap.
+            execution.flatMap(this::send)
+                    .subscribe(sent -> acknowledgment.acknowledge(), error -> log.error("Failed to run step {} of execution {}",
+                            startDto.getStepIndex(), startDto.getExecutionId(), error));
+            return;
+        }
+        // Keyed by step rather than execution, so parallel branches of one execution still run concurrently.
+        // The container commits an offset only once every record before it has been acknowledged.
+        sequencer.submit(startDto.getExecutionId() + ":" + startDto.getStepIndex(),
+                        () -> execution.flatMap(this::send).block())
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.error("Failed to run step {} of execution {}", startDto.getStepIndex(), startDto.getExecutionId(), error);
+                    } else {
+                        acknowledgment.acknowledge();
+                    }
+                });
+    }
+
+    /**
+     * Sends the result, retrying with backoff until the broker takes it. The start event stays
+     * unacknowledged meanwhile, so a result that never made it is redelivered rather than lost.
+     */
+    private Mono<?> send(ExecutionResultDto result) {
+        return Mono.fromFuture(() -> producer.sendExecutionResult(result))
+                .doOnError(e -> log.warn("Failed to send result of execution {}; retrying", result.getExecutionId(), e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, sendBackoff).maxBackoff(MAX_SEND_BACKOFF));
     }
-}
\ No newline at end of file
+}
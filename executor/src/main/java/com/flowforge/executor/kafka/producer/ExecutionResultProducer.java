@@ -4,15 +4,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component @RequiredArgsConstructor @Slf4j
 public class ExecutionResultProducer {
     private final KafkaTemplate<String, Object> kafkaTemplate;
     @Value("${app.kafka.topics.execution-result}") private String topic;
 
-    public void sendExecutionResult(ExecutionResultDto result) {
+    public CompletableFuture<SendResult<String, Object>> sendExecutionResult(ExecutionResultDto result) {
         log.info("Sending result for execution: {}", result.getExecutionId());
-        kafkaTemplate.send(topic, result.getExecutionId().toString(), result);
+        return kafkaTemplate.send(topic, result.getExecutionId().toString(), result);
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,15 @@
 package com.flowforge.executor.plugin.impl;
 import com.flowforge.executor.plugin.ActionPlugin;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,7 +17,19 @@ import java.util.Map;
 
 @Component @Slf4j
 public class GoogleSheetsAction implements ActionPlugin {
-    private final WebClient webClient = WebClient.builder().build();
+    private final WebClient webClient;
+    private final SheetsAppendBatcher batcher;
+
+    /**
+     * Appends to the same spreadsheet range arriving within {@code max-linger} of each other share one
+     * {@code values:append} call of at most {@code max-rows} rows; a linger of zero sends each on its own.
+     */
+    public GoogleSheetsAction(WebClient.Builder webClientBuilder,
+                              @Value("${app.sheets.batch.max-rows:500}") int maxRows,
+                              @Value("${app.sheets.batch.max-linger:PT0.2S}") Duration maxLinger) {
+        this.webClient = webClientBuilder.build();
+        this.batcher = new SheetsAppendBatcher(maxRows, maxLinger, Schedulers.parallel(), this::appendRows);
+    }
 
     @Override public String getSupportedType() { return "GOOGLE_SHEET_ROW"; }
     @Override public Mono<Map<String, Object>> execute(Map<String, Object> config, Map<String, Object> context) {
@@ -35,10 +51,14 @@ public class GoogleSheetsAction implements ActionPlugin {
             valueInputOption = "USER_ENTERED";
         }
 
+        return batcher.append(new SheetsAppendBatcher.Target(spreadsheetId, range, valueInputOption, apiKey), values);
+    }
+
+    private Mono<Map<String, Object>> appendRows(SheetsAppendBatcher.Target target, List<List<Object>> values) {
         String uri = UriComponentsBuilder.fromUriString("https://sheets.googleapis.com/v4/spreadsheets/{spreadsheetId}/values/{range}:append")
-                .queryParam("valueInputOption", valueInputOption)
-                .queryParam("key", apiKey)
-                .buildAndExpand(spreadsheetId, range)
+                .queryParam("valueInputOption", target.valueInputOption())
+                .queryParam("key", target.apiKey())
+                .buildAndExpand(target.spreadsheetId(), target.range())
                 .toUriString();
 
         Map<String, Object> body = new HashMap<>();
@@ -49,13 +69,7 @@ public class GoogleSheetsAction implements ActionPlugin {
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(body)
                 .retrieve()
-                .bodyToMono(Map.class)
-                .map(response -> {
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("updatedRange", response.get("updates") instanceof Map ? ((Map<?, ?>) response.get("updates")).get("updatedRange") : null);
-                    result.put("response", response);
-                    return result;
-                });
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() { });
     }
 
     private List<List<Object>> coerceValues(Object raw) {
@@ -0,0 +1,158 @@
+package com.flowforge.executor.plugin.impl;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Coalesces the rows of concurrent Google Sheets appends to the same target into one
+ * {@code values:append} call. Rows are buffered per {@link Target} until {@code maxRows} rows are
+ * pending or the oldest has waited {@code maxLinger}; the batch's {@code updatedRange} is then split
+ * back into the rows each caller appended.
+ */
+public class SheetsAppendBatcher {
+
+    private static final Pattern A1_RANGE = Pattern.compile("^(.*!)?([A-Za-z]+)(\\d+)(?::([A-Za-z]+)(\\d+))?$");
+
+    private final int maxRows;
+    private final Duration maxLinger;
+    private final Scheduler scheduler;
+    private final BiFunction<Target, List<List<Object>>, Mono<Map<String, Object>>> append;
+
+    private final Map<Target, Batch> pending = new HashMap<>(); // Guarded by this
+
+    public SheetsAppendBatcher(int maxRows, Duration maxLinger, Scheduler scheduler,
+                               BiFunction<Target, List<List<Object>>, Mono<Map<String, Object>>> append) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("Sheets append batching needs max-rows of at least 1");
+        }
+        this.maxRows = maxRows;
+        this.maxLinger = maxLinger;
+        this.scheduler = scheduler;
+        this.append = append;
+    }
+
+    /**
+     * Spreadsheet range appended to, with the request options that must match for rows to share a call.
+     */
+    public record Target(String spreadsheetId, String range, String valueInputOption, String apiKey) {
+    }
+
+    /**
+     * Emits the append response with {@code updatedRange} narrowed to {@code rows}. Cancelling before the
+     * batch is sent takes the rows out of it.
+     */
+    public Mono<Map<String, Object>> append(Target target, List<List<Object>> rows) {
+        return Mono.create(sink -> {
+            Entry entry = new Entry(rows, sink);
+            List<Batch> full = new ArrayList<>();
+            synchronized (this) {
+                Batch batch = pending.get(target);
+                if (batch != null && batch.rows + rows.size() > maxRows) {
+                    full.add(close(target, batch));
+                    batch = null;
+                }
+                if (batch == null) {
+                    Batch created = new Batch();
+                    pending.put(target, created);
+                    if (!maxLinger.isZero()) {
+                        created.timer = scheduler.schedule(() -> lingered(target, created),
+                                maxLinger.toNanos(), TimeUnit.NANOSECONDS);
+                    }
+                    batch = created;
+                }
+                batch.entries.add(entry);
+                batch.rows += rows.size();
+                if (batch.rows >= maxRows || maxLinger.isZero()) {
+                    full.add(close(target, batch));
+                }
+                Batch joined = batch;
+                sink.onCancel(() -> {
+                    synchronized (this) {
+                        if (!joined.sent && joined.entries.remove(entry)) {
+                            joined.rows -= rows.size();
+                        }
+                    }
+                });
+            }
+            full.forEach(batch -> send(target, batch));
+        });
+    }
+
+    private void lingered(Target target, Batch batch) {
+        synchronized (this) {
+            if (pending.get(target) != batch) {
+                return; // Already sent when it filled up
+            }
+            close(target, batch);
+        }
+        send(target, batch);
+    }
+
+    private Batch close(Target target, Batch batch) {
+        pending.remove(target);
+        batch.sent = true;
+        if (batch.timer != null) {
+            batch.timer.dispose();
+        }
+        return batch;
+    }
+
+    private void send(Target target, Batch batch) {
+        if (batch.entries.isEmpty()) {
+            return; // Every caller cancelled while it lingered
+        }
+        List<List<Object>> values = new ArrayList<>(batch.rows);
+        batch.entries.forEach(entry -> values.addAll(entry.rows));
+        append.apply(target, values).subscribe(
+                response -> demultiplex(batch.entries, response),
+                e -> batch.entries.forEach(entry -> entry.sink.error(e)),
+                () -> batch.entries.forEach(entry -> entry.sink.success()));
+    }
+
+    private static void demultiplex(List<Entry> entries, Map<String, Object> response) {
+        Object updates = response.get("updates");
+        Object updatedRange = updates instanceof Map ? ((Map<?, ?>) updates).get("updatedRange") : null;
+        Matcher matcher = updatedRange == null ? null : A1_RANGE.matcher(String.valueOf(updatedRange));
+        boolean split = matcher != null && matcher.matches();
+        int offset = 0;
+        for (Entry entry : entries) {
+            Map<String, Object> result = new HashMap<>();
+            if (split) {
+                int first = Integer.parseInt(matcher.group(3)) + offset;
+                int last = first + entry.rows.size() - 1;
+                String sheet = matcher.group(1) == null ? "" : matcher.group(1);
+                String lastColumn = matcher.group(4) == null ? matcher.group(2) : matcher.group(4);
+                result.put("updatedRange", sheet + matcher.group(2) + first + ":" + lastColumn + last);
+            } else {
+                result.put("updatedRange", updatedRange);
+            }
+            result.put("updatedRows", entry.rows.size());
+            result.put("batchRows", entries.stream().mapToInt(e -> e.rows.size()).sum());
+            result.put("response", response);
+            offset += entry.rows.size();
+            entry.sink.success(result);
+        }
+    }
+
+    private static final class Batch {
+        private final List<Entry> entries = new ArrayList<>();
+        private int rows;
+        private boolean sent;
+        private Disposable timer;
+    }
+
+    private record Entry(List<List<Object>> rows, MonoSink<Map<String, Object>> sink) {
+    }
+}
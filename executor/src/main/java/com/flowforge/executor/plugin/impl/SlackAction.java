@@ -1,16 +1,37 @@
 package com.flowforge.executor.plugin.impl;
 import com.flowforge.executor.plugin.ActionPlugin;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 @Component @Slf4j
 public class SlackAction implements ActionPlugin {
-    private final WebClient webClient = WebClient.builder().build();
+    private final WebClient webClient;
+    private final SlackRateLimiter rateLimiter;
+
+    /**
+     * Posts are paced per webhook URL at {@code permits-per-second} (Slack allows about one), queueing
+     * instead of failing up to {@code max-queued-per-webhook}; with the digest enabled, queued messages
+     * for one channel are merged into one post.
+     */
+    public SlackAction(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                       @Value("${app.slack.rate-limit.permits-per-second:1.0}") double permitsPerSecond,
+                       @Value("${app.slack.rate-limit.burst:1}") int burst,
+                       @Value("${app.slack.rate-limit.max-queued-per-webhook:16}") int maxQueuedPerWebhook,
+                       @Value("${app.slack.digest.enabled:false}") boolean digestEnabled,
+                       @Value("${app.slack.digest.window:PT10S}") Duration digestWindow) {
+        this.webClient = webClientBuilder.build();
+        this.rateLimiter = new SlackRateLimiter(permitsPerSecond, burst, maxQueuedPerWebhook,
+                digestEnabled ? digestWindow : Duration.ZERO, Schedulers.parallel(), meterRegistry, this::post);
+    }
 
     @Override public String getSupportedType() { return "SLACK_MESSAGE"; }
     @Override public Mono<Map<String, Object>> execute(Map<String, Object> config, Map<String, Object> context) {
@@ -32,6 +53,10 @@ public class SlackAction implements ActionPlugin {
             payload.put("channel", channel);
         }
 
+        return rateLimiter.send(webhookUrl, payload);
+    }
+
+    private Mono<Map<String, Object>> post(String webhookUrl, Map<String, Object> payload) {
         return webClient.post()
                 .uri(webhookUrl)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,331 @@
+package com.flowforge.executor.plugin.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Paces Slack webhook posts with a token bucket per webhook URL. Posts over the rate wait in FIFO order
+ * instead of failing, and a 429 puts the post back at the head of its queue until {@code Retry-After}
+ * has passed. With a digest window, a message queued behind others for the same channel is merged into
+ * the one already waiting if that one was queued less than the window ago, so a burst becomes a few
+ * posts of several lines.
+ * <p>
+ * Each queued message holds its caller's SLACK_MESSAGE bulkhead slot, so one webhook may queue at most
+ * {@code maxQueuedPerWebhook} of them; beyond that a message fails at once as a 429 with a
+ * {@code Retry-After} of the queue's wait, to be retried by the step's retry policy, and the other
+ * webhooks keep their share of the slots.
+ * <p>
+ * A webhook's bucket is dropped once it is idle: nothing queued or posting and its tokens refilled to
+ * the burst. A later post starts a fresh, full bucket, so dropping it never lets more through.
+ * <p>
+ * Publishes {@code flowforge.slack.queue.depth} (messages waiting over all webhooks) and
+ * {@code flowforge.slack.queue.wait} (time from submit to post); neither is tagged with the webhook URL,
+ * which is a secret.
+ */
+public class SlackRateLimiter {
+
+    private static final int MAX_THROTTLED_RETRIES = 3;
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 1;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxQueuedPerWebhook;
+    private final Duration digestWindow;
+    private final Scheduler scheduler;
+    private final BiFunction<String, Map<String, Object>, Mono<Map<String, Object>>> post;
+    private final Map<String, Webhook> webhooks = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+
+    public SlackRateLimiter(double permitsPerSecond, int burst, int maxQueuedPerWebhook, Duration digestWindow,
+                            Scheduler scheduler, MeterRegistry meterRegistry,
+                            BiFunction<String, Map<String, Object>, Mono<Map<String, Object>>> post) {
+        if (permitsPerSecond <= 0 || burst < 1 || maxQueuedPerWebhook < 1) {
+            throw new IllegalArgumentException("Slack rate limit needs permits-per-second > 0 and burst and max-queued-per-webhook of at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxQueuedPerWebhook = maxQueuedPerWebhook;
+        this.digestWindow = digestWindow;
+        this.scheduler = scheduler;
+        this.post = post;
+        Gauge.builder("flowforge.slack.queue.depth", queued, AtomicInteger::get)
+                .description("Slack messages waiting for their webhook's rate limit")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("flowforge.slack.queue.wait")
+                .description("Time Slack messages waited for their webhook's rate limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Posts {@code payload} ({@code text} and optional {@code channel}) once the webhook's rate allows.
+     * Cancelling while it waits takes the message out of the queue.
+     */
+    public Mono<Map<String, Object>> send(String webhookUrl, Map<String, Object> payload) {
+        return Mono.create(sink -> {
+            Part part = new Part(String.valueOf(payload.get("text")), sink, now());
+            while (!webhooks.computeIfAbsent(webhookUrl, Webhook::new).submit(part, payload)) {
+                // Dropped as idle in between; the next bucket is a fresh one
+            }
+        });
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    public int webhooks() {
+        return webhooks.size();
+    }
+
+    private long now() {
+        return scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    private final class Webhook {
+        private final String url;
+        private final Deque<Message> waiting = new ArrayDeque<>(); // Guarded by this
+        private double tokens; // Guarded by this
+        private long refilledAt; // Guarded by this
+        private Disposable timer; // Guarded by this
+        private int posting; // Guarded by this
+        private int queuedParts; // Guarded by this
+        private boolean idleCheck; // Guarded by this; timer only checks whether to drop the bucket
+        private boolean dropped; // Guarded by this
+
+        private Webhook(String url) {
+            this.url = url;
+            this.tokens = burst;
+            this.refilledAt = now();
+        }
+
+        private boolean submit(Part part, Map<String, Object> payload) {
+            Message now = null;
+            WebClientResponseException rejected = null;
+            synchronized (this) {
+                if (dropped) {
+                    return false;
+                }
+                refill();
+                Message merged = digestTarget(payload.get("channel"), part.queuedAt);
+                if (queuedParts >= maxQueuedPerWebhook) {
+                    rejected = queueFull();
+                } else if (merged != null) {
+                    merged.parts.add(part);
+                    addQueued(1);
+                    part.sink.onCancel(() -> cancel(merged, part));
+                } else {
+                    Message message = new Message(payload);
+                    message.parts.add(part);
+                    if (waiting.isEmpty() && tokens >= 1) {
+                        // Posted right away; once posting, a message is no longer cancelled with its callers
+                        tokens--;
+                        message.dispatched = true;
+                        posting++;
+                        now = message;
+                    } else {
+                        waiting.addLast(message);
+                        addQueued(1);
+                        part.sink.onCancel(() -> cancel(message, part));
+                        scheduleDrain();
+                    }
+                }
+            }
+            if (rejected != null) {
+                part.sink.error(rejected);
+            } else if (now != null) {
+                dispatch(now);
+            }
+            return true;
+        }
+
+        private WebClientResponseException queueFull() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString((long) Math.ceil((queuedParts + 1) / permitsPerSecond)));
+            return WebClientResponseException.create(HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Slack webhook queue is full", headers, new byte[0], null);
+        }
+
+        private void addQueued(int delta) {
+            queuedParts += delta;
+            queued.addAndGet(delta);
+        }
+
+        private Message digestTarget(Object channel, long queuedAt) {
+            if (digestWindow.isZero()) {
+                return null;
+            }
+            for (Message message : waiting) {
+                if (Objects.equals(message.payload.get("channel"), channel)
+                        && message.attempts == 0
+                        && queuedAt - message.parts.get(0).queuedAt <= digestWindow.toNanos()) {
+                    return message;
+                }
+            }
+            return null;
+        }
+
+        private void drain() {
+            List<Message> ready = new ArrayList<>();
+            synchronized (this) {
+                timer = null;
+                refill();
+                while (!waiting.isEmpty() && tokens >= 1) {
+                    Message message = waiting.pollFirst();
+                    if (message.parts.isEmpty()) {
+                        continue; // Every part cancelled
+                    }
+                    tokens--;
+                    message.dispatched = true;
+                    posting++;
+                    addQueued(-message.parts.size());
+                    ready.add(message);
+                }
+                if (waiting.isEmpty() && posting == 0 && tokens >= burst) {
+                    dropped = true;
+                    webhooks.remove(url, this);
+                    return;
+                }
+                scheduleDrain();
+            }
+            ready.forEach(this::dispatch);
+        }
+
+        private void throttled(Message message, long retryAfterSeconds) {
+            synchronized (this) {
+                refill();
+                tokens = Math.min(tokens, 1 - retryAfterSeconds * permitsPerSecond);
+                posting--;
+                message.dispatched = false;
+                message.attempts++;
+                waiting.addFirst(message);
+                addQueued(message.parts.size());
+                scheduleDrain();
+            }
+        }
+
+        private void cancel(Message message, Part part) {
+            synchronized (this) {
+                if (!message.dispatched && message.parts.remove(part)) {
+                    addQueued(-1);
+                    if (message.parts.isEmpty()) {
+                        waiting.remove(message);
+                    }
+                }
+            }
+        }
+
+        private void refill() {
+            long now = now();
+            tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * permitsPerSecond);
+            refilledAt = now;
+        }
+
+        private void posted() {
+            synchronized (this) {
+                posting--;
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Drains once a token is available for the head of the queue, or, with nothing queued or
+         * posting, once the bucket is full again so that drain can drop it.
+         */
+        private void scheduleDrain() {
+            if (waiting.isEmpty()) {
+                if (timer == null && posting == 0) {
+                    long delayNanos = (long) Math.ceil(Math.max(0, burst - tokens) / permitsPerSecond * 1e9);
+                    timer = scheduler.schedule(this::drain, Math.max(1, delayNanos), TimeUnit.NANOSECONDS);
+                    idleCheck = true;
+                }
+                return;
+            }
+            if (timer != null && !idleCheck) {
+                return;
+            }
+            if (timer != null) {
+                timer.dispose(); // The idle check may be later than the next token
+            }
+            long delayNanos = (long) Math.ceil(Math.max(0, 1 - tokens) / permitsPerSecond * 1e9);
+            timer = scheduler.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+            idleCheck = false;
+        }
+
+        private void dispatch(Message message) {
+            List<Part> parts = List.copyOf(message.parts);
+            long now = now();
+            if (message.attempts == 0) {
+                parts.forEach(part -> waitTimer.record(now - part.queuedAt, TimeUnit.NANOSECONDS));
+            }
+            Map<String, Object> payload = new HashMap<>(message.payload);
+            payload.put("text", String.join("\n", parts.stream().map(part -> part.text).toList()));
+            post.apply(url, payload).subscribe(
+                    response -> {
+                        posted();
+                        parts.forEach(part -> {
+                            Map<String, Object> result = new HashMap<>(response);
+                            result.put("digested", parts.size());
+                            part.sink.success(result);
+                        });
+                    },
+                    e -> {
+                        if (e instanceof WebClientResponseException throttled
+                                && throttled.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                                && message.attempts < MAX_THROTTLED_RETRIES) {
+                            throttled(message, retryAfterSeconds(throttled));
+                        } else {
+                            posted();
+                            parts.forEach(part -> part.sink.error(e));
+                        }
+                    });
+        }
+    }
+
+    private static long retryAfterSeconds(WebClientResponseException e) {
+        String retryAfter = e.getHeaders().getFirst("Retry-After");
+        try {
+            return retryAfter == null ? DEFAULT_RETRY_AFTER_SECONDS : Math.max(0, Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException ignored) {
+            return DEFAULT_RETRY_AFTER_SECONDS;
+        }
+    }
+
+    /**
+     * One post to make: the first submitted payload and the texts of every message merged into it.
+     */
+    private static final class Message {
+        private final Map<String, Object> payload;
+        private final List<Part> parts = new ArrayList<>();
+        private boolean dispatched;
+        private int attempts;
+
+        private Message(Map<String, Object> payload) {
+            this.payload = payload;
+        }
+    }
+
+    private record Part(String text, MonoSink<Map<String, Object>> sink, long queuedAt) {
+    }
+}
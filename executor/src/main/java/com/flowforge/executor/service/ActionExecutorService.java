@@ -4,20 +4,28 @@ import com.flowforge.executor.dto.ExecutionStartDto;
 import com.flowforge.executor.plugin.PluginManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 @Service @RequiredArgsConstructor @Slf4j
 public class ActionExecutorService {
+    private static final String INVALID_CONFIG = "INVALID_CONFIG";
     private final PluginManager pluginManager;
+    private final ClaimCheckResolver claimCheckResolver;
+    private final ExecutionContextCache contextCache;
     public Mono<ExecutionResultDto> executeAction(ExecutionStartDto startDto) {
-        Map<String, Object> context = startDto.getContext();
-        final Map<String, Object> resolvedContext = (context == null)
-                ? defaultContext(startDto)
-                : context;
+        // Resolved eagerly so context versions are cached in the order events are consumed.
+        final Mono<Map<String, Object>> resolvedContext = contextCache.resolve(startDto)
+                .defaultIfEmpty(defaultContext(startDto))
+                .map(claimCheckResolver::lazy);
         try {
             validateConfig(startDto.getActionType(), startDto.getActionConfig());
         } catch (IllegalArgumentException e) {
@@ -26,23 +34,26 @@ public class ActionExecutorService {
                     .workflowId(startDto.getWorkflowId())
                     .userId(startDto.getUserId())
                     .stepIndex(startDto.getStepIndex())
+                    .attempt(startDto.getAttempt())
                     .status("FAILURE")
                     .errorMessage(e.getMessage())
+                    .errorCode(INVALID_CONFIG)
                     .build());
         }
         return Mono.justOrEmpty(pluginManager.getPlugin(startDto.getActionType()))
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Unknown action: " + startDto.getActionType())))
-                .flatMap(plugin -> {
-                    try { return plugin.execute(startDto.getActionConfig(), resolvedContext); }
+                .flatMap(plugin -> resolvedContext.flatMap(context -> {
+                    try { return plugin.execute(startDto.getActionConfig(), context); }
                     catch (Exception e) { return Mono.error(e); }
-                })
+                }))
                 .map(output -> ExecutionResultDto.builder()
                         .executionId(startDto.getExecutionId())
                         .workflowId(startDto.getWorkflowId())
                         .userId(startDto.getUserId())
                         .stepIndex(startDto.getStepIndex())
+                        .attempt(startDto.getAttempt())
                         .status("SUCCESS")
-                        .output(output).build())
+                        .output(claimCheckResolver.offload(output)).build())
                 .onErrorResume(e -> {
                     log.error("Execution failed", e);
                     return Mono.just(ExecutionResultDto.builder()
@@ -50,11 +61,47 @@ public class ActionExecutorService {
                             .workflowId(startDto.getWorkflowId())
                             .userId(startDto.getUserId())
                             .stepIndex(startDto.getStepIndex())
+                            .attempt(startDto.getAttempt())
                             .status("FAILURE")
-                            .errorMessage(e.getMessage()).build());
+                            .errorMessage(e.getMessage())
+                            .errorCode(errorCode(e))
+                            .retryAfterMillis(retryAfterMillis(e)).build());
                 });
     }
 
+    /**
+     * Classifies a failure for the orchestrator's retry policies: {@code HTTP_<status>} for an
+     * upstream error response, {@code NETWORK} when no response arrived, {@code INVALID_CONFIG}
+     * for a bad action definition and {@code ERROR} for anything else.
+     */
+    static String errorCode(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return "HTTP_" + response.getStatusCode().value();
+        }
+        if (e instanceof WebClientRequestException || e instanceof TimeoutException || e instanceof IOException) {
+            return "NETWORK";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return INVALID_CONFIG;
+        }
+        return "ERROR";
+    }
+
+    private static Long retryAfterMillis(Throwable e) {
+        if (!(e instanceof WebClientResponseException response)) {
+            return null;
+        }
+        String retryAfter = response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException notSeconds) {
+            return null; // HTTP-date form; the retry policy's own backoff applies
+        }
+    }
+
     private Map<String, Object> defaultContext(ExecutionStartDto startDto) {
         Map<String, Object> context = new HashMap<>();
         context.put("trigger", startDto.getTriggerPayload());
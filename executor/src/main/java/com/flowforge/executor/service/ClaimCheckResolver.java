@@ -0,0 +1,133 @@
+package com.flowforge.executor.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.blob.BlobReference;
+import com.flowforge.common.blob.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves {@link BlobReference}s in execution contexts on first access, so a blob is only read
+ * when a plugin actually looks at that part of the context. Also offloads large plugin outputs.
+ */
+@Component
+@Slf4j
+public class ClaimCheckResolver {
+
+    private final BlobStore blobStore;
+    private final ObjectMapper objectMapper;
+    private final int thresholdBytes;
+
+    public ClaimCheckResolver(BlobStore blobStore,
+                              ObjectMapper objectMapper,
+                              @Value("${app.claim-check.threshold-bytes:16384}") int thresholdBytes) {
+        this.blobStore = blobStore;
+        this.objectMapper = objectMapper;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    public Map<String, Object> lazy(Map<String, Object> context) {
+        return context == null ? null : new LazyResolvingMap(context);
+    }
+
+    public Map<String, Object> offload(Map<String, Object> output) {
+        if (output == null || BlobReference.isReference(output)) {
+            return output;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(output);
+        } catch (JsonProcessingException e) {
+            return output;
+        }
+        if (json.length <= thresholdBytes) {
+            return output;
+        }
+        return BlobReference.of(blobStore.put(json), json.length);
+    }
+
+    private Object load(String key) {
+        log.debug("Resolving blob {}", key);
+        try {
+            return objectMapper.readValue(blobStore.get(key), Object.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + key, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object resolve(Object value) {
+        String key = BlobReference.keyOf(value);
+        Object resolved = (key == null) ? value : load(key);
+        return (resolved instanceof Map<?, ?> map) ? new LazyResolvingMap((Map<String, Object>) map) : resolved;
+    }
+
+    /**
+     * Read-through view of a context map; each value is resolved once, when first read.
+     */
+    private final class LazyResolvingMap extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> source;
+        private final Map<String, Object> resolved = new HashMap<>();
+
+        private LazyResolvingMap(Map<String, Object> source) {
+            this.source = source;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String name) || !source.containsKey(name)) {
+                return null;
+            }
+            return resolved.computeIfAbsent(name, k -> resolve(source.get(k)));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return source.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<String> keys = source.keySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return keys.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            String name = keys.next();
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return source.size();
+                }
+            };
+        }
+    }
+}
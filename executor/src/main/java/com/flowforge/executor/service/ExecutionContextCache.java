@@ -0,0 +1,110 @@
+package com.flowforge.executor.service;
+
+import com.flowforge.executor.client.OrchestratorClient;
+import com.flowforge.executor.dto.ExecutionContextDto;
+import com.flowforge.executor.dto.ExecutionStartDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Step context per execution, keyed by the orchestrator's context version.
+ * <p>
+ * A start event either carries the full context, which replaces the cached entry, or a delta of
+ * step outputs on top of {@code contextBaseVersion}. The delta is applied only when the cached
+ * entry is at exactly that version; otherwise (evicted, rebalanced onto this instance, or a
+ * version skipped) the full context is fetched from the orchestrator. Cache updates happen when
+ * {@link #resolve} is called, so callers invoking it on the listener thread keep the per-partition
+ * event order.
+ */
+@Component
+@Slf4j
+public class ExecutionContextCache {
+
+    private final OrchestratorClient orchestratorClient;
+    private final Cache<UUID, CachedContext> contexts;
+
+    public ExecutionContextCache(OrchestratorClient orchestratorClient,
+                                 @Value("${app.context-cache.max-size:10000}") long maxSize,
+                                 @Value("${app.context-cache.ttl:30m}") Duration ttl) {
+        this.orchestratorClient = orchestratorClient;
+        this.contexts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /**
+     * Context for a start event, or empty if the event carries no versioned context at all.
+     */
+    public Mono<Map<String, Object>> resolve(ExecutionStartDto startDto) {
+        UUID executionId = startDto.getExecutionId();
+        Integer version = startDto.getContextVersion();
+
+        if (startDto.getContext() != null) {
+            if (version != null) {
+                contexts.put(executionId, CachedContext.of(version, startDto.getContext()));
+            }
+            return Mono.just(startDto.getContext());
+        }
+        if (startDto.getContextDelta() == null || version == null) {
+            return Mono.empty();
+        }
+
+        CachedContext cached = contexts.getIfPresent(executionId);
+        if (cached != null && cached.version() >= version) {
+            return Mono.just(cached.view());
+        }
+        if (cached != null && startDto.getContextBaseVersion() != null && cached.version() == startDto.getContextBaseVersion()) {
+            CachedContext next = cached.apply(version, startDto.getContextDelta());
+            contexts.put(executionId, next);
+            return Mono.just(next.view());
+        }
+
+        log.info("Context for execution {} is not at version {} locally; resyncing.", executionId, startDto.getContextBaseVersion());
+        return orchestratorClient.getExecutionContext(executionId, startDto.getUserId())
+                .map(full -> {
+                    CachedContext fetched = CachedContext.of(full);
+                    contexts.asMap().merge(executionId, fetched,
+                            (current, incoming) -> incoming.version() >= current.version() ? incoming : current);
+                    return fetched.view();
+                });
+    }
+
+    private record CachedContext(int version, Map<String, Object> trigger, Map<String, Object> steps) {
+
+        @SuppressWarnings("unchecked")
+        static CachedContext of(int version, Map<String, Object> context) {
+            Object steps = context.get("steps");
+            return new CachedContext(version, (Map<String, Object>) context.get("trigger"),
+                    steps instanceof Map<?, ?> map ? new HashMap<>((Map<String, Object>) map) : new HashMap<>());
+        }
+
+        static CachedContext of(ExecutionContextDto dto) {
+            return new CachedContext(dto.getVersion(), dto.getTrigger(),
+                    dto.getSteps() == null ? new HashMap<>() : new HashMap<>(dto.getSteps()));
+        }
+
+        CachedContext apply(int newVersion, Map<String, Object> delta) {
+            Map<String, Object> merged = new HashMap<>(steps);
+            merged.putAll(delta);
+            return new CachedContext(newVersion, trigger, merged);
+        }
+
+        Map<String, Object> view() {
+            Map<String, Object> context = new HashMap<>();
+            context.put("trigger", trigger);
+            context.put("steps", Collections.unmodifiableMap(steps));
+            return context;
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.flowforge.executor;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.blob.FileSystemBlobStore;
 import com.flowforge.executor.dto.ExecutionStartDto;
 import com.flowforge.executor.plugin.ActionPlugin;
 import com.flowforge.executor.plugin.PluginManager;
 import com.flowforge.executor.service.ActionExecutorService;
+import com.flowforge.executor.service.ClaimCheckResolver;
+import com.flowforge.executor.service.ExecutionContextCache;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 class ActionExecutorServiceValidationTest {
 
+    @TempDir
+    Path blobDir;
+
     @Test
     void missingRequiredSlackConfigProducesFailure() {
-        ActionExecutorService service = new ActionExecutorService(new PluginManager(java.util.List.<ActionPlugin>of()));
+        ClaimCheckResolver resolver = new ClaimCheckResolver(new FileSystemBlobStore(blobDir), new ObjectMapper(), 16384);
+        ActionExecutorService service = new ActionExecutorService(new PluginManager(java.util.List.<ActionPlugin>of()), resolver,
+                new ExecutionContextCache(mock(com.flowforge.executor.client.OrchestratorClient.class), 100, Duration.ofMinutes(1)));
 
         ExecutionStartDto startDto = ExecutionStartDto.builder()
                 .executionId(UUID.randomUUID())
@@ -32,5 +49,42 @@ class ActionExecutorServiceValidationTest {
         assertThat(result).isNotNull();
         assertThat(result.getStatus()).isEqualTo("FAILURE");
         assertThat(result.getErrorMessage()).contains("webhookUrl");
+        assertThat(result.getErrorCode()).isEqualTo("INVALID_CONFIG");
+    }
+
+    @Test
+    void upstreamThrottlingIsReportedWithErrorCodeAndRetryAfter() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3");
+        ActionPlugin throttled = new ActionPlugin() {
+            @Override
+            public String getSupportedType() {
+                return "SLACK_MESSAGE";
+            }
+
+            @Override
+            public Mono<Map<String, Object>> execute(Map<String, Object> config, Map<String, Object> context) {
+                return Mono.error(WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null));
+            }
+        };
+        ClaimCheckResolver resolver = new ClaimCheckResolver(new FileSystemBlobStore(blobDir), new ObjectMapper(), 16384);
+        ActionExecutorService service = new ActionExecutorService(new PluginManager(List.of(throttled)), resolver,
+                new ExecutionContextCache(mock(com.flowforge.executor.client.OrchestratorClient.class), 100, Duration.ofMinutes(1)));
+
+        ExecutionStartDto startDto = ExecutionStartDto.builder()
+                .executionId(UUID.randomUUID())
+                .stepIndex(0)
+                .attempt(2)
+                .actionType("SLACK_MESSAGE")
+                .actionConfig(Map.of("webhookUrl", "https://hooks.example.com/x"))
+                .context(Map.of())
+                .build();
+
+        var result = service.executeAction(startDto).block();
+        assertThat(result).isNotNull();
+        assertThat(result.getStatus()).isEqualTo("FAILURE");
+        assertThat(result.getAttempt()).isEqualTo(2);
+        assertThat(result.getErrorCode()).isEqualTo("HTTP_429");
+        assertThat(result.getRetryAfterMillis()).isEqualTo(3000L);
     }
 }
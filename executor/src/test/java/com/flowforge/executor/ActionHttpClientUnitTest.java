@@ -0,0 +1,69 @@
+package com.flowforge.executor;
+
+import com.flowforge.executor.config.RestClientConfig;
+import com.flowforge.executor.http.AdaptiveConcurrencyFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActionHttpClientUnitTest {
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void startServer() {
+        server = HttpServer.create()
+                .port(0)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connections.incrementAndGet())
+                .route(routes -> routes.post("/hook", (request, response) ->
+                        response.sendString(request.receive().aggregate().asString().map(body -> "ok"))))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.disposeNow();
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().block();
+        }
+    }
+
+    @Test
+    void sequentialPluginCallsReusePooledConnections() {
+        RestClientConfig config = new RestClientConfig();
+        connectionProvider = config.actionConnectionProvider(10, 100, Duration.ofSeconds(5),
+                Duration.ofSeconds(55), Duration.ofMinutes(5), Duration.ofSeconds(30));
+        WebClient webClient = config.webClientBuilder(
+                        config.actionHttpClient(connectionProvider, Duration.ofSeconds(2), Duration.ofSeconds(5), true, true),
+                        new AdaptiveConcurrencyFilter(new SimpleMeterRegistry(), 10, 1, 50, 0.75, 2.0))
+                .build();
+
+        Long responses = Flux.range(0, 20)
+                .concatMap(i -> webClient.post()
+                        .uri("http://localhost:" + server.port() + "/hook")
+                        .bodyValue("{}")
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .count()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(responses).isEqualTo(20);
+        // A connection returns to the pool on the event loop just after its body is read, so the next
+        // call may occasionally open a second one; without pooling every call would open its own
+        assertThat(connections.get()).isLessThanOrEqualTo(2);
+    }
+}
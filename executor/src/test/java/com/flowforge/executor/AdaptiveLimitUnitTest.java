@@ -0,0 +1,85 @@
+package com.flowforge.executor;
+
+import com.flowforge.executor.http.AdaptiveConcurrencyFilter;
+import com.flowforge.executor.http.AdaptiveLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitUnitTest {
+
+    private static final long FAST = 10_000_000L;
+
+    @Test
+    void limitGrowsWhileTheHostKeepsUpAndShrinksOnThrottling() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 50, 0.5, 2.0);
+        for (int round = 0; round < 200; round++) {
+            List<AdaptiveLimit.Permit> permits = acquireAll(limit, limit.limit());
+            permits.forEach(permit -> permit.release(AdaptiveLimit.Outcome.SUCCESS, FAST));
+        }
+        int learned = limit.limit();
+        assertThat(learned).isGreaterThan(10);
+
+        acquireAll(limit, 1).get(0).release(AdaptiveLimit.Outcome.DROPPED, FAST);
+        assertThat(limit.limit()).isEqualTo(learned / 2);
+    }
+
+    @Test
+    void slowResponsesBackOffBeforeTheHostThrottles() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 1, 50, 0.5, 2.0);
+        acquireAll(limit, 1).get(0).release(AdaptiveLimit.Outcome.SUCCESS, FAST);
+        for (int i = 0; i < 10; i++) {
+            acquireAll(limit, 1).get(0).release(AdaptiveLimit.Outcome.SUCCESS, FAST * 5);
+        }
+        assertThat(limit.limit()).isLessThan(20);
+    }
+
+    @Test
+    void callsOverTheLimitWaitAndCancelledWaitersLeaveTheQueue() {
+        AdaptiveLimit limit = new AdaptiveLimit(1, 1, 10, 0.5, 2.0);
+        AdaptiveLimit.Permit first = acquireAll(limit, 1).get(0);
+        List<AdaptiveLimit.Permit> admitted = new ArrayList<>();
+        Disposable cancelled = limit.acquire().subscribe(admitted::add);
+        limit.acquire().subscribe(admitted::add);
+        assertThat(limit.waiting()).isEqualTo(2);
+
+        cancelled.dispose();
+        first.release(AdaptiveLimit.Outcome.IGNORED, 0);
+
+        assertThat(admitted).hasSize(1);
+        assertThat(limit.waiting()).isZero();
+        assertThat(limit.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void filterReleasesThrottledResponsesAsDrops() {
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(new SimpleMeterRegistry(), 8, 1, 50, 0.5, 2.0);
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create("https://hooks.example.com/services/x")).build();
+
+        ClientResponse response = filter.filter(request,
+                r -> Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).build())).block();
+
+        assertThat(response.statusCode().value()).isEqualTo(429);
+        assertThat(filter.limitFor("hooks.example.com").limit()).isEqualTo(4);
+        assertThat(filter.limitFor("hooks.example.com").inFlight()).isZero();
+    }
+
+    private static List<AdaptiveLimit.Permit> acquireAll(AdaptiveLimit limit, int count) {
+        List<AdaptiveLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limit.acquire().block());
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,55 @@
+package com.flowforge.executor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.blob.BlobReference;
+import com.flowforge.common.blob.BlobStore;
+import com.flowforge.common.blob.FileSystemBlobStore;
+import com.flowforge.executor.service.ClaimCheckResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ClaimCheckResolverUnitTest {
+
+    @TempDir
+    Path blobDir;
+
+    @Test
+    void referencedBlobsAreReadOnlyWhenAccessed() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        BlobStore store = spy(new FileSystemBlobStore(blobDir));
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("body", Map.of("message", "hello")));
+        String key = store.put(body);
+
+        ClaimCheckResolver resolver = new ClaimCheckResolver(store, objectMapper, 16384);
+        Map<String, Object> context = resolver.lazy(Map.of(
+                "trigger", BlobReference.of(key, body.length),
+                "steps", Map.of("step_0", Map.of("sent", true))));
+
+        assertThat(context.get("steps")).isEqualTo(Map.of("step_0", Map.of("sent", true)));
+        verify(store, never()).get(anyString());
+
+        Map<?, ?> trigger = (Map<?, ?>) context.get("trigger");
+        assertThat(((Map<?, ?>) trigger.get("body")).get("message")).isEqualTo("hello");
+        context.get("trigger");
+        verify(store, times(1)).get(key);
+    }
+
+    @Test
+    void largeOutputsAreOffloadedAndSmallOnesKeptInline() {
+        ClaimCheckResolver resolver = new ClaimCheckResolver(new FileSystemBlobStore(blobDir), new ObjectMapper(), 64);
+
+        Map<String, Object> small = Map.of("sent", true);
+        assertThat(resolver.offload(small)).isSameAs(small);
+
+        Map<String, Object> offloaded = resolver.offload(Map.of("response", "x".repeat(200)));
+        assertThat(BlobReference.isReference(offloaded)).isTrue();
+        assertThat(resolver.offload(Map.of("response", "x".repeat(200)))).isEqualTo(offloaded);
+    }
+}
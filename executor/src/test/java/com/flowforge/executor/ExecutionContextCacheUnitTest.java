@@ -0,0 +1,74 @@
+package com.flowforge.executor;
+
+import com.flowforge.executor.client.OrchestratorClient;
+import com.flowforge.executor.dto.ExecutionContextDto;
+import com.flowforge.executor.dto.ExecutionStartDto;
+import com.flowforge.executor.service.ExecutionContextCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionContextCacheUnitTest {
+
+    private final UUID executionId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    private OrchestratorClient orchestratorClient;
+    private ExecutionContextCache cache;
+
+    @BeforeEach
+    void setUp() {
+        orchestratorClient = mock(OrchestratorClient.class);
+        cache = new ExecutionContextCache(orchestratorClient, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void deltaAppliesOnTopOfCachedVersion() {
+        cache.resolve(start(1, Map.of("trigger", Map.of("id", 7), "steps", Map.of()), null, null)).block();
+
+        Map<String, Object> context = cache.resolve(start(3, null, 1, Map.of("step_0", Map.of("ok", true)))).block();
+
+        assertThat(context).containsEntry("trigger", Map.of("id", 7));
+        assertThat(context.get("steps")).isEqualTo(Map.of("step_0", Map.of("ok", true)));
+        verify(orchestratorClient, never()).getExecutionContext(any(), any());
+    }
+
+    @Test
+    void versionGapFetchesFullContext() {
+        cache.resolve(start(1, Map.of("trigger", Map.of(), "steps", Map.of()), null, null)).block();
+        when(orchestratorClient.getExecutionContext(executionId, userId)).thenReturn(Mono.just(
+                new ExecutionContextDto(executionId, 5, Map.of(), Map.of("step_0", 1, "step_1", 2))));
+
+        Map<String, Object> context = cache.resolve(start(5, null, 3, Map.of("step_1", 2))).block();
+
+        assertThat(context.get("steps")).isEqualTo(Map.of("step_0", 1, "step_1", 2));
+        verify(orchestratorClient).getExecutionContext(executionId, userId);
+    }
+
+    @Test
+    void unversionedEventResolvesEmpty() {
+        assertThat(cache.resolve(start(null, null, null, null)).blockOptional()).isEmpty();
+    }
+
+    private ExecutionStartDto start(Integer version, Map<String, Object> context, Integer base, Map<String, Object> delta) {
+        return ExecutionStartDto.builder()
+                .executionId(executionId)
+                .userId(userId)
+                .contextVersion(version)
+                .context(context)
+                .contextBaseVersion(base)
+                .contextDelta(delta)
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.flowforge.executor;
+
+import com.flowforge.common.concurrent.KeyedSequencer;
+import com.flowforge.executor.bulkhead.Bulkhead;
+import com.flowforge.executor.bulkhead.PluginBulkheads;
+import com.flowforge.executor.dto.ExecutionResultDto;
+import com.flowforge.executor.dto.ExecutionStartDto;
+import com.flowforge.executor.kafka.consumer.ExecutionStartConsumer;
+import com.flowforge.executor.kafka.producer.ExecutionResultProducer;
+import com.flowforge.executor.plugin.ActionPlugin;
+import com.flowforge.executor.service.ActionExecutorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PluginBulkheadsUnitTest {
+
+    @Test
+    void callsBeyondTheLimitWaitAndStartInOrder() {
+        Bulkhead bulkhead = new Bulkhead("TEST", 2, 10, () -> { });
+        List<Sinks.One<String>> calls = new ArrayList<>();
+        List<String> started = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Sinks.One<String> call = Sinks.one();
+            calls.add(call);
+            String name = "call-" + i;
+            bulkhead.execute(call.asMono().doOnSubscribe(s -> started.add(name))).subscribe(results::add);
+        }
+        assertThat(started).containsExactly("call-0", "call-1");
+        assertThat(bulkhead.queued()).isEqualTo(2);
+
+        calls.get(1).tryEmitValue("one");
+        assertThat(started).containsExactly("call-0", "call-1", "call-2");
+        calls.get(0).tryEmitValue("zero");
+        calls.get(2).tryEmitValue("two");
+        calls.get(3).tryEmitValue("three");
+
+        assertThat(results).containsExactly("one", "zero", "two", "three");
+        assertThat(bulkhead.active()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    void cancellingAWaitingCallFreesItsQueueSlot() {
+        Bulkhead bulkhead = new Bulkhead("TEST", 1, 10, () -> { });
+        bulkhead.execute(Mono.never()).subscribe();
+        AtomicBoolean subscribed = new AtomicBoolean();
+        var waiting = bulkhead.execute(Mono.just("x").doOnSubscribe(s -> subscribed.set(true))).subscribe();
+        assertThat(bulkhead.queued()).isEqualTo(1);
+
+        waiting.dispose();
+
+        assertThat(bulkhead.queued()).isZero();
+        assertThat(subscribed).isFalse();
+    }
+
+    @Test
+    void saturatedBulkheadPausesTheConsumerUntilItDrains() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.bulkheads.SLACK_MESSAGE.max-concurrent", "1")
+                .withProperty("app.bulkheads.SLACK_MESSAGE.max-queue", "2");
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        AtomicBoolean paused = new AtomicBoolean();
+        AtomicInteger pauses = new AtomicInteger();
+        doAnswer(invocation -> { paused.set(true); pauses.incrementAndGet(); return null; }).when(container).pause();
+        doAnswer(invocation -> { paused.set(false); return null; }).when(container).resume();
+        when(container.isPauseRequested()).thenAnswer(invocation -> paused.get());
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(ExecutionStartConsumer.LISTENER_ID)).thenReturn(container);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KafkaListenerEndpointRegistry> registryProvider = mock(ObjectProvider.class);
+        when(registryProvider.getIfAvailable()).thenReturn(registry);
+
+        PluginBulkheads bulkheads = new PluginBulkheads(List.of(plugin("SLACK_MESSAGE")), environment,
+                new SimpleMeterRegistry(), registryProvider);
+        List<Sinks.One<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Sinks.One<String> call = Sinks.one();
+            calls.add(call);
+            bulkheads.execute("SLACK_MESSAGE", call.asMono()).subscribe();
+        }
+        assertThat(paused).isTrue();
+
+        calls.get(0).tryEmitValue("done"); // one queued call left: half of max-queue
+        assertThat(paused).isFalse();
+        assertThat(pauses.get()).isEqualTo(1);
+    }
+
+    @Test
+    void startEventIsAcknowledgedOnlyOnceItsResultIsSent() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.bulkheads.SLACK_MESSAGE.max-concurrent", "1");
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KafkaListenerEndpointRegistry> registryProvider = mock(ObjectProvider.class);
+        PluginBulkheads bulkheads = new PluginBulkheads(List.of(plugin("SLACK_MESSAGE")), environment,
+                new SimpleMeterRegistry(), registryProvider);
+        ActionExecutorService executorService = mock(ActionExecutorService.class);
+        Sinks.One<ExecutionResultDto> running = Sinks.one();
+        ExecutionResultDto firstResult = result();
+        ExecutionResultDto secondResult = result();
+        when(executorService.executeAction(any())).thenReturn(running.asMono(), Mono.just(secondResult));
+        ExecutionResultProducer producer = mock(ExecutionResultProducer.class);
+        CompletableFuture<SendResult<String, Object>> failedSend = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, Object>> firstSend = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, Object>> secondSend = new CompletableFuture<>();
+        when(producer.sendExecutionResult(firstResult)).thenReturn(failedSend, firstSend);
+        when(producer.sendExecutionResult(secondResult)).thenReturn(secondSend);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KeyedSequencer> noSequencer = mock(ObjectProvider.class);
+        ExecutionStartConsumer consumer = new ExecutionStartConsumer(executorService, bulkheads, producer, noSequencer);
+        ReflectionTestUtils.setField(consumer, "sendBackoff", Duration.ofMillis(10));
+        Acknowledgment runningAck = mock(Acknowledgment.class);
+        Acknowledgment queuedAck = mock(Acknowledgment.class);
+
+        consumer.consume(start(), runningAck);
+        consumer.consume(start(), queuedAck);
+        assertThat(bulkheads.get("SLACK_MESSAGE").queued()).isEqualTo(1);
+        verify(runningAck, never()).acknowledge();
+        verify(queuedAck, never()).acknowledge();
+
+        running.tryEmitValue(firstResult);
+        verify(runningAck, never()).acknowledge(); // Result not on the broker yet
+        failedSend.completeExceptionally(new IllegalStateException("broker down"));
+        verify(producer, timeout(1000).times(2)).sendExecutionResult(firstResult);
+        verify(runningAck, never()).acknowledge(); // The failed send is retried, not acknowledged
+        firstSend.complete(null);
+        verify(runningAck, timeout(1000)).acknowledge();
+
+        verify(queuedAck, never()).acknowledge();
+        secondSend.complete(null);
+        verify(queuedAck).acknowledge();
+    }
+
+    private static ExecutionResultDto result() {
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(UUID.randomUUID());
+        return result;
+    }
+
+    private static ExecutionStartDto start() {
+        return ExecutionStartDto.builder()
+                .executionId(UUID.randomUUID())
+                .actionType("SLACK_MESSAGE")
+                .build();
+    }
+
+    private static ActionPlugin plugin(String type) {
+        return new ActionPlugin() {
+            @Override
+            public String getSupportedType() {
+                return type;
+            }
+
+            @Override
+            public Mono<Map<String, Object>> execute(Map<String, Object> config, Map<String, Object> context) {
+                return Mono.just(Map.of());
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.flowforge.executor;
+
+import com.flowforge.executor.plugin.impl.SheetsAppendBatcher;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SheetsAppendBatcherUnitTest {
+
+    private static final SheetsAppendBatcher.Target TARGET =
+            new SheetsAppendBatcher.Target("sheet-1", "Log!A1", "USER_ENTERED", "key");
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final List<List<List<Object>>> calls = new ArrayList<>();
+
+    @Test
+    void appendsWithinTheLingerShareOneCallAndGetTheirOwnRows() {
+        SheetsAppendBatcher batcher = batcher(100, Duration.ofMillis(200), "Log!A10:B14");
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        batcher.append(TARGET, rows(2)).subscribe(results::add);
+        batcher.append(TARGET, rows(1)).subscribe(results::add);
+        batcher.append(TARGET, rows(2)).subscribe(results::add);
+        assertThat(calls).isEmpty();
+
+        scheduler.advanceTimeBy(Duration.ofMillis(200));
+
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0)).hasSize(5);
+        assertThat(results).extracting(result -> result.get("updatedRange"))
+                .containsExactly("Log!A10:B11", "Log!A12:B12", "Log!A13:B14");
+    }
+
+    @Test
+    void batchIsSentAsSoonAsItReachesMaxRows() {
+        SheetsAppendBatcher batcher = batcher(3, Duration.ofSeconds(10), "Log!A1:A3");
+
+        batcher.append(TARGET, rows(2)).subscribe();
+        batcher.append(TARGET, rows(2)).subscribe(); // Would overflow: sends the first batch
+        batcher.append(TARGET, rows(1)).subscribe(); // Fills the second batch
+
+        assertThat(calls).extracting(List::size).containsExactly(2, 3);
+    }
+
+    @Test
+    void cancelledAppendsAreLeftOutAndDifferentTargetsAreNotMixed() {
+        SheetsAppendBatcher batcher = batcher(100, Duration.ofMillis(200), "Other!C7:C7");
+        Disposable cancelled = batcher.append(TARGET, rows(4)).subscribe();
+        List<Map<String, Object>> results = new ArrayList<>();
+        batcher.append(TARGET, rows(1)).subscribe(results::add);
+        batcher.append(new SheetsAppendBatcher.Target("sheet-2", "Other!C1", "USER_ENTERED", "key"), rows(1)).subscribe();
+
+        cancelled.dispose();
+        scheduler.advanceTimeBy(Duration.ofMillis(200));
+
+        assertThat(calls).extracting(List::size).containsExactlyInAnyOrder(1, 1);
+        assertThat(results).extracting(result -> result.get("updatedRange")).containsExactly("Other!C7:C7");
+    }
+
+    private SheetsAppendBatcher batcher(int maxRows, Duration maxLinger, String updatedRange) {
+        return new SheetsAppendBatcher(maxRows, maxLinger, scheduler, (target, values) -> {
+            calls.add(values);
+            return Mono.just(Map.of("updates", Map.of("updatedRange", updatedRange)));
+        });
+    }
+
+    private static List<List<Object>> rows(int count) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(List.of("row-" + i, i));
+        }
+        return rows;
+    }
+}
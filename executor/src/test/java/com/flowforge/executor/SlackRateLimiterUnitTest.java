@@ -0,0 +1,136 @@
+package com.flowforge.executor;
+
+import com.flowforge.executor.plugin.impl.SlackRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackRateLimiterUnitTest {
+
+    private static final String HOOK = "https://hooks.slack.com/services/T0/B0/x";
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Map<String, Object>> posts = new ArrayList<>();
+
+    @Test
+    void sendsOverTheRateQueueInsteadOfFailing() {
+        SlackRateLimiter limiter = limiter(Duration.ZERO, payload -> Mono.just(Map.of("sent", true)));
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            limiter.send(HOOK, message("m" + i, null)).subscribe(results::add);
+        }
+        assertThat(posts).hasSize(1);
+        assertThat(limiter.queued()).isEqualTo(2);
+        assertThat(meterRegistry.get("flowforge.slack.queue.depth").gauge().value()).isEqualTo(2.0);
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(posts).hasSize(2);
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertThat(posts).extracting(post -> post.get("text")).containsExactly("m0", "m1", "m2");
+        assertThat(results).hasSize(3);
+        assertThat(limiter.queued()).isZero();
+        assertThat(meterRegistry.get("flowforge.slack.queue.wait").timer().max(TimeUnit.SECONDS)).isEqualTo(2.0);
+    }
+
+    @Test
+    void digestMergesQueuedMessagesForTheSameChannel() {
+        SlackRateLimiter limiter = limiter(Duration.ofSeconds(10), payload -> Mono.just(Map.of("sent", true)));
+        List<Map<String, Object>> results = new ArrayList<>();
+        limiter.send(HOOK, message("first", "#ops")).subscribe(results::add);
+        limiter.send(HOOK, message("a", "#ops")).subscribe(results::add);
+        limiter.send(HOOK, message("other", "#dev")).subscribe(results::add);
+        limiter.send(HOOK, message("b", "#ops")).subscribe(results::add);
+        Disposable cancelled = limiter.send(HOOK, message("c", "#ops")).subscribe(results::add);
+        cancelled.dispose();
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(2));
+
+        assertThat(posts).extracting(post -> post.get("text")).containsExactly("first", "a\nb", "other");
+        assertThat(results).extracting(result -> result.get("digested")).containsExactly(1, 2, 2, 1);
+    }
+
+    @Test
+    void throttledPostIsRetriedAfterRetryAfter() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "3");
+        List<Boolean> throttle = new ArrayList<>(List.of(true));
+        SlackRateLimiter limiter = limiter(Duration.ZERO, payload -> throttle.isEmpty() || !throttle.remove(0)
+                ? Mono.just(Map.of("sent", true))
+                : Mono.error(WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null)));
+        List<Map<String, Object>> results = new ArrayList<>();
+        limiter.send(HOOK, message("m", null)).subscribe(results::add);
+        assertThat(results).isEmpty();
+        assertThat(limiter.queued()).isEqualTo(1);
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(2));
+        assertThat(posts).hasSize(1);
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertThat(posts).hasSize(2);
+        assertThat(results).hasSize(1);
+    }
+
+    @Test
+    void idleWebhookBucketsAreDropped() {
+        SlackRateLimiter limiter = limiter(Duration.ZERO, payload -> Mono.just(Map.of("sent", true)));
+        for (int i = 0; i < 2; i++) {
+            limiter.send(HOOK, message("m" + i, null)).subscribe();
+        }
+        limiter.send(HOOK + "-other", message("other", null)).subscribe();
+        assertThat(limiter.webhooks()).isEqualTo(2);
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(limiter.webhooks()).isEqualTo(1); // The other bucket is full again; HOOK just posted m1
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(limiter.webhooks()).isZero();
+
+        limiter.send(HOOK, message("later", null)).subscribe();
+        assertThat(posts).extracting(post -> post.get("text")).containsExactly("m0", "other", "m1", "later");
+    }
+
+    @Test
+    void webhookQueueBeyondItsCapFailsFastWithRetryAfter() {
+        SlackRateLimiter limiter = limiter(Duration.ZERO, payload -> Mono.just(Map.of("sent", true)));
+        for (int i = 0; i < 5; i++) {
+            limiter.send(HOOK, message("m" + i, null)).subscribe();
+        }
+        List<Throwable> errors = new ArrayList<>();
+        limiter.send(HOOK, message("overflow", null)).subscribe(result -> { }, errors::add);
+        limiter.send(HOOK + "-other", message("other", null)).subscribe();
+
+        assertThat(limiter.queued()).isEqualTo(4);
+        assertThat(errors).singleElement().isInstanceOfSatisfying(WebClientResponseException.class, e -> {
+            assertThat(e.getStatusCode().value()).isEqualTo(429);
+            assertThat(e.getHeaders().getFirst("Retry-After")).isEqualTo("5");
+        });
+        assertThat(posts).extracting(post -> post.get("text")).containsExactly("m0", "other");
+    }
+
+    private SlackRateLimiter limiter(Duration digestWindow,
+                                     Function<Map<String, Object>, Mono<Map<String, Object>>> response) {
+        return new SlackRateLimiter(1.0, 1, 4, digestWindow, scheduler, meterRegistry, (url, payload) -> {
+            posts.add(payload);
+            return response.apply(payload);
+        });
+    }
+
+    private static Map<String, Object> message(String text, String channel) {
+        return channel == null ? Map.of("text", text) : Map.of("text", text, "channel", channel);
+    }
+}
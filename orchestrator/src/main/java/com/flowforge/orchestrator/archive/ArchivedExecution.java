@@ -0,0 +1,51 @@
+package com.flowforge.orchestrator.archive;
+
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.repository.ExecutionQueryRepository.LoadedExecution;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A terminal execution as archived: the row with its journal folded in, so the archive needs no
+ * execution events.
+ */
+public record ArchivedExecution(UUID id, UUID workflowId, UUID userId, ExecutionStatus status, String definitionHash,
+                                UUID parentExecutionId, Map<String, Object> triggerPayload,
+                                Map<String, Object> stepOutputs, Map<String, String> stepStates,
+                                Instant createdAt, Instant updatedAt) {
+
+    public static ArchivedExecution of(WorkflowExecution execution, ExecutionState state) {
+        return new ArchivedExecution(execution.getId(), execution.getWorkflowId(), execution.getUserId(),
+                execution.getStatus(), execution.getDefinitionHash(), execution.getParentExecutionId(),
+                execution.getTriggerPayload(), state.getStepOutputs(), state.getStepStates(),
+                execution.getCreatedAt(), execution.getUpdatedAt());
+    }
+
+    /**
+     * The execution as the read side serves it. Its journal is already folded in, so the state is
+     * the archived step outputs and states as they are.
+     */
+    public LoadedExecution loaded() {
+        ExecutionState state = new ExecutionState((stepOutputs == null) ? Map.of() : stepOutputs,
+                (stepStates == null) ? Map.of() : stepStates);
+        WorkflowExecution execution = WorkflowExecution.builder()
+                .id(id)
+                .workflowId(workflowId)
+                .userId(userId)
+                .status(status)
+                .currentStep(state.completedCount())
+                .definitionHash(definitionHash)
+                .parentExecutionId(parentExecutionId)
+                .triggerPayload(triggerPayload)
+                .stepOutputs(state.getStepOutputs())
+                .stepStates(state.getStepStates())
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+        return new LoadedExecution(execution, state);
+    }
+}
@@ -0,0 +1,70 @@
+package com.flowforge.orchestrator.archive;
+
+import com.flowforge.common.blob.BlobStore;
+import com.flowforge.orchestrator.repository.BlobReferenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes blobs last stored more than {@code max-age} ago (the archive horizon by default) that no
+ * live execution references. Blobs are listed before the references are read, and each is deleted
+ * only if it is still older than the horizon, so a blob stored again meanwhile (a new execution with
+ * the same large payload) is kept. Executions archived past the horizon keep their
+ * {@code $blobRef} but lose its content. Deletes are idempotent, so all instances may run the job.
+ */
+@Component
+@Slf4j
+public class BlobRetentionJob {
+
+    private final BlobStore blobStore;
+    private final BlobReferenceRepository referenceRepository;
+    private final boolean enabled;
+    private final Duration maxAge;
+
+    public BlobRetentionJob(BlobStore blobStore,
+                            BlobReferenceRepository referenceRepository,
+                            @Value("${app.blob-store.retention.enabled:false}") boolean enabled,
+                            @Value("${app.blob-store.retention.max-age:${app.execution-retention.archive-after:P90D}}") Duration maxAge) {
+        this.blobStore = blobStore;
+        this.referenceRepository = referenceRepository;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+    }
+
+    @Scheduled(fixedDelayString = "${app.blob-store.retention.interval:PT6H}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sweep(Instant.now().minus(maxAge));
+        } catch (RuntimeException e) {
+            log.error("Blob retention run failed", e);
+        }
+    }
+
+    int sweep(Instant horizon) {
+        List<String> candidates = blobStore.keysStoredBefore(horizon);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = referenceRepository.referencedKeys();
+        int deleted = 0;
+        for (String key : candidates) {
+            if (!referenced.contains(key) && blobStore.deleteIfStoredBefore(key, horizon)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced blobs stored before {}", deleted, horizon);
+        }
+        return deleted;
+    }
+}
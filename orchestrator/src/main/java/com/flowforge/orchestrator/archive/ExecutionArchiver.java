@@ -0,0 +1,126 @@
+package com.flowforge.orchestrator.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.repository.ExecutionArchiveRepository;
+import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves terminal executions out of {@code workflow_executions}, a batch per transaction: each is
+ * folded with its journal, written to the archive and deleted together with its events.
+ * <p>
+ * {@code table} mode writes to {@code workflow_executions_archive}, whose TOAST settings compress
+ * the documents; {@code file} mode writes one gzipped NDJSON file per batch to {@code directory}.
+ * A file is complete before the deletes commit, so a failed commit can at worst leave executions
+ * that are archived twice, never lost.
+ */
+@Component
+@Slf4j
+public class ExecutionArchiver {
+
+    public enum Mode { TABLE, FILE }
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    private final WorkflowExecutionRepository executionRepository;
+    private final ExecutionJournal executionJournal;
+    private final ExecutionArchiveRepository archiveRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final Path directory;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExecutionArchiver(WorkflowExecutionRepository executionRepository,
+                             ExecutionJournal executionJournal,
+                             ExecutionArchiveRepository archiveRepository,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.execution-retention.archive-mode:table}") String mode,
+                             @Value("${app.execution-retention.archive-directory:${java.io.tmpdir}/flowforge-archive}") Path directory,
+                             @Value("${app.execution-retention.batch-size:500}") int batchSize) {
+        this.executionRepository = executionRepository;
+        this.executionJournal = executionJournal;
+        this.archiveRepository = archiveRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.mode = Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        this.directory = directory;
+        this.batchSize = batchSize;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Archives up to one batch of terminal executions created before {@code before}. Returns how many.
+     */
+    public int archiveBatch(Instant before) {
+        Integer archived = transactionTemplate.execute(status -> {
+            List<WorkflowExecution> rows = executionRepository.findArchivable(before, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            Map<UUID, ExecutionState> states = executionJournal.loadAll(rows);
+            List<ArchivedExecution> batch = rows.stream()
+                    .map(row -> ArchivedExecution.of(row, states.get(row.getId())))
+                    .toList();
+            // The rows are deleted below; keep Hibernate from flushing them back.
+            rows.forEach(entityManager::detach);
+            if (mode == Mode.FILE) {
+                writeFile(batch);
+            } else {
+                archiveRepository.insert(batch);
+            }
+            archiveRepository.deleteExecutions(batch.stream().map(ArchivedExecution::id).toList());
+            return batch.size();
+        });
+        return (archived == null) ? 0 : archived;
+    }
+
+    private void writeFile(List<ArchivedExecution> batch) {
+        String name = "executions-" + FILE_TIMESTAMP.format(Instant.now()) + "-" + batch.get(0).id() + ".ndjson.gz";
+        Path target = directory.resolve(name);
+        Path partial = directory.resolve(name + ".partial");
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                for (ArchivedExecution execution : batch) {
+                    out.write(objectMapper.writeValueAsBytes(execution));
+                    out.write('\n');
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive file " + target, e);
+        }
+        log.debug("Archived {} executions to {}", batch.size(), target);
+    }
+}
@@ -0,0 +1,105 @@
+package com.flowforge.orchestrator.archive;
+
+import com.flowforge.orchestrator.repository.ExecutionPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps {@code workflow_executions} bounded.
+ * <p>
+ * With {@code partitioning} on, monthly partitions are created {@code months-ahead} in advance, so
+ * new rows never land in the default partition. With {@code archive} on, terminal executions older
+ * than {@code archive-after} are handed to {@link ExecutionArchiver}, and partitions that lie
+ * entirely before that horizon and are left empty are dropped. Executions still running stay where
+ * they are and keep their partition. Every step is idempotent, so all instances may run the job.
+ */
+@Component
+@Slf4j
+public class ExecutionRetentionJob {
+
+    private final ExecutionPartitionRepository partitionRepository;
+    private final ExecutionArchiver archiver;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean partitioning;
+    private final boolean archive;
+    private final Duration archiveAfter;
+    private final int monthsAhead;
+    private final int maxBatchesPerRun;
+
+    public ExecutionRetentionJob(ExecutionPartitionRepository partitionRepository,
+                                 ExecutionArchiver archiver,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${app.execution-retention.partitioning:false}") boolean partitioning,
+                                 @Value("${app.execution-retention.archive:false}") boolean archive,
+                                 @Value("${app.execution-retention.archive-after:P90D}") Duration archiveAfter,
+                                 @Value("${app.execution-retention.months-ahead:2}") int monthsAhead,
+                                 @Value("${app.execution-retention.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.partitionRepository = partitionRepository;
+        this.archiver = archiver;
+        this.transactionTemplate = transactionTemplate;
+        this.partitioning = partitioning;
+        this.archive = archive;
+        this.archiveAfter = archiveAfter;
+        this.monthsAhead = monthsAhead;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${app.execution-retention.interval:PT1H}")
+    public void run() {
+        try {
+            if (partitioning) {
+                createPartitions(YearMonth.now(ZoneOffset.UTC));
+            }
+            if (archive) {
+                Instant horizon = Instant.now().minus(archiveAfter);
+                archiveBefore(horizon);
+                if (partitioning) {
+                    dropEmptyPartitions(horizon);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Execution retention run failed", e);
+        }
+    }
+
+    void createPartitions(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            partitionRepository.createPartition(current.plusMonths(i));
+        }
+    }
+
+    int archiveBefore(Instant horizon) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int archived = archiver.archiveBatch(horizon);
+            total += archived;
+            if (archived < archiver.batchSize()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} terminal executions created before {}", total, horizon);
+        }
+        return total;
+    }
+
+    void dropEmptyPartitions(Instant horizon) {
+        for (String name : partitionRepository.partitionNames()) {
+            ExecutionPartitionRepository.monthOf(name)
+                    .filter(month -> !month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().isAfter(horizon))
+                    .filter(partitionRepository::isEmpty)
+                    .ifPresent(month -> {
+                        transactionTemplate.executeWithoutResult(status -> partitionRepository.dropPartition(month));
+                        log.info("Dropped archived partition {}", name);
+                    });
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.flowforge.orchestrator.cache;
+
+import com.flowforge.orchestrator.client.WorkflowServiceClient;
+import com.flowforge.orchestrator.dto.WorkflowResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, TTL-evicting cache of workflow definitions in front of {@link WorkflowServiceClient}.
+ * Entries are keyed by workflow id and remember the {@code updatedAt} version they were fetched at;
+ * change events from the workflow service evict any entry older than the change. Each change also
+ * leaves a per-id watermark, so a fetch that started before the change and completes after it cannot
+ * put the old version back. The TTL only bounds staleness if an invalidation event is lost.
+ */
+@Component
+@Slf4j
+public class WorkflowDefinitionCache {
+
+    static final String CACHE_NAME = "workflowDefinitions";
+
+    private final WorkflowServiceClient workflowServiceClient;
+    private final Cache<UUID, WorkflowResponseDto> definitions;
+    private final Cache<UUID, Instant> invalidatedAt;
+    private final int fetchConcurrency;
+    private final Duration fetchTimeout;
+
+    public WorkflowDefinitionCache(WorkflowServiceClient workflowServiceClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.workflow-cache.max-size:10000}") long maxSize,
+                                   @Value("${app.workflow-cache.ttl:PT10M}") Duration ttl,
+                                   @Value("${app.workflow-cache.fetch-concurrency:16}") int fetchConcurrency,
+                                   @Value("${app.workflow-cache.fetch-timeout:PT10S}") Duration fetchTimeout) {
+        this.workflowServiceClient = workflowServiceClient;
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+        this.fetchTimeout = fetchTimeout;
+        this.definitions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Fetches finish within the TTL, so a watermark is only needed for as long as an entry lives.
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, definitions, CACHE_NAME);
+    }
+
+    public Mono<WorkflowResponseDto> getWorkflow(UUID workflowId, UUID userId) {
+        WorkflowResponseDto cached = definitions.getIfPresent(workflowId);
+        if (cached != null && userId.equals(cached.getUserId())) {
+            return Mono.just(cached);
+        }
+        return workflowServiceClient.getWorkflowById(workflowId, userId)
+                .doOnNext(workflow -> definitions.asMap().compute(workflowId,
+                        (id, current) -> isCurrent(id, workflow) && !isOlder(workflow, current) ? workflow : current));
+    }
+
+    /**
+     * The cached definition, without waiting on the workflow service, for callers that must not block
+     * (e.g. inside a transaction). A miss starts the fetch in the background, so the definition is
+     * normally cached by the time the caller tries again.
+     */
+    public Optional<WorkflowResponseDto> getCached(WorkflowKey key) {
+        WorkflowResponseDto cached = definitions.getIfPresent(key.workflowId());
+        if (cached != null && key.userId().equals(cached.getUserId())) {
+            return Optional.of(cached);
+        }
+        getWorkflow(key.workflowId(), key.userId())
+                .timeout(fetchTimeout)
+                .subscribe(workflow -> { }, e -> log.warn("Could not prefetch workflow {}: {}", key.workflowId(), e.toString()));
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves several workflows, blocking the caller until all are known. At most
+     * {@code fetch-concurrency} misses are fetched at once; workflows that do not exist are left
+     * out of the result, and any other failure (including the timeout) is thrown.
+     */
+    public Map<WorkflowKey, WorkflowResponseDto> getWorkflows(Collection<WorkflowKey> keys) {
+        Resolution resolution = resolveWorkflows(keys);
+        resolution.failures().values().stream().findFirst().ifPresent(e -> {
+            throw (e instanceof RuntimeException runtime) ? runtime : new IllegalStateException(e);
+        });
+        return resolution.workflows();
+    }
+
+    /**
+     * Like {@link #getWorkflows} but never throws: workflows that could not be fetched (workflow
+     * service errors other than 404, or {@code fetch-timeout}) are reported in {@code failures}, so a
+     * caller can go ahead with the others.
+     */
+    public Resolution resolveWorkflows(Collection<WorkflowKey> keys) {
+        Map<WorkflowKey, WorkflowResponseDto> workflows = new ConcurrentHashMap<>();
+        Map<WorkflowKey, Throwable> failures = new ConcurrentHashMap<>();
+        Flux.fromIterable(keys)
+                .distinct()
+                .flatMap(key -> getWorkflow(key.workflowId(), key.userId())
+                        .timeout(fetchTimeout)
+                        .doOnNext(workflow -> workflows.put(key, workflow))
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                            log.error("Workflow not found for id: {}", key.workflowId());
+                            return Mono.empty();
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Could not resolve workflow {}: {}", key.workflowId(), e.toString());
+                            failures.put(key, e);
+                            return Mono.empty();
+                        }), fetchConcurrency)
+                .blockLast();
+        return new Resolution(Map.copyOf(workflows), Map.copyOf(failures));
+    }
+
+    /**
+     * Outcome of {@link #resolveWorkflows}: the definitions found, and the keys whose fetch failed.
+     * A key in neither does not exist.
+     */
+    public record Resolution(Map<WorkflowKey, WorkflowResponseDto> workflows, Map<WorkflowKey, Throwable> failures) {
+    }
+
+    /**
+     * Drops the cached definition unless it is already the version of the change ({@code changedAt} is
+     * the {@code updatedAt} the change produced), and refuses older versions from fetches still in flight.
+     * {@code changedAt} is compared at microseconds, the precision the fetched {@code updatedAt} is stored
+     * with, so the current version is not refused for nanoseconds the database dropped.
+     */
+    public void invalidate(UUID workflowId, Instant changedAt) {
+        Instant change = (changedAt == null) ? null : changedAt.truncatedTo(ChronoUnit.MICROS);
+        definitions.asMap().compute(workflowId, (id, cached) -> {
+            if (change != null) {
+                invalidatedAt.asMap().merge(id, change, (a, b) -> a.isAfter(b) ? a : b);
+            }
+            boolean atOrAfterChange = cached != null
+                    && change != null
+                    && cached.getUpdatedAt() != null
+                    && !cached.getUpdatedAt().isBefore(change);
+            return atOrAfterChange ? cached : null;
+        });
+        log.debug("Invalidated cached definition for workflowId {} (changedAt={})", workflowId, changedAt);
+    }
+
+    /**
+     * Drops a deleted workflow; no version fetched before the deletion may be cached again.
+     */
+    public void evict(UUID workflowId) {
+        definitions.asMap().compute(workflowId, (id, cached) -> {
+            invalidatedAt.put(id, Instant.MAX);
+            return null;
+        });
+    }
+
+    // Called inside the compute of the definition's key, which also guards its watermark
+    private boolean isCurrent(UUID workflowId, WorkflowResponseDto workflow) {
+        Instant watermark = invalidatedAt.getIfPresent(workflowId);
+        return watermark == null
+                || (workflow.getUpdatedAt() != null && !workflow.getUpdatedAt().isBefore(watermark));
+    }
+
+    private static boolean isOlder(WorkflowResponseDto workflow, WorkflowResponseDto current) {
+        return current != null
+                && current.getUpdatedAt() != null
+                && workflow.getUpdatedAt() != null
+                && workflow.getUpdatedAt().isBefore(current.getUpdatedAt());
+    }
+}
@@ -0,0 +1,9 @@
+package com.flowforge.orchestrator.cache;
+
+import java.util.UUID;
+
+/**
+ * A workflow as requested by a particular user; definitions are only served to their owner.
+ */
+public record WorkflowKey(UUID workflowId, UUID userId) {
+}
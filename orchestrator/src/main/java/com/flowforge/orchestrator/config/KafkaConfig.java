@@ -1,9 +1,78 @@
 package com.flowforge.orchestrator.config;
 
+import com.flowforge.common.concurrent.KeyedSequencer;
+import com.flowforge.orchestrator.service.WorkflowUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 @EnableKafka
 @Configuration
+@Slf4j
 public class KafkaConfig {
+
+    @Value("${app.kafka.retry.max-attempts:6}")
+    private int maxRetries;
+
+    @Value("${app.kafka.topics.trigger-events}")
+    private String triggerEventsTopic;
+
+    /**
+     * Listeners throw when work could not be made durable; the batch (or the rest of it after a
+     * {@code BatchListenerFailedException}) is redelivered with backoff instead of being committed.
+     * Records that still fail are logged and skipped so one poison record cannot stall a partition.
+     * <p>
+     * Triggers whose workflow cannot be resolved, or that failed because the database is unavailable,
+     * are the exception: they are retried until they succeed rather than dropped after an outage of
+     * half a minute. Any other failure of a trigger is about the record itself and gets the bounded
+     * retries; triggers without a workflow or user id are skipped by the listener before that.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler() {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(maxRetries);
+        backOff.setInitialInterval(500);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(10_000);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler((record, e) -> log.error("Giving up on record {}-{}@{}",
+                record.topic(), record.partition(), record.offset(), e), backOff);
+        ExponentialBackOff untilResolved = new ExponentialBackOff(500, 2.0);
+        untilResolved.setMaxInterval(30_000);
+        errorHandler.setBackOffFunction((record, e) ->
+                triggerEventsTopic.equals(record.topic()) && isOutage(e) ? untilResolved : null);
+        return errorHandler;
+    }
+
+    private static boolean isOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WorkflowUnavailableException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Virtual-thread mode of the result listener: each batch is split by execution id and the groups
+     * are applied concurrently, at most {@code max-in-flight} at a time, while results of one
+     * execution stay in order.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.kafka.virtual-threads.enabled", havingValue = "true")
+    public KeyedSequencer resultSequencer(@Value("${app.kafka.virtual-threads.max-in-flight:256}") int maxInFlight) {
+        return new KeyedSequencer("result-listener", maxInFlight);
+    }
 }
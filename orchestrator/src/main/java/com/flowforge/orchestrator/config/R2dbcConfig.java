@@ -0,0 +1,47 @@
+package com.flowforge.orchestrator.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * R2DBC connection pool for the execution read path ({@code r2dbc} profile). Boot's R2DBC
+ * auto-configuration is excluded in application.yml: it would fail without a URL in the default
+ * profile and add a second transaction manager next to JPA's.
+ */
+@Configuration
+@Profile("r2dbc")
+public class R2dbcConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(@Value("${app.r2dbc.url}") String url,
+                                            @Value("${app.r2dbc.username}") String username,
+                                            @Value("${app.r2dbc.password}") String password,
+                                            @Value("${app.r2dbc.pool.initial-size:4}") int initialSize,
+                                            @Value("${app.r2dbc.pool.max-size:20}") int maxSize,
+                                            @Value("${app.r2dbc.pool.max-idle-time:PT30M}") Duration maxIdleTime) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -1,18 +1,38 @@
 package com.flowforge.orchestrator.controller;
 
+import com.flowforge.orchestrator.dto.ExecutionContextDto;
+import com.flowforge.orchestrator.dto.ExecutionCursor;
+import com.flowforge.orchestrator.dto.ExecutionCursorPageDto;
 import com.flowforge.orchestrator.dto.ExecutionResponseDto;
+import com.flowforge.orchestrator.dto.ExecutionUpdateDto;
 import com.flowforge.orchestrator.entity.ExecutionStatus;
 import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.kafka.producer.ExecutionCancellationProducer;
+import com.flowforge.orchestrator.repository.ExecutionQueryRepository;
 import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import com.flowforge.orchestrator.stream.ExecutionUpdateBus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -21,8 +41,16 @@ import java.util.UUID;
 public class ExecutionController {
 
     private static final String USER_ID_HEADER = "X-User-Id";
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     private final WorkflowExecutionRepository executionRepository;
+    private final ExecutionQueryRepository executionQueries;
+    private final ExecutionJournal executionJournal;
+    private final ExecutionCancellationProducer cancellationProducer;
+    private final ExecutionUpdateBus executionUpdates;
+
+    @Value("${app.execution-updates.heartbeat:PT15S}")
+    private Duration heartbeat;
 
     @GetMapping
     public Mono<ResponseEntity<Page<ExecutionResponseDto>>> listExecutions(
@@ -37,22 +65,133 @@ public class ExecutionController {
                     Page<WorkflowExecution> result = (workflowId == null)
                             ? executionRepository.findByUserId(userId, pageRequest)
                             : executionRepository.findByUserIdAndWorkflowId(userId, workflowId, pageRequest);
-                    return result.map(this::toDto);
+                    Map<UUID, ExecutionState> states = executionJournal.loadAll(result.getContent());
+                    return result.map(execution -> toDto(execution, states.get(execution.getId())));
                 })
                 .subscribeOn(Schedulers.boundedElastic())
                 .map(ResponseEntity::ok);
     }
 
+    /**
+     * Keyset-paginated listing, newest first. Unlike {@link #listExecutions} it neither counts nor
+     * skips rows: each page seeks straight past the {@code cursor} returned with the previous one,
+     * so every page costs the same. The total is only counted with {@code includeTotal=true}.
+     */
+    @GetMapping("/cursor")
+    public Mono<ResponseEntity<ExecutionCursorPageDto>> listExecutionsByCursor(
+            @RequestHeader(USER_ID_HEADER) UUID userId,
+            @RequestParam(value = "workflowId", required = false) UUID workflowId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal
+    ) {
+        ExecutionCursor after;
+        try {
+            after = (cursor == null || cursor.isBlank()) ? null : ExecutionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        int pageSize = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+        // One row past the page tells whether there is a next one.
+        Mono<List<ExecutionQueryRepository.LoadedExecution>> rows =
+                executionQueries.findPage(userId, workflowId, after, pageSize + 1).collectList();
+        Mono<Optional<Long>> total = includeTotal
+                ? executionQueries.count(userId, workflowId).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return Mono.zip(rows, total)
+                .map(result -> {
+                    boolean hasNext = result.getT1().size() > pageSize;
+                    List<ExecutionQueryRepository.LoadedExecution> page = hasNext ? result.getT1().subList(0, pageSize) : result.getT1();
+                    WorkflowExecution last = page.isEmpty() ? null : page.get(page.size() - 1).execution();
+                    return ExecutionCursorPageDto.builder()
+                            .content(page.stream().map(loaded -> toDto(loaded.execution(), loaded.state())).toList())
+                            .size(page.size())
+                            .nextCursor(hasNext ? new ExecutionCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                            .totalElements(result.getT2().orElse(null))
+                            .build();
+                })
+                .map(ResponseEntity::ok);
+    }
+
     @GetMapping("/{executionId}")
     public Mono<ResponseEntity<ExecutionResponseDto>> getExecution(
             @RequestHeader(USER_ID_HEADER) UUID userId,
             @PathVariable UUID executionId
     ) {
-        return Mono.fromCallable(() -> executionRepository.findByIdAndUserId(executionId, userId).orElse(null))
-                .subscribeOn(Schedulers.boundedElastic())
-                .map(execution -> execution == null
-                        ? ResponseEntity.notFound().build()
-                        : ResponseEntity.ok(toDto(execution)));
+        return executionQueries.findByIdAndUserId(executionId, userId)
+                .map(loaded -> ResponseEntity.ok(toDto(loaded.execution(), loaded.state())))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Full step context at the execution's current journal version. Executors fetch this when a
+     * context delta does not apply on top of the version they have cached.
+     */
+    @GetMapping("/{executionId}/context")
+    public Mono<ResponseEntity<ExecutionContextDto>> getExecutionContext(
+            @RequestHeader(USER_ID_HEADER) UUID userId,
+            @PathVariable UUID executionId
+    ) {
+        return executionQueries.findByIdAndUserId(executionId, userId)
+                .map(loaded -> ExecutionContextDto.builder()
+                        .executionId(loaded.execution().getId())
+                        .version(loaded.execution().getJournalSeq())
+                        .trigger(loaded.execution().getTriggerPayload())
+                        .steps(loaded.state().getStepOutputs())
+                        .build())
+                .map(context -> ResponseEntity.ok(context))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Server-sent events of one execution: a snapshot of its status and step states, then every
+     * status transition and step event as it happens, until the execution ends. Replaces polling
+     * {@code GET /{executionId}}; besides the snapshot, the stream reads the execution once per
+     * heartbeat, so it still ends if its terminal update was lost on the way.
+     * <p>
+     * Live updates are subscribed before the snapshot is read, so none is lost in between. Those
+     * the snapshot already reflects are dropped: step updates at or below its {@code seq}, status
+     * updates below it (a status change does not advance the journal).
+     */
+    @GetMapping(value = "/{executionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ExecutionUpdateDto>> streamExecution(
+            @RequestHeader(USER_ID_HEADER) UUID userId,
+            @PathVariable UUID executionId
+    ) {
+        Mono<ExecutionUpdateDto> snapshot = executionQueries.findByIdAndUserId(executionId, userId)
+                .map(loaded -> ExecutionUpdateDto.builder()
+                        .type(ExecutionUpdateDto.SNAPSHOT)
+                        .executionId(loaded.execution().getId())
+                        .userId(loaded.execution().getUserId())
+                        .status(loaded.execution().getStatus())
+                        .stepStates(loaded.state().getStepStates())
+                        .seq(loaded.execution().getJournalSeq())
+                        .occurredAt(Instant.now())
+                        .build())
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .cache();
+        Flux<ExecutionUpdateDto> live = executionUpdates.updates(executionId)
+                .filterWhen(update -> snapshot.map(read -> ExecutionUpdateDto.STATUS.equals(update.getType())
+                        ? update.getSeq() >= read.getSeq()
+                        : update.getSeq() > read.getSeq()));
+
+        Flux<ServerSentEvent<ExecutionUpdateDto>> updates = Flux.merge(live, snapshot)
+                .map(ExecutionController::toEvent);
+        Flux<ServerSentEvent<ExecutionUpdateDto>> keepAlive = Flux.interval(heartbeat)
+                .concatMap(tick -> executionQueries.findByIdAndUserId(executionId, userId)
+                        .map(loaded -> ExecutionUpdateDto.builder()
+                                .type(ExecutionUpdateDto.STATUS)
+                                .executionId(loaded.execution().getId())
+                                .userId(loaded.execution().getUserId())
+                                .status(loaded.execution().getStatus())
+                                .seq(loaded.execution().getJournalSeq())
+                                .occurredAt(Instant.now())
+                                .build())
+                        .filter(ExecutionUpdateDto::isTerminal)
+                        .map(ExecutionController::toEvent)
+                        .defaultIfEmpty(ServerSentEvent.<ExecutionUpdateDto>builder().comment("keep-alive").build()));
+        return Flux.merge(updates, keepAlive)
+                .takeUntil(event -> event.data() != null && event.data().isTerminal());
     }
 
     @PostMapping("/{executionId}/cancel")
@@ -67,23 +206,34 @@ public class ExecutionController {
                         return ResponseEntity.notFound().build();
                     }
                     if (execution.getStatus() == ExecutionStatus.COMPLETED || execution.getStatus() == ExecutionStatus.FAILED) {
-                        return ResponseEntity.ok(toDto(execution));
+                        return ResponseEntity.ok(toDto(execution, executionJournal.load(execution)));
                     }
                     execution.setStatus(ExecutionStatus.CANCELLED);
                     WorkflowExecution saved = executionRepository.save(execution);
-                    return ResponseEntity.ok(toDto(saved));
+                    cancellationProducer.sendCancellation(saved.getId());
+                    executionUpdates.publishStatus(saved);
+                    return ResponseEntity.ok(toDto(saved, executionJournal.load(saved)));
                 });
     }
 
-    private ExecutionResponseDto toDto(WorkflowExecution execution) {
+    private static ServerSentEvent<ExecutionUpdateDto> toEvent(ExecutionUpdateDto update) {
+        return ServerSentEvent.builder(update)
+                .id(Integer.toString(update.getSeq()))
+                .event(update.getType())
+                .build();
+    }
+
+    private ExecutionResponseDto toDto(WorkflowExecution execution, ExecutionState state) {
         return ExecutionResponseDto.builder()
                 .id(execution.getId())
                 .workflowId(execution.getWorkflowId())
                 .userId(execution.getUserId())
+                .parentExecutionId(execution.getParentExecutionId())
                 .status(execution.getStatus())
                 .currentStep(execution.getCurrentStep())
                 .triggerPayload(execution.getTriggerPayload())
-                .stepOutputs(execution.getStepOutputs())
+                .stepOutputs(state.getStepOutputs())
+                .stepStates(state.getStepStates())
                 .createdAt(execution.getCreatedAt())
                 .updatedAt(execution.getUpdatedAt())
                 .build();
@@ -0,0 +1,113 @@
+package com.flowforge.orchestrator.dedupe;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.repository.ProcessedResultRepository;
+import com.flowforge.orchestrator.timer.ExecutionTimerService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops step results that were already applied, before their execution is loaded.
+ * <p>
+ * Recently applied keys are held in a bounded in-memory set, which catches the common case (a
+ * batch redelivered after a failed commit or a rebalance) without a query. Everything else is
+ * claimed in {@code processed_results} with a single insert per batch; the claim commits or rolls
+ * back with the results it guards. Keys are kept for {@code retention}, well past any redelivery.
+ */
+@Component
+@Slf4j
+public class ResultDeduplicator {
+
+    private final ProcessedResultRepository processedResultRepository;
+    private final Duration retention;
+    private final Cache<ResultKey, Boolean> recent;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+
+    public ResultDeduplicator(ProcessedResultRepository processedResultRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.result-dedupe.memory-size:100000}") long memorySize,
+                              @Value("${app.result-dedupe.retention:P7D}") Duration retention) {
+        this.processedResultRepository = processedResultRepository;
+        this.retention = retention;
+        this.recent = Caffeine.newBuilder().maximumSize(memorySize).build();
+        this.memoryHits = Counter.builder("flowforge.results.duplicates").tag("source", "memory").register(meterRegistry);
+        this.databaseHits = Counter.builder("flowforge.results.duplicates").tag("source", "database").register(meterRegistry);
+    }
+
+    /**
+     * The results of the batch that have not been applied before, in their original order.
+     * Must run in the transaction that applies them.
+     */
+    public List<ExecutionResultDto> firstDeliveries(List<ExecutionResultDto> results) {
+        Map<ResultKey, ExecutionResultDto> candidates = new LinkedHashMap<>();
+        for (ExecutionResultDto result : results) {
+            ResultKey key = keyOf(result);
+            if (recent.getIfPresent(key) != null || candidates.putIfAbsent(key, result) != null) {
+                memoryHits.increment();
+                log.warn("Dropping duplicate result for execution {} step {} attempt {}", key.executionId(), key.stepIndex(), key.attempt());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Set<ResultKey> claimed = processedResultRepository.claim(candidates.keySet());
+        List<ExecutionResultDto> fresh = new ArrayList<>(claimed.size());
+        candidates.forEach((key, result) -> {
+            if (claimed.contains(key)) {
+                fresh.add(result);
+            } else {
+                databaseHits.increment();
+                recent.put(key, Boolean.TRUE);
+                log.warn("Dropping already applied result for execution {} step {} attempt {}", key.executionId(), key.stepIndex(), key.attempt());
+            }
+        });
+        afterCommit(() -> claimed.forEach(key -> recent.put(key, Boolean.TRUE)));
+        return fresh;
+    }
+
+    @Scheduled(fixedDelayString = "${app.result-dedupe.purge-interval:PT1H}")
+    public void purge() {
+        int purged = processedResultRepository.purgeOlderThan(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} processed result keys older than {}", purged, retention);
+        }
+    }
+
+    private static ResultKey keyOf(ExecutionResultDto result) {
+        // A retry signal releases attempt n; the result of attempt n arrives later under the same
+        // numbers, so signals are keyed with the attempt negated to keep the two apart.
+        int attempt = ExecutionTimerService.RETRY_STATUS.equals(result.getStatus()) ? -result.getAttempt() : result.getAttempt();
+        return new ResultKey(result.getExecutionId(), result.getStepIndex(), attempt);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
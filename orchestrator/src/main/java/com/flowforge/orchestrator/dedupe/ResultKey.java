@@ -0,0 +1,9 @@
+package com.flowforge.orchestrator.dedupe;
+
+import java.util.UUID;
+
+/**
+ * Identity of one step result: a step produces at most one result per dispatch attempt.
+ */
+public record ResultKey(UUID executionId, int stepIndex, int attempt) {
+}
@@ -1,10 +1,17 @@
 package com.flowforge.orchestrator.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import java.util.List;
 import java.util.Map;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ActionDto {
+    private String id; // Optional name other actions can reference in dependsOn
     private String type;
     private Map<String, Object> config;
-}
\ No newline at end of file
+    private List<String> dependsOn; // null on every action = run sequentially in list order
+    private String condition; // Optional expression over trigger/steps; false = step is skipped
+    private String join; // "any" (default) or "all": how many dependencies must have run rather than been skipped
+}
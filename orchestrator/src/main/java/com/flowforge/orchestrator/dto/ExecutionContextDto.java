@@ -0,0 +1,16 @@
+package com.flowforge.orchestrator.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+public class ExecutionContextDto {
+    private UUID executionId;
+    private int version;
+    private Map<String, Object> trigger;
+    private Map<String, Object> steps;
+}
@@ -0,0 +1,17 @@
+package com.flowforge.orchestrator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutionCursorPageDto {
+    private List<ExecutionResponseDto> content;
+    private int size;
+    private String nextCursor; // Null on the last page
+    private Long totalElements; // Only when requested with includeTotal=true
+}
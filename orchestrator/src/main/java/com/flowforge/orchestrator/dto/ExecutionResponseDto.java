@@ -14,10 +14,12 @@ public class ExecutionResponseDto {
     private UUID id;
     private UUID workflowId;
     private UUID userId;
+    private UUID parentExecutionId;
     private ExecutionStatus status;
     private int currentStep;
     private Map<String, Object> triggerPayload;
     private Map<String, Object> stepOutputs;
+    private Map<String, String> stepStates;
     private Instant createdAt;
     private Instant updatedAt;
 }
@@ -10,7 +10,10 @@ public class ExecutionResultDto {
     private UUID workflowId;
     private UUID userId;
     private int stepIndex;
-    private String status; // e.g., "SUCCESS", "FAILURE"
+    private int attempt; // 0 from executors that predate attempts
+    private String status; // e.g., "SUCCESS", "FAILURE"; "CANCELLED" is an orchestrator-internal signal
     private Map<String, Object> output;
     private String errorMessage;
+    private String errorCode; // e.g. HTTP_429, HTTP_503, NETWORK; matched against the action's retry policy
+    private Long retryAfterMillis; // Upstream Retry-After, if it sent one
 }
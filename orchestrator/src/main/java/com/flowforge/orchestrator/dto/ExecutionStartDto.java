@@ -1,19 +1,27 @@
 package com.flowforge.orchestrator.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.util.Map;
 import java.util.UUID;
 
 @Data
 @Builder
+@NoArgsConstructor // read back from the outbox's jsonb column
+@AllArgsConstructor
 public class ExecutionStartDto {
     private UUID executionId;
     private UUID workflowId;
     private UUID userId;
     private int stepIndex;
+    private int attempt; // 1-based dispatch attempt of the step, echoed back on its result
     private String actionType;
     private Map<String, Object> actionConfig;
-    private Map<String, Object> triggerPayload; // Data from the original trigger
-    private Map<String, Object> context; // Trigger data + prior step outputs
+    private Map<String, Object> triggerPayload; // No longer sent; the trigger travels as context.trigger
+    private Map<String, Object> context; // Trigger data + prior step outputs; large values are blob references
+    private Integer contextVersion; // Journal sequence the context reflects
+    private Integer contextBaseVersion; // Set instead of context: the version contextDelta applies on top of
+    private Map<String, Object> contextDelta; // Step outputs added since contextBaseVersion
 }
@@ -0,0 +1,47 @@
+package com.flowforge.orchestrator.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One change of an execution pushed to stream subscribers: a status transition, a step event, or the
+ * snapshot a stream starts with. {@code seq} is the execution's journal sequence at the time, so a
+ * client can drop updates older than the snapshot it already has.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutionUpdateDto {
+
+    public static final String SNAPSHOT = "SNAPSHOT";
+    public static final String STATUS = "STATUS";
+    public static final String STEP = "STEP";
+
+    private String type;
+    private UUID executionId;
+    private UUID userId;
+    private ExecutionStatus status;
+    private Integer stepIndex;
+    private ExecutionEventType event;
+    private Map<String, String> stepStates; // Snapshot only
+    private int seq;
+    private Instant occurredAt;
+    private String instanceId; // Publishing orchestrator instance, for the Kafka fan-out
+
+    @JsonIgnore
+    public boolean isTerminal() {
+        return status == ExecutionStatus.COMPLETED || status == ExecutionStatus.FAILED || status == ExecutionStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,13 @@
+package com.flowforge.orchestrator.dto;
+
+import lombok.Data;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+public class WorkflowChangeEventDto {
+    private UUID workflowId;
+    private UUID userId;
+    private String changeType; // "UPDATED" or "DELETED"
+    private Instant updatedAt;
+}
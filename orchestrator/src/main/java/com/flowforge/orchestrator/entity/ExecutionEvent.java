@@ -0,0 +1,84 @@
+package com.flowforge.orchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One append-only entry in an execution's journal. The key is assigned by the journal
+ * (execution id + per-execution sequence), so rows are always inserted, never merged.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(ExecutionEvent.Key.class)
+@Table(name = "execution_events")
+public class ExecutionEvent implements Persistable<ExecutionEvent.Key> {
+
+    @Id
+    private UUID executionId;
+
+    @Id
+    private int seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExecutionEventType type;
+
+    @Column(nullable = false)
+    private int stepIndex;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> payload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+
+    @Override
+    public Key getId() {
+        return new Key(executionId, seq);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markPersisted() {
+        persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID executionId;
+        private int seq;
+    }
+}
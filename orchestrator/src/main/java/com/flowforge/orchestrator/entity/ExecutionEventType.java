@@ -0,0 +1,9 @@
+package com.flowforge.orchestrator.entity;
+
+public enum ExecutionEventType {
+    STEP_DISPATCHED,
+    STEP_COMPLETED,
+    STEP_FAILED,
+    STEP_RETRY_SCHEDULED,
+    STEP_SKIPPED
+}
@@ -0,0 +1,65 @@
+package com.flowforge.orchestrator.entity;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.dto.ExecutionStartDto;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * An event waiting to be published, written in the same transaction as the journal entry that
+ * caused it: an execution.start for a dispatched step, or an execution.result the orchestrator
+ * sends itself (a finished sub-workflow resuming its parent). Exactly one of {@code payload} and
+ * {@code result} is set. Ids come from a pooled sequence so inserts still batch.
+ * <p>
+ * A row the broker keeps rejecting (too large, unserializable) counts its {@code attempts}; at the
+ * relay's limit it is dead-lettered: kept for inspection but no longer published, and a FAILURE
+ * result for its step is queued in its place.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "execution_outbox")
+public class ExecutionOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "execution_outbox_seq")
+    @SequenceGenerator(name = "execution_outbox_seq", sequenceName = "execution_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String messageKey;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private ExecutionStartDto payload;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private ExecutionResultDto result;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int attempts = 0;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant deadLetteredAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,9 @@
+package com.flowforge.orchestrator.entity;
+
+public enum StepState {
+    DISPATCHED,
+    COMPLETED,
+    FAILED,
+    RETRY_SCHEDULED,
+    SKIPPED
+}
@@ -0,0 +1,37 @@
+package com.flowforge.orchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, content-addressed copy of a workflow's action list. Executions reference it by
+ * {@link #hash} so identical definitions are stored once and in-flight runs are unaffected by edits.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "workflow_definition_snapshots")
+public class WorkflowDefinitionSnapshot {
+
+    @Id
+    @Column(length = 64)
+    private String hash; // SHA-256 of the canonical actions JSON
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private List<Map<String, Object>> actions;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -17,6 +18,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate // per-step updates touch only the scalar columns, not the snapshot documents
 @Table(name = "workflow_executions")
 public class WorkflowExecution {
 
@@ -37,13 +39,40 @@ public class WorkflowExecution {
     @Column(nullable = false)
     private int currentStep;
 
+    @Column(length = 64, updatable = false)
+    private String definitionHash; // Pinned WorkflowDefinitionSnapshot this run executes
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> triggerPayload;
 
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
-    private Map<String, Object> stepOutputs; // Stores output from each step
+    private Map<String, Object> stepOutputs; // Step outputs as of snapshotSeq; later ones are in the journal
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, String> stepStates; // step_<index> -> StepState name, as of snapshotSeq
+
+    @Column(nullable = false)
+    private int journalSeq; // Sequence of the last ExecutionEvent appended
+
+    @Column(nullable = false)
+    private int snapshotSeq; // Journal sequence folded into stepOutputs/stepStates
+
+    private Integer dispatchedContextVersion; // Context version of the last execution.start sent; null before the first
+
+    @Column(updatable = false)
+    private UUID parentExecutionId; // Set on executions started by a SUB_WORKFLOW step
+
+    @Column(updatable = false)
+    private Integer parentStepIndex;
+
+    @Column(updatable = false)
+    private Integer parentAttempt;
+
+    @Column(nullable = false, updatable = false)
+    private int depth; // Sub-workflow nesting level; 0 for executions started by a trigger
 
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
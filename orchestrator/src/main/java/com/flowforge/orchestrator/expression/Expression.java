@@ -0,0 +1,37 @@
+package com.flowforge.orchestrator.expression;
+
+import java.util.Collection;
+
+/**
+ * A compiled condition or value expression; see {@link ExpressionParser} for the syntax.
+ * Evaluation never throws: a path that does not resolve is null and a comparison of mismatched
+ * types is false.
+ */
+@FunctionalInterface
+public interface Expression {
+
+    Object evaluate(ExpressionContext context);
+
+    default boolean test(ExpressionContext context) {
+        return truthy(evaluate(context));
+    }
+
+    static boolean truthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        if (value instanceof CharSequence text) {
+            return !text.isEmpty();
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.flowforge.orchestrator.expression;
+
+/**
+ * Values an {@link Expression} can read: the roots {@code trigger} and {@code steps}.
+ */
+public interface ExpressionContext {
+
+    /**
+     * The value of a root name, or null if there is none.
+     */
+    Object root(String name);
+
+    /**
+     * Hook applied to every value a path walks through, e.g. to resolve claim-check references.
+     */
+    default Object deref(Object value) {
+        return value;
+    }
+}
@@ -0,0 +1,319 @@
+package com.flowforge.orchestrator.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles condition expressions into a tree of {@link Expression} nodes.
+ * <p>
+ * Syntax, loosest binding first: {@code ||}, {@code &&}, {@code !}, comparisons
+ * ({@code == != < <= > >=}), then operands: numbers, {@code 'single'} or {@code "double"} quoted
+ * strings, {@code true}, {@code false}, {@code null}, parentheses and paths such as
+ * {@code trigger.order.total} or {@code steps.lookup.rows[0].id}. A path under {@code steps} may name
+ * an action by its {@code id}; the alias is resolved to its {@code step_<index>} key at compile time.
+ * <p>
+ * Compilation does all parsing, path splitting and literal boxing up front, so evaluation only walks
+ * the tree and the context maps. Numbers compare numerically, strings lexically, anything else by
+ * equality.
+ */
+public final class ExpressionParser {
+
+    private final String source;
+    private final Map<String, String> stepAliases;
+    private int pos;
+
+    private ExpressionParser(String source, Map<String, String> stepAliases) {
+        this.source = source;
+        this.stepAliases = stepAliases;
+    }
+
+    /**
+     * Throws IllegalArgumentException, naming the position, if {@code source} is not a valid expression.
+     */
+    public static Expression compile(String source, Map<String, String> stepAliases) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Expression is empty");
+        }
+        ExpressionParser parser = new ExpressionParser(source, stepAliases);
+        Expression expression = parser.parseOr();
+        parser.skipWhitespace();
+        if (parser.pos < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.pos) + "'");
+        }
+        return expression;
+    }
+
+    private Expression parseOr() {
+        Expression left = parseAnd();
+        while (accept("||")) {
+            left = new Or(left, parseAnd());
+        }
+        return left;
+    }
+
+    private Expression parseAnd() {
+        Expression left = parseNot();
+        while (accept("&&")) {
+            left = new And(left, parseNot());
+        }
+        return left;
+    }
+
+    private Expression parseNot() {
+        skipWhitespace();
+        if (peek('!') && !peekAt(1, '=')) {
+            pos++;
+            return new Not(parseNot());
+        }
+        return parseComparison();
+    }
+
+    private Expression parseComparison() {
+        Expression left = parseOperand();
+        for (Operator operator : Operator.values()) {
+            if (accept(operator.symbol)) {
+                return new Compare(operator, left, parseOperand());
+            }
+        }
+        return left;
+    }
+
+    private Expression parseOperand() {
+        skipWhitespace();
+        if (pos >= source.length()) {
+            throw error("Expected a value");
+        }
+        char c = source.charAt(pos);
+        if (c == '(') {
+            pos++;
+            Expression inner = parseOr();
+            if (!accept(")")) {
+                throw error("Expected ')'");
+            }
+            return inner;
+        }
+        if (c == '\'' || c == '"') {
+            return new Literal(parseString(c));
+        }
+        if (Character.isDigit(c) || (c == '-' && pos + 1 < source.length() && Character.isDigit(source.charAt(pos + 1)))) {
+            return new Literal(parseNumber());
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            return parseIdentifierOrPath();
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Expression parseIdentifierOrPath() {
+        String first = parseIdentifier();
+        switch (first) {
+            case "true":
+                return Literal.TRUE;
+            case "false":
+                return Literal.FALSE;
+            case "null":
+                return Literal.NULL;
+            default:
+                break;
+        }
+        List<Object> segments = new ArrayList<>();
+        while (pos < source.length()) {
+            if (peek('.')) {
+                pos++;
+                segments.add(parseIdentifier());
+            } else if (peek('[')) {
+                pos++;
+                skipWhitespace();
+                if (!Character.isDigit(peekChar())) {
+                    throw error("Expected a list index");
+                }
+                segments.add(parseNumber().intValue());
+                if (!accept("]")) {
+                    throw error("Expected ']'");
+                }
+            } else {
+                break;
+            }
+        }
+        if (!"trigger".equals(first) && !"steps".equals(first)) {
+            throw error("Unknown root '" + first + "'; paths start with trigger or steps");
+        }
+        if ("steps".equals(first) && !segments.isEmpty() && segments.get(0) instanceof String step) {
+            segments.set(0, stepAliases.getOrDefault(step, step));
+        }
+        return new Path(first, segments.toArray());
+    }
+
+    private String parseIdentifier() {
+        int start = pos;
+        if (pos >= source.length() || !Character.isJavaIdentifierStart(source.charAt(pos))) {
+            throw error("Expected a name");
+        }
+        while (pos < source.length() && (Character.isJavaIdentifierPart(source.charAt(pos)) || source.charAt(pos) == '-')) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private String parseString(char quote) {
+        StringBuilder value = new StringBuilder();
+        pos++;
+        while (pos < source.length() && source.charAt(pos) != quote) {
+            char c = source.charAt(pos++);
+            if (c == '\\' && pos < source.length()) {
+                c = source.charAt(pos++);
+            }
+            value.append(c);
+        }
+        if (pos >= source.length()) {
+            throw error("Unterminated string");
+        }
+        pos++;
+        return value.toString();
+    }
+
+    private Number parseNumber() {
+        int start = pos;
+        if (peek('-')) {
+            pos++;
+        }
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+            pos++;
+        }
+        String text = source.substring(start, pos);
+        try {
+            return text.contains(".") ? (Number) Double.valueOf(text) : (Number) Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + text + "'");
+        }
+    }
+
+    private boolean accept(String token) {
+        skipWhitespace();
+        if (source.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean peek(char c) {
+        return pos < source.length() && source.charAt(pos) == c;
+    }
+
+    private boolean peekAt(int offset, char c) {
+        return pos + offset < source.length() && source.charAt(pos + offset) == c;
+    }
+
+    private char peekChar() {
+        return pos < source.length() ? source.charAt(pos) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " in expression: " + source);
+    }
+
+    // Two-character operators first, so "<=" is not read as "<".
+    private enum Operator {
+        EQ("=="), NE("!="), LE("<="), GE(">="), LT("<"), GT(">");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    private record Literal(Object value) implements Expression {
+        private static final Literal TRUE = new Literal(Boolean.TRUE);
+        private static final Literal FALSE = new Literal(Boolean.FALSE);
+        private static final Literal NULL = new Literal(null);
+
+        @Override
+        public Object evaluate(ExpressionContext context) {
+            return value;
+        }
+    }
+
+    private record Path(String root, Object[] segments) implements Expression {
+        @Override
+        public Object evaluate(ExpressionContext context) {
+            Object current = context.deref(context.root(root));
+            for (Object segment : segments) {
+                if (current instanceof Map<?, ?> map && segment instanceof String key) {
+                    current = map.get(key);
+                } else if (current instanceof List<?> list && segment instanceof Integer index) {
+                    current = (index < list.size()) ? list.get(index) : null;
+                } else {
+                    return null;
+                }
+                current = context.deref(current);
+            }
+            return current;
+        }
+    }
+
+    private record Not(Expression operand) implements Expression {
+        @Override
+        public Object evaluate(ExpressionContext context) {
+            return operand.test(context) ? Boolean.FALSE : Boolean.TRUE;
+        }
+    }
+
+    private record And(Expression left, Expression right) implements Expression {
+        @Override
+        public Object evaluate(ExpressionContext context) {
+            return (left.test(context) && right.test(context)) ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    private record Or(Expression left, Expression right) implements Expression {
+        @Override
+        public Object evaluate(ExpressionContext context) {
+            return (left.test(context) || right.test(context)) ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    private record Compare(Operator operator, Expression left, Expression right) implements Expression {
+        @Override
+        public Object evaluate(ExpressionContext context) {
+            return compare(left.evaluate(context), right.evaluate(context)) ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+        private boolean compare(Object a, Object b) {
+            if (a instanceof Number x && b instanceof Number y) {
+                int order = Double.compare(x.doubleValue(), y.doubleValue());
+                return matches(order);
+            }
+            if (operator == Operator.EQ) {
+                return Objects.equals(a, b);
+            }
+            if (operator == Operator.NE) {
+                return !Objects.equals(a, b);
+            }
+            if (a instanceof String x && b instanceof String y) {
+                return matches(x.compareTo(y));
+            }
+            return false;
+        }
+
+        private boolean matches(int order) {
+            return switch (operator) {
+                case EQ -> order == 0;
+                case NE -> order != 0;
+                case LT -> order < 0;
+                case LE -> order <= 0;
+                case GT -> order > 0;
+                case GE -> order >= 0;
+            };
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.flowforge.orchestrator.journal;
+
+import com.flowforge.orchestrator.entity.ExecutionEvent;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
+import com.flowforge.orchestrator.entity.StepState;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.plan.ExecutionPlan;
+import com.flowforge.orchestrator.repository.ExecutionEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only journal of step events per execution.
+ * <p>
+ * A step result costs one event insert instead of rewriting the ever-growing {@code step_outputs}
+ * document. The {@code step_outputs}/{@code step_states} columns of {@link WorkflowExecution} hold a
+ * snapshot as of {@code snapshotSeq}; every {@code snapshot-interval} events the folded state is
+ * written back there, which keeps the tail read on load short.
+ */
+@Component
+@Slf4j
+public class ExecutionJournal {
+
+    private final ExecutionEventRepository eventRepository;
+    private final int snapshotInterval;
+
+    public ExecutionJournal(ExecutionEventRepository eventRepository,
+                            @Value("${app.journal.snapshot-interval:20}") int snapshotInterval) {
+        this.eventRepository = eventRepository;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    public ExecutionState load(WorkflowExecution execution) {
+        return fold(execution, eventRepository.findByExecutionIdAndSeqGreaterThanOrderBySeqAsc(
+                execution.getId(), execution.getSnapshotSeq()));
+    }
+
+    public Map<UUID, ExecutionState> loadAll(Collection<WorkflowExecution> executions) {
+        if (executions.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, List<ExecutionEvent>> tails = eventRepository.findTails(
+                        executions.stream().map(WorkflowExecution::getId).toList()).stream()
+                .collect(Collectors.groupingBy(ExecutionEvent::getExecutionId));
+        return executions.stream().collect(Collectors.toMap(WorkflowExecution::getId,
+                execution -> fold(execution, tails.getOrDefault(execution.getId(), List.of())),
+                (a, b) -> a));
+    }
+
+    /**
+     * Folds a journal tail read by another query path: the execution's events after its snapshot, in order.
+     */
+    public ExecutionState restore(WorkflowExecution execution, List<ExecutionEvent> tail) {
+        return fold(execution, tail);
+    }
+
+    /**
+     * Appends an event, applies it to {@code state} and snapshots the execution row when due.
+     * The caller persists the execution row.
+     */
+    public void append(WorkflowExecution execution, ExecutionState state,
+                       ExecutionEventType type, int stepIndex, Map<String, Object> payload) {
+        int seq = execution.getJournalSeq() + 1;
+        ExecutionEvent event = ExecutionEvent.builder()
+                .executionId(execution.getId())
+                .seq(seq)
+                .type(type)
+                .stepIndex(stepIndex)
+                .payload(payload)
+                .build();
+        eventRepository.save(event);
+        state.apply(event);
+        execution.setJournalSeq(seq);
+
+        if (seq - execution.getSnapshotSeq() >= snapshotInterval) {
+            snapshot(execution, state);
+        }
+    }
+
+    private void snapshot(WorkflowExecution execution, ExecutionState state) {
+        execution.setStepOutputs(new HashMap<>(state.getStepOutputs()));
+        execution.setStepStates(new HashMap<>(state.getStepStates()));
+        execution.setSnapshotSeq(execution.getJournalSeq());
+        log.debug("Snapshotted execution {} at seq {}", execution.getId(), execution.getJournalSeq());
+    }
+
+    private ExecutionState fold(WorkflowExecution execution, List<ExecutionEvent> tail) {
+        Map<String, Object> outputs = execution.getStepOutputs() == null ? Map.of() : execution.getStepOutputs();
+        ExecutionState state = new ExecutionState(outputs, snapshotStates(execution));
+        tail.forEach(state::apply);
+        if (!tail.isEmpty() && tail.get(tail.size() - 1).getSeq() > execution.getJournalSeq()) {
+            // The row is written behind the journal; catch it up so the next append does not reuse a seq.
+            execution.setJournalSeq(tail.get(tail.size() - 1).getSeq());
+        }
+        return state;
+    }
+
+    /**
+     * Executions created before step states were tracked ran strictly in order,
+     * so every step before {@code currentStep} had completed.
+     */
+    private static Map<String, String> snapshotStates(WorkflowExecution execution) {
+        if (execution.getStepStates() != null) {
+            return execution.getStepStates();
+        }
+        Map<String, String> seeded = new HashMap<>();
+        for (int i = 0; i < execution.getCurrentStep(); i++) {
+            seeded.put(ExecutionPlan.stepKey(i), StepState.COMPLETED.name());
+        }
+        return seeded;
+    }
+}
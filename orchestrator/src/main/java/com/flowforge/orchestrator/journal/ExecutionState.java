@@ -0,0 +1,94 @@
+package com.flowforge.orchestrator.journal;
+
+import com.flowforge.orchestrator.entity.ExecutionEvent;
+import com.flowforge.orchestrator.entity.StepState;
+import com.flowforge.orchestrator.plan.ExecutionPlan;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Current step outputs and step states of an execution: its snapshot with the journal tail folded in.
+ */
+public class ExecutionState {
+
+    private final Map<String, Object> stepOutputs;
+    private final Map<String, String> stepStates;
+    private final Map<String, Integer> outputSeqs = new HashMap<>(); // journal seq of outputs after the snapshot
+
+    public ExecutionState(Map<String, Object> stepOutputs, Map<String, String> stepStates) {
+        this.stepOutputs = new HashMap<>(stepOutputs);
+        this.stepStates = new HashMap<>(stepStates);
+    }
+
+    public static ExecutionState empty() {
+        return new ExecutionState(Map.of(), Map.of());
+    }
+
+    public Map<String, Object> getStepOutputs() {
+        return stepOutputs;
+    }
+
+    public Map<String, String> getStepStates() {
+        return stepStates;
+    }
+
+    public boolean hasState(int stepIndex) {
+        return stepStates.containsKey(ExecutionPlan.stepKey(stepIndex));
+    }
+
+    public boolean isRetryScheduled(int stepIndex) {
+        return StepState.RETRY_SCHEDULED.name().equals(stepStates.get(ExecutionPlan.stepKey(stepIndex)));
+    }
+
+    public boolean isCompleted(int stepIndex) {
+        return StepState.COMPLETED.name().equals(stepStates.get(ExecutionPlan.stepKey(stepIndex)));
+    }
+
+    public int completedCount() {
+        return (int) stepStates.values().stream().filter(StepState.COMPLETED.name()::equals).count();
+    }
+
+    /**
+     * Completed, or skipped because its condition or switch case did not hold.
+     */
+    public boolean isResolved(int stepIndex) {
+        String stepState = stepStates.get(ExecutionPlan.stepKey(stepIndex));
+        return StepState.COMPLETED.name().equals(stepState) || StepState.SKIPPED.name().equals(stepState);
+    }
+
+    public int resolvedCount() {
+        return (int) stepStates.values().stream()
+                .filter(stepState -> StepState.COMPLETED.name().equals(stepState) || StepState.SKIPPED.name().equals(stepState))
+                .count();
+    }
+
+    /**
+     * Outputs recorded after journal sequence {@code seq}. Only meaningful for {@code seq} at or
+     * after the snapshot the state was loaded from; earlier outputs carry no sequence.
+     */
+    public Map<String, Object> outputsSince(int seq) {
+        Map<String, Object> delta = new HashMap<>();
+        outputSeqs.forEach((stepKey, outputSeq) -> {
+            if (outputSeq > seq) {
+                delta.put(stepKey, stepOutputs.get(stepKey));
+            }
+        });
+        return delta;
+    }
+
+    void apply(ExecutionEvent event) {
+        String stepKey = ExecutionPlan.stepKey(event.getStepIndex());
+        switch (event.getType()) {
+            case STEP_DISPATCHED -> stepStates.put(stepKey, StepState.DISPATCHED.name());
+            case STEP_COMPLETED -> {
+                stepStates.put(stepKey, StepState.COMPLETED.name());
+                stepOutputs.put(stepKey, event.getPayload());
+                outputSeqs.put(stepKey, event.getSeq());
+            }
+            case STEP_FAILED -> stepStates.put(stepKey, StepState.FAILED.name());
+            case STEP_RETRY_SCHEDULED -> stepStates.put(stepKey, StepState.RETRY_SCHEDULED.name());
+            case STEP_SKIPPED -> stepStates.put(stepKey, StepState.SKIPPED.name());
+        }
+    }
+}
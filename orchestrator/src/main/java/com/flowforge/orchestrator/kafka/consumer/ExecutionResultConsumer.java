@@ -1,25 +1,125 @@
 package com.flowforge.orchestrator.kafka.consumer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.concurrent.KeyedSequencer;
 import com.flowforge.orchestrator.dto.ExecutionResultDto;
 import com.flowforge.orchestrator.service.OrchestrationService;
+import com.flowforge.orchestrator.state.ExecutionStateStore;
+import com.flowforge.orchestrator.timer.ExecutionTimerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+
 @Component @RequiredArgsConstructor @Slf4j
-public class ExecutionResultConsumer {
+public class ExecutionResultConsumer implements ConsumerSeekAware {
     private final OrchestrationService orchestrationService;
+    private final ExecutionStateStore executionStateStore;
+    private final ExecutionTimerService executionTimerService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final ObjectProvider<KeyedSequencer> resultSequencer;
+
+    @Value("${app.kafka.topics.execution-result}")
+    private String executionResultTopic;
+
+    @KafkaListener(topics = "${app.kafka.topics.execution-result}", groupId = "${spring.kafka.consumer.group-id}", batch = "true")
+    public void consumeExecutionResults(List<String> messages) {
+        List<ExecutionResultDto> results = new ArrayList<>(messages.size());
+        List<Integer> positions = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                ExecutionResultDto result = objectMapper.readValue(messages.get(i), ExecutionResultDto.class);
+                log.info("Received result: {}", result.getExecutionId());
+                results.add(result);
+                positions.add(i);
+            } catch (Exception e) {
+                log.error("Error parsing result", e);
+            }
+        }
+        if (results.isEmpty()) {
+            return;
+        }
+        KeyedSequencer sequencer = resultSequencer.getIfAvailable();
+        if (sequencer == null) {
+            apply(results, positions);
+        } else {
+            applyConcurrently(sequencer, results, positions);
+        }
+    }
 
-    @KafkaListener(topics = "${app.kafka.topics.execution-result}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeExecutionResult(String message) {
+    private void apply(List<ExecutionResultDto> results, List<Integer> positions) {
         try {
-            ExecutionResultDto result = objectMapper.readValue(message, ExecutionResultDto.class);
-            log.info("Received result: {}", result.getExecutionId());
-            orchestrationService.continueWorkflowExecution(result);
+            orchestrationService.continueWorkflowExecutions(results);
         } catch (Exception e) {
-            log.error("Error consuming result", e);
+            // Isolate the bad record: the batch transaction rolled back, so apply the results one by one.
+            // The first one that fails is reported by position; everything before it is committed and
+            // the rest of the batch is redelivered.
+            log.warn("Batch of {} results failed; applying them individually", results.size(), e);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    orchestrationService.continueWorkflowExecution(results.get(i));
+                } catch (Exception single) {
+                    throw new BatchListenerFailedException("Error consuming result for execution "
+                            + results.get(i).getExecutionId(), single, positions.get(i));
+                }
+            }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies the results of each execution as one group on a virtual thread and returns once every
+     * group has finished, so the batch offsets are only committed after all of it is durable. If a
+     * group fails, the earliest failed position is reported; results after it that other groups
+     * already applied are dropped as duplicates when the rest of the batch is redelivered.
+     */
+    private void applyConcurrently(KeyedSequencer sequencer, List<ExecutionResultDto> results, List<Integer> positions) {
+        Map<UUID, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            groups.computeIfAbsent(results.get(i).getExecutionId(), id -> new ArrayList<>()).add(i);
+        }
+        ConcurrentSkipListMap<Integer, Throwable> failures = new ConcurrentSkipListMap<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>(groups.size());
+        groups.forEach((executionId, indexes) -> pending.add(sequencer.submit(executionId, () -> {
+            List<Integer> groupPositions = indexes.stream().map(positions::get).toList();
+            try {
+                apply(indexes.stream().map(results::get).toList(), groupPositions);
+            } catch (BatchListenerFailedException e) {
+                failures.put(e.getIndex(), e.getCause());
+            } catch (Exception e) {
+                failures.put(groupPositions.get(0), e);
+            }
+        })));
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        if (!failures.isEmpty()) {
+            Map.Entry<Integer, Throwable> first = failures.firstEntry();
+            throw new BatchListenerFailedException("Error consuming results", first.getValue(), first.getKey());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        int partitionCount = kafkaTemplate.partitionsFor(executionResultTopic).size();
+        executionStateStore.assign(assignments.keySet().stream().map(TopicPartition::partition).toList(), partitionCount);
+        executionTimerService.reloadSoon();
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        executionStateStore.revoke(partitions.stream().map(TopicPartition::partition).toList());
+    }
+}
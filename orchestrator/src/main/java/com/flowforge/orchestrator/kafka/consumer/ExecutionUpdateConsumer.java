@@ -0,0 +1,26 @@
+package com.flowforge.orchestrator.kafka.consumer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.dto.ExecutionUpdateDto;
+import com.flowforge.orchestrator.stream.ExecutionUpdateBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component @RequiredArgsConstructor @Slf4j
+@ConditionalOnProperty(name = "app.execution-updates.fan-out", havingValue = "true", matchIfMissing = true)
+public class ExecutionUpdateConsumer {
+    private final ExecutionUpdateBus executionUpdateBus;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${app.kafka.topics.execution-updates}", groupId = "${app.kafka.execution-updates-group-id}",
+            properties = "auto.offset.reset=latest")
+    public void consumeExecutionUpdate(String message) {
+        try {
+            executionUpdateBus.deliverRemote(objectMapper.readValue(message, ExecutionUpdateDto.class));
+        } catch (Exception e) {
+            log.error("Error consuming execution update", e);
+        }
+    }
+}
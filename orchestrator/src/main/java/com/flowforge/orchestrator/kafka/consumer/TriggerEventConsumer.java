@@ -2,24 +2,59 @@ package com.flowforge.orchestrator.kafka.consumer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.flowforge.orchestrator.dto.TriggerEventDto;
 import com.flowforge.orchestrator.service.OrchestrationService;
+import com.flowforge.orchestrator.service.WorkflowUnavailableException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component @RequiredArgsConstructor @Slf4j
 public class TriggerEventConsumer {
     private final OrchestrationService orchestrationService;
     private final ObjectMapper objectMapper;
 
-    @KafkaListener(topics = "${app.kafka.topics.trigger-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeTriggerEvent(String message) {
+    @KafkaListener(topics = "${app.kafka.topics.trigger-events}", groupId = "${spring.kafka.consumer.group-id}", batch = "true")
+    public void consumeTriggerEvents(List<String> messages) {
+        List<TriggerEventDto> events = new ArrayList<>(messages.size());
+        List<Integer> recordIndexes = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                TriggerEventDto event = objectMapper.readValue(messages.get(i), TriggerEventDto.class);
+                if (event.getWorkflowId() == null || event.getUserId() == null) {
+                    log.error("Skipping trigger {} without workflowId or userId", event.getEventId());
+                    continue;
+                }
+                log.info("Received trigger: {}", event.getEventId());
+                events.add(event);
+                recordIndexes.add(i);
+            } catch (Exception e) {
+                log.error("Error parsing trigger", e);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        // Offsets are committed up to the record that failed; it and the rest of the batch are redelivered.
         try {
-            TriggerEventDto event = objectMapper.readValue(message, TriggerEventDto.class);
-            log.info("Received trigger: {}", event.getEventId());
-            orchestrationService.startWorkflowExecution(event);
-        } catch (Exception e) {
-            log.error("Error consuming trigger", e);
+            orchestrationService.startWorkflowExecutions(events);
+        } catch (WorkflowUnavailableException e) {
+            throw new BatchListenerFailedException("Workflow of trigger unavailable", e, recordIndexes.get(e.getTriggerIndex()));
+        } catch (RuntimeException e) {
+            // Isolate the bad trigger: the batch transaction rolled back, so start the triggers one by one.
+            // The first one that fails is reported by position; everything before it is committed.
+            log.warn("Batch of {} triggers failed; starting them individually", events.size(), e);
+            for (int i = 0; i < events.size(); i++) {
+                try {
+                    orchestrationService.startWorkflowExecutions(List.of(events.get(i)));
+                } catch (RuntimeException single) {
+                    throw new BatchListenerFailedException("Error starting execution for trigger "
+                            + events.get(i).getEventId(), single, recordIndexes.get(i));
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
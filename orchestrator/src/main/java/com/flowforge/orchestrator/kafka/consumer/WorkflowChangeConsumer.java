@@ -0,0 +1,30 @@
+package com.flowforge.orchestrator.kafka.consumer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.cache.WorkflowDefinitionCache;
+import com.flowforge.orchestrator.dto.WorkflowChangeEventDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component @RequiredArgsConstructor @Slf4j
+public class WorkflowChangeConsumer {
+    private final WorkflowDefinitionCache workflowDefinitionCache;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${app.kafka.topics.workflow-changes}", groupId = "${app.kafka.workflow-changes-group-id}",
+            properties = "auto.offset.reset=latest")
+    public void consumeWorkflowChange(String message) {
+        try {
+            WorkflowChangeEventDto change = objectMapper.readValue(message, WorkflowChangeEventDto.class);
+            log.info("Received workflow change: {} {}", change.getChangeType(), change.getWorkflowId());
+            if ("DELETED".equalsIgnoreCase(change.getChangeType())) {
+                workflowDefinitionCache.evict(change.getWorkflowId());
+            } else {
+                workflowDefinitionCache.invalidate(change.getWorkflowId(), change.getUpdatedAt());
+            }
+        } catch (Exception e) {
+            log.error("Error consuming workflow change", e);
+        }
+    }
+}
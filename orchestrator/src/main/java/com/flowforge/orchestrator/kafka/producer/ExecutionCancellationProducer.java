@@ -0,0 +1,36 @@
+package com.flowforge.orchestrator.kafka.producer;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Tells whichever instance owns an execution's result partition that it was cancelled. The signal
+ * travels on the result topic with the execution's key, so it is ordered with the step results.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionCancellationProducer {
+
+    public static final String CANCELLED_STATUS = "CANCELLED";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.topics.execution-result}")
+    private String executionResultTopic;
+
+    public void sendCancellation(UUID executionId) {
+        ExecutionResultDto signal = new ExecutionResultDto();
+        signal.setExecutionId(executionId);
+        signal.setStepIndex(-1);
+        signal.setStatus(CANCELLED_STATUS);
+        log.info("Sending cancellation signal: executionId={}", executionId);
+        kafkaTemplate.send(executionResultTopic, executionId.toString(), signal);
+    }
+}
@@ -0,0 +1,68 @@
+package com.flowforge.orchestrator.kafka.producer;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes results of steps the orchestrator completes itself. They travel on the result topic
+ * with the execution's key, so the instance owning that partition applies them like executor results.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionResultProducer {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.topics.execution-result}")
+    private String executionResultTopic;
+
+    @Value("${app.kafka.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    /**
+     * Sends back-to-back and waits until the broker has acknowledged all of them. Throws if any send
+     * fails or times out.
+     */
+    public void sendResults(List<ExecutionResultDto> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        CompletableFuture<?>[] sends = results.stream()
+                .map(result -> kafkaTemplate.send(executionResultTopic, result.getExecutionId().toString(), result))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while sending execution results", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Failed to send " + results.size() + " execution results", e);
+        }
+        log.debug("Sent {} execution results", results.size());
+    }
+
+    /**
+     * Sends one record without waiting. Failures, including ones the producer raises before the
+     * record is queued (serialization, record size), complete the returned future exceptionally.
+     */
+    public CompletableFuture<?> send(ExecutionResultDto result) {
+        try {
+            return kafkaTemplate.send(executionResultTopic, result.getExecutionId().toString(), result);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
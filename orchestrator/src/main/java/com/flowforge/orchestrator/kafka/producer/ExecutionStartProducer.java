@@ -2,14 +2,14 @@ package com.flowforge.orchestrator.kafka.producer;
 
 import com.flowforge.orchestrator.dto.ExecutionStartDto;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
-@Slf4j
 public class ExecutionStartProducer {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
@@ -17,8 +17,15 @@ public class ExecutionStartProducer {
     @Value("${app.kafka.topics.execution-start}")
     private String executionStartTopic;
 
-    public void sendExecutionStartEvent(ExecutionStartDto event) {
-        log.info("Sending execution start event: executionId={}, actionType={}", event.getExecutionId(), event.getActionType());
-        kafkaTemplate.send(executionStartTopic, event.getExecutionId().toString(), event);
+    /**
+     * Sends one record without waiting. Failures, including ones the producer raises before the
+     * record is queued (serialization, record size), complete the returned future exceptionally.
+     */
+    public CompletableFuture<?> send(ExecutionStartDto event) {
+        try {
+            return kafkaTemplate.send(executionStartTopic, event.getExecutionId().toString(), event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.flowforge.orchestrator.kafka.producer;
+
+import com.flowforge.orchestrator.dto.ExecutionUpdateDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fans execution updates out to the other orchestrator instances. Best effort: a lost step update is
+ * missing from remote streams, and a lost terminal status delays the end of a remote stream until
+ * its next heartbeat re-reads the execution. The execution itself is unaffected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionUpdateProducer {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.topics.execution-updates}")
+    private String executionUpdatesTopic;
+
+    public void sendUpdates(List<ExecutionUpdateDto> updates) {
+        for (ExecutionUpdateDto update : updates) {
+            kafkaTemplate.send(executionUpdatesTopic, update.getExecutionId().toString(), update)
+                    .whenComplete((sent, e) -> {
+                        if (e != null) {
+                            log.warn("Failed to fan out update of executionId {}", update.getExecutionId(), e);
+                        }
+                    });
+        }
+    }
+}
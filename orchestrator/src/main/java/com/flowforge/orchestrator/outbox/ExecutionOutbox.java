@@ -0,0 +1,49 @@
+package com.flowforge.orchestrator.outbox;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.dto.ExecutionStartDto;
+import com.flowforge.orchestrator.entity.ExecutionOutboxMessage;
+import com.flowforge.orchestrator.repository.ExecutionOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Write side of the outbox. Must be called inside the transaction that records the dispatch, so the
+ * step is either dispatched and journaled or neither; {@link ExecutionOutboxRelay} publishes the
+ * rows afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExecutionOutbox {
+
+    private final ExecutionOutboxRepository outboxRepository;
+
+    public void enqueue(List<ExecutionStartDto> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxRepository.saveAll(events.stream()
+                .map(event -> ExecutionOutboxMessage.builder()
+                        .messageKey(event.getExecutionId().toString())
+                        .payload(event)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Queues results for the result topic, keyed by the execution they apply to.
+     */
+    public void enqueueResults(List<ExecutionResultDto> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        outboxRepository.saveAll(results.stream()
+                .map(result -> ExecutionOutboxMessage.builder()
+                        .messageKey(result.getExecutionId().toString())
+                        .result(result)
+                        .build())
+                .toList());
+    }
+}
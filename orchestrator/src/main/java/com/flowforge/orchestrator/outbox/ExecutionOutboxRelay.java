@@ -0,0 +1,251 @@
+package com.flowforge.orchestrator.outbox;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.dto.ExecutionStartDto;
+import com.flowforge.orchestrator.entity.ExecutionOutboxMessage;
+import com.flowforge.orchestrator.kafka.producer.ExecutionResultProducer;
+import com.flowforge.orchestrator.kafka.producer.ExecutionStartProducer;
+import com.flowforge.orchestrator.repository.ExecutionOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the outbox to Kafka: execution.start events and orchestrator-sent results.
+ * <p>
+ * Each round claims up to {@code batch-size} of the oldest rows with {@code FOR UPDATE SKIP LOCKED},
+ * sends them back to back, waits for the broker's answer to each and, in the same transaction,
+ * deletes the rows it acknowledged. Rows that failed stay for the next round; a row the broker
+ * rejects for good (too large, unserializable) counts an attempt and is dead-lettered after
+ * {@code max-attempts}, so it neither blocks nor re-sends the rest of its batch. In the same
+ * transaction a FAILURE result for the row's step is queued in its place, so the step fails through
+ * the normal result path (retry policy, parent notification) instead of waiting forever. Retriable failures
+ * (broker unavailable, timeouts) do not count. A crash after the acks but before the commit
+ * republishes those rows, so delivery is at-least-once. Relays on several instances claim disjoint
+ * batches; executors tolerate the resulting cross-batch reordering because context deltas are
+ * versioned.
+ */
+@Component
+@Slf4j
+public class ExecutionOutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * Error code of the FAILURE result queued for a dead-lettered row. Such a result is not replaced
+     * again if it is dead-lettered itself.
+     */
+    public static final String DEAD_LETTERED_ERROR_CODE = "OUTBOX_DEAD_LETTERED";
+
+    private final ExecutionOutboxRepository outboxRepository;
+    private final ExecutionOutbox executionOutbox;
+    private final ExecutionStartProducer executionStartProducer;
+    private final ExecutionResultProducer executionResultProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration sendTimeout;
+
+    private final Counter published;
+    private final Counter deadLettered;
+    private final Timer publishDelay;
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+
+    public ExecutionOutboxRelay(ExecutionOutboxRepository outboxRepository,
+                                ExecutionOutbox executionOutbox,
+                                ExecutionStartProducer executionStartProducer,
+                                ExecutionResultProducer executionResultProducer,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.outbox.batch-size:500}") int batchSize,
+                                @Value("${app.outbox.max-attempts:5}") int maxAttempts,
+                                @Value("${app.kafka.send-timeout:PT10S}") Duration sendTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.executionOutbox = executionOutbox;
+        this.executionStartProducer = executionStartProducer;
+        this.executionResultProducer = executionResultProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.sendTimeout = sendTimeout;
+        this.published = Counter.builder("flowforge.outbox.published")
+                .description("Events published from the outbox")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("flowforge.outbox.dead_lettered")
+                .description("Outbox rows given up on after max-attempts rejected sends")
+                .register(meterRegistry);
+        this.publishDelay = Timer.builder("flowforge.outbox.publish.delay")
+                .description("Time from outbox insert to broker acknowledgement")
+                .register(meterRegistry);
+        Gauge.builder("flowforge.outbox.lag", oldestPendingMillis, millis -> millis.get() / 1000.0)
+                .description("Age in seconds of the oldest unpublished outbox row")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:100}")
+    public void relay() {
+        try {
+            boolean drained;
+            do {
+                drained = Boolean.TRUE.equals(transactionTemplate.execute(status -> publishBatch()));
+            } while (drained);
+            updateLag();
+        } catch (RuntimeException e) {
+            // The transaction rolled back and released the rows; the next round retries them.
+            log.error("Outbox relay round failed", e);
+        }
+    }
+
+    /**
+     * Publishes one batch; true if it was full and every row was acknowledged, i.e. there may be more
+     * to publish right away.
+     */
+    private boolean publishBatch() {
+        List<ExecutionOutboxMessage> batch = outboxRepository.claimBatch(batchSize);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        List<CompletableFuture<?>> sends = batch.stream().map(this::send).toList();
+        try {
+            CompletableFuture.allOf(sends.stream()
+                            .map(send -> send.handle((result, e) -> null))
+                            .toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Sends still pending count as failed; they are retried next round
+        }
+
+        List<Long> acknowledged = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < batch.size(); i++) {
+            ExecutionOutboxMessage message = batch.get(i);
+            Throwable failure = failure(sends.get(i));
+            if (failure == null) {
+                acknowledged.add(message.getId());
+                publishDelay.record(Duration.between(message.getCreatedAt(), now));
+            } else {
+                failed(message, failure, now);
+            }
+        }
+        if (!acknowledged.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(acknowledged);
+            published.increment(acknowledged.size());
+        }
+        log.debug("Published {} of {} outbox messages", acknowledged.size(), batch.size());
+        return batch.size() == batchSize && acknowledged.size() == batch.size();
+    }
+
+    private CompletableFuture<?> send(ExecutionOutboxMessage message) {
+        return (message.getPayload() != null)
+                ? executionStartProducer.send(message.getPayload())
+                : executionResultProducer.send(message.getResult());
+    }
+
+    private static Throwable failure(CompletableFuture<?> send) {
+        if (!send.isDone()) {
+            return new TimeoutException("No broker acknowledgement in time");
+        }
+        if (!send.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            send.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            return (e.getCause() != null) ? e.getCause() : e;
+        }
+    }
+
+    /**
+     * Records a failed send on the claimed (managed) row; the change is written when the round commits.
+     */
+    private void failed(ExecutionOutboxMessage message, Throwable failure, Instant now) {
+        String error = failure.toString();
+        message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (isRetriable(failure)) {
+            return;
+        }
+        message.setAttempts(message.getAttempts() + 1);
+        if (message.getAttempts() >= maxAttempts) {
+            message.setDeadLetteredAt(now);
+            deadLettered.increment();
+            log.error("Dead-lettered outbox message {} (key {}) after {} rejected sends",
+                    message.getId(), message.getMessageKey(), message.getAttempts(), failure);
+            ExecutionResultDto stepFailure = stepFailure(message);
+            if (stepFailure != null) {
+                executionOutbox.enqueueResults(List.of(stepFailure));
+            }
+        } else {
+            log.warn("Outbox message {} was rejected ({} of {}): {}",
+                    message.getId(), message.getAttempts(), maxAttempts, failure.toString());
+        }
+    }
+
+    /**
+     * The FAILURE result of the step a dead-lettered row was for: the dispatched step for an
+     * execution.start, the receiving step for a result. Null for a row that already was one.
+     */
+    private static ExecutionResultDto stepFailure(ExecutionOutboxMessage message) {
+        ExecutionResultDto failure = new ExecutionResultDto();
+        if (message.getPayload() != null) {
+            ExecutionStartDto start = message.getPayload();
+            failure.setExecutionId(start.getExecutionId());
+            failure.setWorkflowId(start.getWorkflowId());
+            failure.setUserId(start.getUserId());
+            failure.setStepIndex(start.getStepIndex());
+            failure.setAttempt(start.getAttempt());
+            failure.setErrorMessage("Step could not be dispatched: " + message.getLastError());
+        } else {
+            ExecutionResultDto result = message.getResult();
+            if (DEAD_LETTERED_ERROR_CODE.equals(result.getErrorCode())) {
+                return null;
+            }
+            failure.setExecutionId(result.getExecutionId());
+            failure.setWorkflowId(result.getWorkflowId());
+            failure.setUserId(result.getUserId());
+            failure.setStepIndex(result.getStepIndex());
+            failure.setAttempt(result.getAttempt());
+            failure.setErrorMessage("Step result could not be delivered: " + message.getLastError());
+        }
+        failure.setStatus("FAILURE");
+        failure.setErrorCode(DEAD_LETTERED_ERROR_CODE);
+        return failure;
+    }
+
+    private static boolean isRetriable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateLag() {
+        oldestPendingMillis.set(outboxRepository.findFirstByDeadLetteredAtIsNullOrderByCreatedAtAscIdAsc()
+                .map(oldest -> Math.max(0, Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis()))
+                .orElse(0L));
+    }
+}
@@ -0,0 +1,371 @@
+package com.flowforge.orchestrator.plan;
+
+import com.flowforge.orchestrator.dto.ActionDto;
+import com.flowforge.orchestrator.expression.Expression;
+import com.flowforge.orchestrator.expression.ExpressionContext;
+import com.flowforge.orchestrator.expression.ExpressionParser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Dependency graph of a workflow's actions, compiled once per pinned definition.
+ * <p>
+ * Nodes are action indexes. An action's {@code dependsOn} entries may name another action's
+ * {@code id} or its positional key ({@code step_<index>}). If no action declares {@code dependsOn}
+ * the plan is the legacy linear chain, each action depending on the one before it.
+ * <p>
+ * Readiness is checked per resolved node: only its dependents are inspected, and for each of
+ * those only its own dependencies, so progress never rescans the whole graph.
+ * <p>
+ * An action's {@code condition} and the cases of {@code SWITCH} actions are compiled here too, once
+ * per pinned definition. A {@code SWITCH} action ({@code config.value} expression,
+ * {@code config.cases} mapping values to lists of dependent actions, optional {@code config.default})
+ * lets only the actions of the matching case run.
+ * <p>
+ * A skipped action counts as resolved for readiness, but skipping propagates through explicit
+ * {@code dependsOn} edges: an action whose dependencies were all skipped is skipped too, so the
+ * downstream actions of an unselected branch never run. Its {@code join} picks how a merge point
+ * treats a partly skipped set of dependencies: {@code any} (the default) runs if at least one
+ * dependency ran, {@code all} only if every one did. In a legacy linear chain a skipped action
+ * skips only itself.
+ */
+public final class ExecutionPlan {
+
+    public static final String SWITCH = "SWITCH";
+    public static final String JOIN_ANY = "any";
+    public static final String JOIN_ALL = "all";
+
+    private static final int[] NONE = new int[0];
+
+    private final List<ActionDto> actions;
+    private final int[][] dependencies;
+    private final int[][] dependents;
+    private final int[] roots;
+    private final boolean propagatesSkips;
+    private final boolean[] joinAll;
+    private final RetryPolicy[] retryPolicies;
+    private final Expression[] runIf;
+    private final Expression[] switchValues;
+    private final Set<String>[] switchCases;
+
+    private ExecutionPlan(List<ActionDto> actions, int[][] dependencies, int[][] dependents, int[] roots,
+                          boolean propagatesSkips, boolean[] joinAll, RetryPolicy[] retryPolicies, Expression[] runIf,
+                          Expression[] switchValues, Set<String>[] switchCases) {
+        this.actions = actions;
+        this.dependencies = dependencies;
+        this.dependents = dependents;
+        this.roots = roots;
+        this.propagatesSkips = propagatesSkips;
+        this.joinAll = joinAll;
+        this.retryPolicies = retryPolicies;
+        this.runIf = runIf;
+        this.switchValues = switchValues;
+        this.switchCases = switchCases;
+    }
+
+    public static ExecutionPlan compile(List<ActionDto> actions) {
+        List<ActionDto> nodes = List.copyOf(actions);
+        int size = nodes.size();
+        int[][] dependencies = new int[size][];
+
+        Map<String, Integer> indexByKey = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            indexByKey.put(stepKey(i), i);
+            String id = nodes.get(i).getId();
+            if (id != null && !id.isBlank() && indexByKey.putIfAbsent(id, i) != null) {
+                throw new IllegalArgumentException("Duplicate action id: " + id);
+            }
+        }
+
+        boolean sequential = nodes.stream().allMatch(action -> action.getDependsOn() == null);
+        if (sequential) {
+            for (int i = 0; i < size; i++) {
+                dependencies[i] = (i == 0) ? NONE : new int[]{i - 1};
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                List<String> dependsOn = nodes.get(i).getDependsOn();
+                if (dependsOn == null || dependsOn.isEmpty()) {
+                    dependencies[i] = NONE;
+                    continue;
+                }
+                int[] deps = new int[dependsOn.size()];
+                for (int d = 0; d < deps.length; d++) {
+                    Integer dep = indexByKey.get(dependsOn.get(d));
+                    if (dep == null) {
+                        throw new IllegalArgumentException("Action " + stepKey(i) + " depends on unknown action: " + dependsOn.get(d));
+                    }
+                    deps[d] = dep;
+                }
+                dependencies[i] = deps;
+            }
+        }
+
+        List<List<Integer>> reverse = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            reverse.add(new ArrayList<>());
+        }
+        List<Integer> rootList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (dependencies[i].length == 0) {
+                rootList.add(i);
+            }
+            for (int dep : dependencies[i]) {
+                reverse.get(dep).add(i);
+            }
+        }
+        int[][] dependents = new int[size][];
+        for (int i = 0; i < size; i++) {
+            dependents[i] = reverse.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        boolean[] joinAll = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            String join = nodes.get(i).getJoin();
+            if (join != null && !JOIN_ANY.equalsIgnoreCase(join) && !JOIN_ALL.equalsIgnoreCase(join)) {
+                throw new IllegalArgumentException("Action " + stepKey(i) + " has an invalid join: " + join
+                        + " (expected " + JOIN_ANY + " or " + JOIN_ALL + ")");
+            }
+            joinAll[i] = JOIN_ALL.equalsIgnoreCase(join);
+        }
+
+        RetryPolicy[] retryPolicies = new RetryPolicy[size];
+        for (int i = 0; i < size; i++) {
+            try {
+                retryPolicies[i] = RetryPolicy.from(nodes.get(i).getConfig());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Action " + stepKey(i) + " has an invalid retry policy: " + e.getMessage(), e);
+            }
+        }
+
+        Map<String, String> stepAliases = new HashMap<>();
+        indexByKey.forEach((key, index) -> stepAliases.put(key, stepKey(index)));
+        Expression[] runIf = new Expression[size];
+        for (int i = 0; i < size; i++) {
+            String condition = nodes.get(i).getCondition();
+            if (condition != null && !condition.isBlank()) {
+                runIf[i] = compileExpression(i, "condition", condition, stepAliases);
+            }
+        }
+        Expression[] switchValues = new Expression[size];
+        @SuppressWarnings("unchecked")
+        Set<String>[] switchCases = new Set[size];
+        for (int i = 0; i < size; i++) {
+            if (SWITCH.equalsIgnoreCase(nodes.get(i).getType())) {
+                compileSwitch(i, nodes.get(i), indexByKey, stepAliases, dependencies, runIf, switchValues, switchCases);
+            }
+        }
+
+        ExecutionPlan plan = new ExecutionPlan(nodes, dependencies, dependents,
+                rootList.stream().mapToInt(Integer::intValue).toArray(), !sequential, joinAll, retryPolicies, runIf,
+                switchValues, switchCases);
+        plan.verifyAcyclic();
+        return plan;
+    }
+
+    public static String stepKey(int index) {
+        return "step_" + index;
+    }
+
+    public int size() {
+        return actions.size();
+    }
+
+    public ActionDto action(int index) {
+        return actions.get(index);
+    }
+
+    public List<ActionDto> actions() {
+        return actions;
+    }
+
+    public int[] roots() {
+        return roots;
+    }
+
+    public int[] dependents(int index) {
+        return dependents[index];
+    }
+
+    public int[] dependencies(int index) {
+        return dependencies[index];
+    }
+
+    public RetryPolicy retryPolicy(int index) {
+        return retryPolicies[index];
+    }
+
+    /**
+     * Whether the action's condition and, if it is a switch case, its case hold. Actions without
+     * either always run.
+     */
+    public boolean shouldRun(int index, ExpressionContext context) {
+        return runIf[index] == null || runIf[index].test(context);
+    }
+
+    /**
+     * Whether a resolved action must be skipped because of skipped dependencies: all of them were
+     * skipped, or, with {@code join: all}, any of them was. Never true in a legacy linear chain.
+     */
+    public boolean skippedByDependencies(int index, IntPredicate completed) {
+        if (!propagatesSkips || dependencies[index].length == 0) {
+            return false;
+        }
+        int ran = 0;
+        for (int dep : dependencies[index]) {
+            if (completed.test(dep)) {
+                ran++;
+            }
+        }
+        return joinAll[index] ? ran < dependencies[index].length : ran == 0;
+    }
+
+    public boolean isSwitch(int index) {
+        return switchValues[index] != null;
+    }
+
+    /**
+     * Evaluates a switch: its output records the value and the matching case, null for the default.
+     */
+    public Map<String, Object> evaluateSwitch(int index, ExpressionContext context) {
+        Object value = switchValues[index].evaluate(context);
+        String selected = (value == null) ? null : String.valueOf(value instanceof Double d && d % 1 == 0 ? d.longValue() : value);
+        Map<String, Object> output = new HashMap<>();
+        output.put("value", value);
+        output.put("case", switchCases[index].contains(selected) ? selected : null);
+        return output;
+    }
+
+    /**
+     * Dependents of {@code completed} whose dependencies are now all resolved.
+     */
+    public List<Integer> readyAfter(int completed, IntPredicate resolved) {
+        List<Integer> ready = new ArrayList<>(dependents[completed].length);
+        for (int candidate : dependents[completed]) {
+            if (allResolved(candidate, resolved)) {
+                ready.add(candidate);
+            }
+        }
+        return ready;
+    }
+
+    private boolean allResolved(int index, IntPredicate resolved) {
+        for (int dep : dependencies[index]) {
+            if (!resolved.test(dep)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void compileSwitch(int index, ActionDto action, Map<String, Integer> indexByKey, Map<String, String> stepAliases,
+                                      int[][] dependencies, Expression[] runIf, Expression[] switchValues, Set<String>[] switchCases) {
+        Map<String, Object> config = (action.getConfig() == null) ? Map.of() : action.getConfig();
+        if (!(config.get("value") instanceof String value)) {
+            throw new IllegalArgumentException("Switch " + stepKey(index) + " requires config.value");
+        }
+        if (!(config.get("cases") instanceof Map<?, ?> cases)) {
+            throw new IllegalArgumentException("Switch " + stepKey(index) + " requires config.cases");
+        }
+        switchValues[index] = compileExpression(index, "value", value, stepAliases);
+        switchCases[index] = new HashSet<>();
+
+        Map<Integer, Set<String>> casesByTarget = new LinkedHashMap<>();
+        Set<Integer> defaultTargets = new HashSet<>();
+        cases.forEach((caseValue, targets) -> {
+            switchCases[index].add(String.valueOf(caseValue));
+            for (int target : targetIndexes(index, targets, indexByKey, dependencies)) {
+                casesByTarget.computeIfAbsent(target, t -> new HashSet<>()).add(String.valueOf(caseValue));
+            }
+        });
+        if (config.get("default") != null) {
+            for (int target : targetIndexes(index, config.get("default"), indexByKey, dependencies)) {
+                casesByTarget.computeIfAbsent(target, t -> new HashSet<>());
+                defaultTargets.add(target);
+            }
+        }
+
+        String switchKey = stepKey(index);
+        casesByTarget.forEach((target, targetCases) -> {
+            Expression guard = caseGuard(switchKey, Set.copyOf(targetCases), defaultTargets.contains(target));
+            Expression condition = runIf[target];
+            runIf[target] = (condition == null) ? guard
+                    : context -> (guard.test(context) && condition.test(context)) ? Boolean.TRUE : Boolean.FALSE;
+        });
+    }
+
+    private static List<Integer> targetIndexes(int switchIndex, Object targets, Map<String, Integer> indexByKey, int[][] dependencies) {
+        if (!(targets instanceof List<?> list)) {
+            throw new IllegalArgumentException("Switch " + stepKey(switchIndex) + " cases must list actions");
+        }
+        List<Integer> indexes = new ArrayList<>(list.size());
+        for (Object target : list) {
+            Integer targetIndex = indexByKey.get(String.valueOf(target));
+            if (targetIndex == null) {
+                throw new IllegalArgumentException("Switch " + stepKey(switchIndex) + " names unknown action: " + target);
+            }
+            if (Arrays.stream(dependencies[targetIndex]).noneMatch(dep -> dep == switchIndex)) {
+                throw new IllegalArgumentException("Action " + target + " must depend on switch " + stepKey(switchIndex));
+            }
+            indexes.add(targetIndex);
+        }
+        return indexes;
+    }
+
+    /**
+     * True when the switch's recorded case is one of {@code cases}, or it matched no case and the
+     * target is listed under the default.
+     */
+    private static Expression caseGuard(String switchKey, Set<String> cases, boolean isDefault) {
+        return context -> {
+            Object steps = context.root("steps");
+            Object output = (steps instanceof Map<?, ?> outputs) ? context.deref(outputs.get(switchKey)) : null;
+            Object selected = (output instanceof Map<?, ?> map) ? map.get("case") : null;
+            boolean matches = (selected == null) ? isDefault : cases.contains(selected);
+            return matches ? Boolean.TRUE : Boolean.FALSE;
+        };
+    }
+
+    private static Expression compileExpression(int index, String what, String source, Map<String, String> stepAliases) {
+        try {
+            return ExpressionParser.compile(source, stepAliases);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Action " + stepKey(index) + " has an invalid " + what + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void verifyAcyclic() {
+        int size = size();
+        int[] remaining = new int[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            remaining[i] = dependencies[i].length;
+            if (remaining[i] == 0) {
+                queue.add(i);
+            }
+        }
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            visited++;
+            for (int dependent : dependents[node]) {
+                if (--remaining[dependent] == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (visited != size) {
+            throw new IllegalArgumentException("Workflow actions contain a dependency cycle");
+        }
+    }
+}
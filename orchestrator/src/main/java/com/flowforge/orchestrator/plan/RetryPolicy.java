@@ -0,0 +1,126 @@
+package com.flowforge.orchestrator.plan;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Retry policy of one action, read from its {@code config.retry}:
+ * <pre>
+ * "retry": {
+ *   "maxAttempts": 5,          // total attempts including the first
+ *   "backoff": "PT2S",         // delay before the first retry
+ *   "multiplier": 2.0,         // growth per further retry
+ *   "maxBackoff": "PT5M",
+ *   "jitter": 0.2,             // +/- fraction applied to each delay
+ *   "retryOn": ["HTTP_429", "HTTP_5XX", "NETWORK"]
+ * }
+ * </pre>
+ * {@code retryOn} lists executor error codes; {@code HTTP_5XX} matches every 5xx status. Without
+ * {@code retryOn} only transient errors (429, 5xx, network) are retried. An action without
+ * {@code config.retry} is attempted once.
+ */
+public record RetryPolicy(int maxAttempts, Duration backoff, double multiplier, Duration maxBackoff,
+                          double jitter, Set<String> retryOn) {
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, 1.0, Duration.ZERO, 0.0, Set.of());
+
+    private static final Set<String> TRANSIENT = Set.of("HTTP_429", "HTTP_5XX", "NETWORK");
+
+    /**
+     * Throws IllegalArgumentException for an invalid policy, so a bad definition is rejected when pinned.
+     */
+    public static RetryPolicy from(Map<String, Object> config) {
+        if (config == null || config.get("retry") == null) {
+            return NONE;
+        }
+        if (!(config.get("retry") instanceof Map<?, ?> retry)) {
+            throw new IllegalArgumentException("config.retry must be an object");
+        }
+        int maxAttempts = intValue(retry.get("maxAttempts"), 3);
+        Duration backoff = durationValue(retry.get("backoff"), Duration.ofSeconds(1));
+        double multiplier = doubleValue(retry.get("multiplier"), 2.0);
+        Duration maxBackoff = durationValue(retry.get("maxBackoff"), Duration.ofMinutes(5));
+        double jitter = doubleValue(retry.get("jitter"), 0.2);
+        Set<String> retryOn = TRANSIENT;
+        if (retry.get("retryOn") instanceof Collection<?> codes) {
+            retryOn = codes.stream().map(code -> code.toString().toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        } else if (retry.get("retryOn") != null) {
+            throw new IllegalArgumentException("config.retry.retryOn must be a list of error codes");
+        }
+
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("config.retry.maxAttempts must be at least 1");
+        }
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException("config.retry.multiplier must be at least 1");
+        }
+        if (jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("config.retry.jitter must be between 0 and 1");
+        }
+        if (backoff.isNegative() || maxBackoff.compareTo(backoff) < 0) {
+            throw new IllegalArgumentException("config.retry.maxBackoff must not be below backoff");
+        }
+        return new RetryPolicy(maxAttempts, backoff, multiplier, maxBackoff, jitter, retryOn);
+    }
+
+    /**
+     * Whether a failure with {@code errorCode} on {@code attempt} (1-based) gets another attempt.
+     */
+    public boolean shouldRetry(String errorCode, int attempt) {
+        if (attempt >= maxAttempts || errorCode == null) {
+            return false;
+        }
+        String code = errorCode.toUpperCase(Locale.ROOT);
+        return retryOn.contains(code) || (code.startsWith("HTTP_5") && retryOn.contains("HTTP_5XX"));
+    }
+
+    /**
+     * Delay before the attempt that follows {@code attempt}, with jitter applied.
+     */
+    public Duration backoff(int attempt) {
+        double base = backoff.toMillis() * Math.pow(multiplier, Math.max(0, attempt - 1));
+        double capped = Math.min(base, maxBackoff.toMillis());
+        double jittered = capped * (1.0 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1.0));
+        return Duration.ofMillis(Math.round(Math.max(0, jittered)));
+    }
+
+    private static int intValue(Object value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        throw new IllegalArgumentException("Expected a number but got: " + value);
+    }
+
+    private static double doubleValue(Object value, double fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        throw new IllegalArgumentException("Expected a number but got: " + value);
+    }
+
+    private static Duration durationValue(Object value, Duration fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        if (value instanceof Number seconds) {
+            return Duration.ofMillis(Math.round(seconds.doubleValue() * 1000));
+        }
+        try {
+            return Duration.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid duration: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.flowforge.orchestrator.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds the blob store keys still referenced ({@code {"$blobRef": key}} at any depth) by live
+ * executions: their trigger payloads and outputs, their journal, and dispatches waiting in the outbox.
+ * Archived executions are not searched.
+ */
+@Repository
+public class BlobReferenceRepository {
+
+    private static final String REFS = "jsonb_path_query(%s, 'lax $.**.\"$blobRef\"') #>> '{}'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public BlobReferenceRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    /**
+     * Scans every live row, so it is meant for an occasional sweep, not a request path.
+     */
+    public Set<String> referencedKeys() {
+        String sql = "SELECT " + REFS.formatted("trigger_payload") + " FROM " + schema + ".workflow_executions"
+                + " UNION SELECT " + REFS.formatted("step_outputs") + " FROM " + schema + ".workflow_executions"
+                + " UNION SELECT " + REFS.formatted("payload") + " FROM " + schema + ".execution_events"
+                + " UNION SELECT " + REFS.formatted("payload") + " FROM " + schema + ".execution_outbox";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class));
+    }
+}
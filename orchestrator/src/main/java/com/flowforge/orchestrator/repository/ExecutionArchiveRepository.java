@@ -0,0 +1,160 @@
+package com.flowforge.orchestrator.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.archive.ArchivedExecution;
+import com.flowforge.orchestrator.dto.ExecutionCursor;
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Archived terminal executions, and removal of archived executions from the hot tables. Reads serve
+ * the JPA query path's fallback; pages seek on idx_executions_archive_user_created like the hot table.
+ */
+@Repository
+public class ExecutionArchiveRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    public static final String COLUMNS = "id, workflow_id, user_id, status, definition_hash, parent_execution_id,"
+            + " trigger_payload, step_outputs, step_states, created_at, updated_at";
+    private static final TypeReference<Map<String, Object>> OBJECT_MAP = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {
+    };
+
+    private final String insertSql;
+    private final String[] deleteSqls;
+    private final String selectSql;
+    private final String countSql;
+
+    public ExecutionArchiveRepository(JdbcTemplate jdbcTemplate,
+                                      ObjectMapper objectMapper,
+                                      @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.insertSql = "INSERT INTO " + schema + ".workflow_executions_archive (id, workflow_id, user_id, status,"
+                + " definition_hash, parent_execution_id, trigger_payload, step_outputs, step_states, created_at, updated_at)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb, ?, ?) ON CONFLICT (id) DO NOTHING";
+        this.deleteSqls = new String[]{
+                "DELETE FROM " + schema + ".execution_events WHERE execution_id = ANY(?)",
+                "DELETE FROM " + schema + ".execution_timers WHERE execution_id = ANY(?)",
+                "DELETE FROM " + schema + ".workflow_executions WHERE id = ANY(?)"};
+        this.selectSql = "SELECT " + COLUMNS + " FROM " + schema + ".workflow_executions_archive WHERE user_id = ?";
+        this.countSql = "SELECT count(*) FROM " + schema + ".workflow_executions_archive WHERE user_id = ?";
+    }
+
+    public void insert(Collection<ArchivedExecution> executions) {
+        jdbcTemplate.batchUpdate(insertSql, executions, executions.size(), (statement, execution) -> {
+            statement.setObject(1, execution.id());
+            statement.setObject(2, execution.workflowId());
+            statement.setObject(3, execution.userId());
+            statement.setString(4, execution.status().name());
+            statement.setString(5, execution.definitionHash());
+            statement.setObject(6, execution.parentExecutionId());
+            statement.setString(7, json(execution.triggerPayload()));
+            statement.setString(8, json(execution.stepOutputs()));
+            statement.setString(9, json(execution.stepStates()));
+            statement.setTimestamp(10, Timestamp.from(execution.createdAt()));
+            statement.setTimestamp(11, Timestamp.from(execution.updatedAt()));
+        });
+    }
+
+    /**
+     * Deletes the executions with their journal and any leftover timers. Participates in the caller's
+     * transaction, so they disappear exactly when their archived copies are committed.
+     */
+    public void deleteExecutions(Collection<UUID> executionIds) {
+        UUID[] ids = executionIds.toArray(UUID[]::new);
+        for (String sql : deleteSqls) {
+            jdbcTemplate.update((Connection connection) -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setArray(1, connection.createArrayOf("uuid", ids));
+                return statement;
+            });
+        }
+    }
+
+    public Optional<ArchivedExecution> findByIdAndUserId(UUID executionId, UUID userId) {
+        return jdbcTemplate.query(selectSql + " AND id = ?", this::row, userId, executionId).stream().findFirst();
+    }
+
+    /**
+     * Keyset page, newest first, after {@code after} (null for the first page).
+     */
+    public List<ArchivedExecution> findPage(UUID userId, UUID workflowId, ExecutionCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(selectSql);
+        List<Object> args = new ArrayList<>(List.of(userId));
+        if (workflowId != null) {
+            sql.append(" AND workflow_id = ?");
+            args.add(workflowId);
+        }
+        if (after != null) {
+            sql.append(" AND (created_at, id) < (?, ?)");
+            args.add(Timestamp.from(after.createdAt()));
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), this::row, args.toArray());
+    }
+
+    public long count(UUID userId, UUID workflowId) {
+        Long count = (workflowId == null)
+                ? jdbcTemplate.queryForObject(countSql, Long.class, userId)
+                : jdbcTemplate.queryForObject(countSql + " AND workflow_id = ?", Long.class, userId, workflowId);
+        return (count == null) ? 0 : count;
+    }
+
+    private ArchivedExecution row(ResultSet row, int rowNum) throws SQLException {
+        return new ArchivedExecution(
+                row.getObject("id", UUID.class),
+                row.getObject("workflow_id", UUID.class),
+                row.getObject("user_id", UUID.class),
+                ExecutionStatus.valueOf(row.getString("status")),
+                row.getString("definition_hash"),
+                row.getObject("parent_execution_id", UUID.class),
+                read(row.getString("trigger_payload"), OBJECT_MAP),
+                read(row.getString("step_outputs"), OBJECT_MAP),
+                read(row.getString("step_states"), STRING_MAP),
+                row.getTimestamp("created_at").toInstant(),
+                row.getTimestamp("updated_at").toInstant());
+    }
+
+    private <T> T read(String value, TypeReference<T> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable archived column", e);
+        }
+    }
+
+    private String json(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Archived value is not serializable", e);
+        }
+    }
+}
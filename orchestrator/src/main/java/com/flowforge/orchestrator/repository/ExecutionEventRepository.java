@@ -0,0 +1,25 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.entity.ExecutionEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExecutionEventRepository extends JpaRepository<ExecutionEvent, ExecutionEvent.Key> {
+
+    List<ExecutionEvent> findByExecutionIdAndSeqGreaterThanOrderBySeqAsc(UUID executionId, int seq);
+
+    /**
+     * Journal tails (events after each execution's snapshot) for several executions in one query.
+     */
+    @Query("select e from ExecutionEvent e, WorkflowExecution x "
+            + "where e.executionId = x.id and x.id in :executionIds and e.seq > x.snapshotSeq "
+            + "order by e.executionId, e.seq")
+    List<ExecutionEvent> findTails(@Param("executionIds") Collection<UUID> executionIds);
+}
@@ -0,0 +1,26 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.entity.ExecutionOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExecutionOutboxRepository extends JpaRepository<ExecutionOutboxMessage, Long> {
+
+    /**
+     * Locks the oldest pending messages, by insert time, for the calling transaction. Insert time is
+     * not commit order across instances, so this is only roughly first-in first-out. Rows locked by
+     * another relay are skipped rather than waited on, so several instances can drain the outbox side
+     * by side; dead-lettered rows are never claimed.
+     */
+    @Query(value = "SELECT * FROM {h-schema}execution_outbox WHERE dead_lettered_at IS NULL"
+            + " ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ExecutionOutboxMessage> claimBatch(@Param("limit") int limit);
+
+    Optional<ExecutionOutboxMessage> findFirstByDeadLetteredAtIsNullOrderByCreatedAtAscIdAsc();
+}
@@ -0,0 +1,77 @@
+package com.flowforge.orchestrator.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Monthly range partitions of {@code workflow_executions}, named {@code workflow_executions_pYYYYMM}
+ * and bounded by UTC month starts. Only used once the table has been converted by
+ * {@code db/05_partition_executions.sql}.
+ */
+@Repository
+public class ExecutionPartitionRepository {
+
+    private static final String PREFIX = "workflow_executions_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public ExecutionPartitionRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    /**
+     * The month a managed partition covers; empty for the default partition and foreign names.
+     */
+    public static Optional<YearMonth> monthOf(String partitionName) {
+        if (!partitionName.startsWith(PREFIX) || partitionName.length() != PREFIX.length() + 6) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partitionName.substring(PREFIX.length()), SUFFIX));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    public List<String> partitionNames() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid"
+                + " JOIN pg_class p ON p.oid = i.inhparent"
+                + " JOIN pg_namespace n ON n.oid = p.relnamespace"
+                + " WHERE n.nspname = ? AND p.relname = 'workflow_executions'", String.class, schema);
+    }
+
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + "." + partitionName(month)
+                + " PARTITION OF " + schema + ".workflow_executions"
+                + " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+    }
+
+    public boolean isEmpty(YearMonth month) {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + schema + "." + partitionName(month) + ")", Boolean.class));
+    }
+
+    /**
+     * Dropping takes a brief exclusive lock on the parent; it gives up after {@code lock_timeout}
+     * rather than queue ahead of live queries. Run inside a transaction so the timeout stays local.
+     */
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("DROP TABLE " + schema + "." + partitionName(month));
+    }
+}
@@ -0,0 +1,73 @@
+package com.flowforge.orchestrator.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.state.ExecutionProgress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Batched row updates for {@link ExecutionProgress} captures.
+ * <p>
+ * Updates are guarded so a capture never regresses a row: it is skipped if the row has already
+ * been written at a later journal sequence or has reached a terminal status (in particular a
+ * cancellation written by the API).
+ */
+@Repository
+public class ExecutionProgressWriter {
+
+    private static final String GUARD =
+            " WHERE id = ? AND journal_seq <= ? AND status NOT IN ('CANCELLED', 'COMPLETED', 'FAILED')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String progressSql;
+    private final String snapshotSql;
+
+    public ExecutionProgressWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                   @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        String table = schema + ".workflow_executions";
+        this.progressSql = "UPDATE " + table + " SET status = ?, current_step = ?, journal_seq = ?, snapshot_seq = ?,"
+                + " dispatched_context_version = ?, updated_at = now()" + GUARD;
+        this.snapshotSql = "UPDATE " + table + " SET status = ?, current_step = ?, journal_seq = ?, snapshot_seq = ?,"
+                + " dispatched_context_version = ?, step_outputs = ?::jsonb, step_states = ?::jsonb, updated_at = now()" + GUARD;
+    }
+
+    public void write(Collection<ExecutionProgress> captures) {
+        List<Object[]> progressArgs = new ArrayList<>();
+        List<Object[]> snapshotArgs = new ArrayList<>();
+        for (ExecutionProgress progress : captures) {
+            if (progress.hasSnapshot()) {
+                snapshotArgs.add(new Object[]{
+                        progress.status().name(), progress.currentStep(), progress.journalSeq(), progress.snapshotSeq(),
+                        progress.dispatchedContextVersion(), toJson(progress.stepOutputs()), toJson(progress.stepStates()),
+                        progress.executionId(), progress.journalSeq()});
+            } else {
+                progressArgs.add(new Object[]{
+                        progress.status().name(), progress.currentStep(), progress.journalSeq(), progress.snapshotSeq(),
+                        progress.dispatchedContextVersion(), progress.executionId(), progress.journalSeq()});
+            }
+        }
+        if (!progressArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(progressSql, progressArgs);
+        }
+        if (!snapshotArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(snapshotSql, snapshotArgs);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize execution snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.dto.ExecutionCursor;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read side of the execution API: executions with their journal folded in.
+ * <p>
+ * {@link JpaExecutionQueryRepository} runs the blocking JPA queries on the bounded elastic
+ * scheduler. With the {@code r2dbc} profile {@link R2dbcExecutionQueryRepository} is used instead;
+ * it holds no thread while Postgres works, so request concurrency is no longer capped by the
+ * elastic pool and the JDBC connection pool. Writes stay on JPA either way.
+ * <p>
+ * Both read {@code workflow_executions} first and fall back to {@code workflow_executions_archive}
+ * (archive mode {@code table}): a lookup that misses the hot table, and a page the hot table cannot
+ * fill. Executions archived to files are not served.
+ */
+public interface ExecutionQueryRepository {
+
+    Comparator<WorkflowExecution> NEWEST_FIRST = Comparator.comparing(WorkflowExecution::getCreatedAt)
+            .thenComparing(WorkflowExecution::getId, ExecutionQueryRepository::compareAsPostgres)
+            .reversed();
+
+    Mono<LoadedExecution> findByIdAndUserId(UUID executionId, UUID userId);
+
+    /**
+     * Keyset page of a user's executions, newest first, starting after {@code after} (null for the
+     * first page). {@code workflowId} is optional.
+     */
+    Flux<LoadedExecution> findPage(UUID userId, UUID workflowId, ExecutionCursor after, int limit);
+
+    /**
+     * Executions in the hot table and the archive.
+     */
+    Mono<Long> count(UUID userId, UUID workflowId);
+
+    /**
+     * Completes a short hot page with the archived page after the same cursor. Archived executions are
+     * mostly older than the hot ones, but one still running past {@code archive-after} is not, so the
+     * two are merged by {@code (created_at, id)} rather than appended.
+     */
+    static List<LoadedExecution> withArchived(List<LoadedExecution> hot, List<LoadedExecution> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<LoadedExecution> page = new ArrayList<>(hot);
+        page.addAll(archived);
+        page.sort(Comparator.comparing(LoadedExecution::execution, NEWEST_FIRST));
+        return page.subList(0, Math.min(limit, page.size()));
+    }
+
+    /**
+     * Orders uuids as Postgres does, byte by byte unsigned, so keyset cursors agree with the database.
+     */
+    private static int compareAsPostgres(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return (high != 0) ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    record LoadedExecution(WorkflowExecution execution, ExecutionState state) {
+    }
+}
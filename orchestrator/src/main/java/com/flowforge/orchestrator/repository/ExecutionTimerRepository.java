@@ -0,0 +1,87 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.timer.StepTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable copy of pending timer steps. Rows are a fixed-width key plus the fire time, so even
+ * millions of pending timers stay cheap to scan by {@code fire_at}.
+ */
+@Repository
+public class ExecutionTimerRepository {
+
+    private static final RowMapper<StepTimer> ROW_MAPPER = (rs, rowNum) -> new StepTimer(
+            rs.getObject(1, UUID.class), rs.getInt(2), rs.getInt(3), StepTimer.Kind.valueOf(rs.getString(4)), rs.getTimestamp(5).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+    private final String dueSql;
+    private final String dueAfterSql;
+    private final String claimSql;
+
+    public ExecutionTimerRepository(JdbcTemplate jdbcTemplate,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = schema + ".execution_timers";
+        this.insertSql = "INSERT INTO " + table + " (execution_id, step_index, attempt, kind, fire_at)"
+                + " VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+        this.dueSql = "SELECT execution_id, step_index, attempt, kind, fire_at FROM " + table
+                + " WHERE fire_at < ? ORDER BY fire_at, execution_id, step_index, attempt LIMIT ?";
+        this.dueAfterSql = "SELECT execution_id, step_index, attempt, kind, fire_at FROM " + table
+                + " WHERE fire_at < ? AND (fire_at, execution_id, step_index, attempt) > (?, ?, ?, ?)"
+                + " ORDER BY fire_at, execution_id, step_index, attempt LIMIT ?";
+        this.claimSql = "DELETE FROM " + table + " t USING unnest(?::uuid[], ?::int[], ?::int[]) AS k(e, s, a)"
+                + " WHERE t.execution_id = k.e AND t.step_index = k.s AND t.attempt = k.a"
+                + " RETURNING t.execution_id, t.step_index, t.attempt, t.kind, t.fire_at";
+    }
+
+    /**
+     * Participates in the caller's transaction, so timers exist exactly when the dispatch that created them commits.
+     */
+    public void insert(Collection<StepTimer> timers) {
+        jdbcTemplate.batchUpdate(insertSql, timers, timers.size(), (statement, timer) -> {
+            statement.setObject(1, timer.executionId());
+            statement.setInt(2, timer.stepIndex());
+            statement.setInt(3, timer.attempt());
+            statement.setString(4, timer.kind().name());
+            statement.setTimestamp(5, Timestamp.from(timer.fireAt()));
+        });
+    }
+
+    /**
+     * One page of the timers due before {@code horizon}, in fire order, starting after {@code after}
+     * (null for the first page).
+     */
+    public List<StepTimer> findDueBefore(Instant horizon, StepTimer after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(dueSql, ROW_MAPPER, Timestamp.from(horizon), limit);
+        }
+        return jdbcTemplate.query(dueAfterSql, ROW_MAPPER, Timestamp.from(horizon), Timestamp.from(after.fireAt()),
+                after.executionId(), after.stepIndex(), after.attempt(), limit);
+    }
+
+    /**
+     * Deletes the timers in one statement and returns those this call removed. A timer that another
+     * instance already fired is not returned, so each one fires once per committed claim.
+     */
+    public List<StepTimer> claim(Collection<StepTimer> timers) {
+        List<StepTimer> ordered = List.copyOf(timers);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(claimSql);
+            statement.setArray(1, connection.createArrayOf("uuid", ordered.stream().map(StepTimer::executionId).toArray(UUID[]::new)));
+            statement.setArray(2, connection.createArrayOf("integer", ordered.stream().map(StepTimer::stepIndex).toArray(Integer[]::new)));
+            statement.setArray(3, connection.createArrayOf("integer", ordered.stream().map(StepTimer::attempt).toArray(Integer[]::new)));
+            return statement;
+        }, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,79 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.archive.ArchivedExecution;
+import com.flowforge.orchestrator.dto.ExecutionCursor;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Default {@link ExecutionQueryRepository}: JPA queries offloaded to the bounded elastic scheduler,
+ * with the archive read through {@link ExecutionArchiveRepository}.
+ */
+@Repository
+@Profile("!r2dbc")
+@RequiredArgsConstructor
+public class JpaExecutionQueryRepository implements ExecutionQueryRepository {
+
+    private final WorkflowExecutionRepository executionRepository;
+    private final ExecutionJournal executionJournal;
+    private final ExecutionArchiveRepository archiveRepository;
+
+    @Override
+    public Mono<LoadedExecution> findByIdAndUserId(UUID executionId, UUID userId) {
+        return Mono.fromCallable(() -> executionRepository.findByIdAndUserId(executionId, userId)
+                        .map(execution -> new LoadedExecution(execution, executionJournal.load(execution)))
+                        .or(() -> archiveRepository.findByIdAndUserId(executionId, userId).map(ArchivedExecution::loaded))
+                        .orElse(null))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<LoadedExecution> findPage(UUID userId, UUID workflowId, ExecutionCursor after, int limit) {
+        return Mono.fromCallable(() -> {
+                    List<WorkflowExecution> rows = rows(userId, workflowId, after, limit);
+                    Map<UUID, ExecutionState> states = executionJournal.loadAll(rows);
+                    List<LoadedExecution> hot = rows.stream()
+                            .map(execution -> new LoadedExecution(execution, states.get(execution.getId())))
+                            .toList();
+                    if (hot.size() >= limit) {
+                        return hot;
+                    }
+                    List<LoadedExecution> archived = archiveRepository.findPage(userId, workflowId, after, limit).stream()
+                            .map(ArchivedExecution::loaded)
+                            .toList();
+                    return ExecutionQueryRepository.withArchived(hot, archived, limit);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(page -> page);
+    }
+
+    @Override
+    public Mono<Long> count(UUID userId, UUID workflowId) {
+        return Mono.fromCallable(() -> archiveRepository.count(userId, workflowId) + ((workflowId == null)
+                        ? executionRepository.countByUserId(userId)
+                        : executionRepository.countByUserIdAndWorkflowId(userId, workflowId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private List<WorkflowExecution> rows(UUID userId, UUID workflowId, ExecutionCursor after, int limit) {
+        if (workflowId == null) {
+            return (after == null)
+                    ? executionRepository.findFirstPage(userId, limit)
+                    : executionRepository.findPageAfter(userId, after.createdAt(), after.id(), limit);
+        }
+        return (after == null)
+                ? executionRepository.findFirstPage(userId, workflowId, limit)
+                : executionRepository.findPageAfter(userId, workflowId, after.createdAt(), after.id(), limit);
+    }
+}
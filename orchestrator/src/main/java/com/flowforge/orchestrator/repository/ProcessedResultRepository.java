@@ -0,0 +1,56 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.dedupe.ResultKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Durable record of applied step results, used to reject redeliveries.
+ */
+@Repository
+public class ProcessedResultRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String claimSql;
+    private final String purgeSql;
+
+    public ProcessedResultRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = schema + ".processed_results";
+        this.claimSql = "INSERT INTO " + table + " (execution_id, step_index, attempt, processed_at)"
+                + " SELECT e, s, a, now() FROM unnest(?::uuid[], ?::int[], ?::int[]) AS k(e, s, a)"
+                + " ON CONFLICT DO NOTHING RETURNING execution_id, step_index, attempt";
+        this.purgeSql = "DELETE FROM " + table + " WHERE processed_at < ?";
+    }
+
+    /**
+     * Records the keys in one statement and returns those that were not recorded before.
+     * Participates in the caller's transaction, so a rollback un-claims them.
+     */
+    public Set<ResultKey> claim(Collection<ResultKey> keys) {
+        List<ResultKey> ordered = List.copyOf(keys);
+        List<ResultKey> claimed = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(claimSql);
+            statement.setArray(1, connection.createArrayOf("uuid", ordered.stream().map(ResultKey::executionId).toArray(UUID[]::new)));
+            statement.setArray(2, connection.createArrayOf("integer", ordered.stream().map(ResultKey::stepIndex).toArray(Integer[]::new)));
+            statement.setArray(3, connection.createArrayOf("integer", ordered.stream().map(ResultKey::attempt).toArray(Integer[]::new)));
+            return statement;
+        }, (rs, rowNum) -> new ResultKey(rs.getObject(1, UUID.class), rs.getInt(2), rs.getInt(3)));
+        return new HashSet<>(claimed);
+    }
+
+    public int purgeOlderThan(Instant cutoff) {
+        return jdbcTemplate.update(purgeSql, Timestamp.from(cutoff));
+    }
+}
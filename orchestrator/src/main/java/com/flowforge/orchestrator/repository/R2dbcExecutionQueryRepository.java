@@ -0,0 +1,231 @@
+package com.flowforge.orchestrator.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.archive.ArchivedExecution;
+import com.flowforge.orchestrator.dto.ExecutionCursor;
+import com.flowforge.orchestrator.entity.ExecutionEvent;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ExecutionQueryRepository} over R2DBC, for the {@code r2dbc} profile. Runs the same queries
+ * as the JPA path (keyset pages on idx_executions_user_created, one tail query per page) and folds the
+ * journal with {@link ExecutionJournal#restore}; jsonb columns arrive as {@link Json} and are decoded
+ * with the application's ObjectMapper. The archive fallback reads the same columns as
+ * {@link ExecutionArchiveRepository}.
+ */
+@Repository
+@Profile("r2dbc")
+public class R2dbcExecutionQueryRepository implements ExecutionQueryRepository {
+
+    private static final TypeReference<Map<String, Object>> OBJECT_MAP = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {
+    };
+    private static final String COLUMNS = "id, workflow_id, user_id, status, current_step, definition_hash,"
+            + " trigger_payload, step_outputs, step_states, journal_seq, snapshot_seq, dispatched_context_version,"
+            + " parent_execution_id, parent_step_index, parent_attempt, depth, created_at, updated_at";
+    private static final String PAGE_ORDER = " ORDER BY created_at DESC, id DESC LIMIT :limit";
+
+    private final DatabaseClient databaseClient;
+    private final ExecutionJournal executionJournal;
+    private final ObjectMapper objectMapper;
+    private final String findByIdSql;
+    private final String pageSql;
+    private final String countSql;
+    private final String tailsSql;
+    private final String archiveFindByIdSql;
+    private final String archivePageSql;
+    private final String archiveCountSql;
+
+    public R2dbcExecutionQueryRepository(DatabaseClient databaseClient,
+                                         ExecutionJournal executionJournal,
+                                         ObjectMapper objectMapper,
+                                         @Value("${spring.jpa.properties.hibernate.default_schema:orchestrator}") String schema) {
+        this.databaseClient = databaseClient;
+        this.executionJournal = executionJournal;
+        this.objectMapper = objectMapper;
+        this.findByIdSql = "SELECT " + COLUMNS + " FROM " + schema + ".workflow_executions WHERE id = :id AND user_id = :userId";
+        this.pageSql = "SELECT " + COLUMNS + " FROM " + schema + ".workflow_executions WHERE user_id = :userId";
+        this.countSql = "SELECT count(*) FROM " + schema + ".workflow_executions WHERE user_id = :userId";
+        this.tailsSql = "SELECT e.execution_id, e.seq, e.type, e.step_index, e.payload, e.created_at"
+                + " FROM " + schema + ".execution_events e"
+                + " JOIN unnest(CAST(:ids AS uuid[]), CAST(:snapshotSeqs AS int[])) AS s(execution_id, snapshot_seq)"
+                + " ON e.execution_id = s.execution_id AND e.seq > s.snapshot_seq"
+                + " ORDER BY e.execution_id, e.seq";
+        String archive = schema + ".workflow_executions_archive";
+        this.archiveFindByIdSql = "SELECT " + ExecutionArchiveRepository.COLUMNS + " FROM " + archive
+                + " WHERE id = :id AND user_id = :userId";
+        this.archivePageSql = "SELECT " + ExecutionArchiveRepository.COLUMNS + " FROM " + archive + " WHERE user_id = :userId";
+        this.archiveCountSql = "SELECT count(*) FROM " + archive + " WHERE user_id = :userId";
+    }
+
+    @Override
+    public Mono<LoadedExecution> findByIdAndUserId(UUID executionId, UUID userId) {
+        return databaseClient.sql(findByIdSql)
+                .bind("id", executionId)
+                .bind("userId", userId)
+                .map(this::execution)
+                .one()
+                .flatMapMany(execution -> withState(List.of(execution)))
+                .next()
+                .switchIfEmpty(Mono.defer(() -> databaseClient.sql(archiveFindByIdSql)
+                        .bind("id", executionId)
+                        .bind("userId", userId)
+                        .map(this::archived)
+                        .one()
+                        .map(ArchivedExecution::loaded)));
+    }
+
+    @Override
+    public Flux<LoadedExecution> findPage(UUID userId, UUID workflowId, ExecutionCursor after, int limit) {
+        return page(pageSql, userId, workflowId, after, limit)
+                .map(this::execution)
+                .all()
+                .collectList()
+                .flatMapMany(this::withState)
+                .collectList()
+                .flatMapMany(hot -> (hot.size() >= limit)
+                        ? Flux.fromIterable(hot)
+                        : page(archivePageSql, userId, workflowId, after, limit)
+                                .map(this::archived)
+                                .all()
+                                .map(ArchivedExecution::loaded)
+                                .collectList()
+                                .flatMapIterable(archived -> ExecutionQueryRepository.withArchived(hot, archived, limit)));
+    }
+
+    @Override
+    public Mono<Long> count(UUID userId, UUID workflowId) {
+        return Mono.zip(count(countSql, userId, workflowId), count(archiveCountSql, userId, workflowId), Long::sum);
+    }
+
+    private DatabaseClient.GenericExecuteSpec page(String baseSql, UUID userId, UUID workflowId, ExecutionCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(baseSql);
+        if (workflowId != null) {
+            sql.append(" AND workflow_id = :workflowId");
+        }
+        if (after != null) {
+            sql.append(" AND (created_at, id) < (:createdAt, :afterId)");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.append(PAGE_ORDER).toString())
+                .bind("userId", userId)
+                .bind("limit", limit);
+        if (workflowId != null) {
+            spec = spec.bind("workflowId", workflowId);
+        }
+        if (after != null) {
+            spec = spec.bind("createdAt", after.createdAt()).bind("afterId", after.id());
+        }
+        return spec;
+    }
+
+    private Mono<Long> count(String sql, UUID userId, UUID workflowId) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        (workflowId == null) ? sql : sql + " AND workflow_id = :workflowId")
+                .bind("userId", userId);
+        if (workflowId != null) {
+            spec = spec.bind("workflowId", workflowId);
+        }
+        return spec.map(row -> row.get(0, Long.class)).one();
+    }
+
+    /**
+     * Reads the journal tails of {@code executions} in one query and folds them, keeping the row order.
+     */
+    private Flux<LoadedExecution> withState(List<WorkflowExecution> executions) {
+        if (executions.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(tailsSql)
+                .bind("ids", executions.stream().map(WorkflowExecution::getId).toArray(UUID[]::new))
+                .bind("snapshotSeqs", executions.stream().map(WorkflowExecution::getSnapshotSeq).toArray(Integer[]::new))
+                .map(this::event)
+                .all()
+                .collect(Collectors.groupingBy(ExecutionEvent::getExecutionId))
+                .flatMapIterable(tails -> executions.stream()
+                        .map(execution -> new LoadedExecution(execution,
+                                executionJournal.restore(execution, tails.getOrDefault(execution.getId(), List.of()))))
+                        .toList());
+    }
+
+    private WorkflowExecution execution(Readable row) {
+        return WorkflowExecution.builder()
+                .id(row.get("id", UUID.class))
+                .workflowId(row.get("workflow_id", UUID.class))
+                .userId(row.get("user_id", UUID.class))
+                .status(ExecutionStatus.valueOf(row.get("status", String.class)))
+                .currentStep(row.get("current_step", Integer.class))
+                .definitionHash(row.get("definition_hash", String.class))
+                .triggerPayload(json(row.get("trigger_payload", Json.class), OBJECT_MAP))
+                .stepOutputs(json(row.get("step_outputs", Json.class), OBJECT_MAP))
+                .stepStates(json(row.get("step_states", Json.class), STRING_MAP))
+                .journalSeq(row.get("journal_seq", Integer.class))
+                .snapshotSeq(row.get("snapshot_seq", Integer.class))
+                .dispatchedContextVersion(row.get("dispatched_context_version", Integer.class))
+                .parentExecutionId(row.get("parent_execution_id", UUID.class))
+                .parentStepIndex(row.get("parent_step_index", Integer.class))
+                .parentAttempt(row.get("parent_attempt", Integer.class))
+                .depth(row.get("depth", Integer.class))
+                .createdAt(row.get("created_at", Instant.class))
+                .updatedAt(row.get("updated_at", Instant.class))
+                .build();
+    }
+
+    private ArchivedExecution archived(Readable row) {
+        return new ArchivedExecution(
+                row.get("id", UUID.class),
+                row.get("workflow_id", UUID.class),
+                row.get("user_id", UUID.class),
+                ExecutionStatus.valueOf(row.get("status", String.class)),
+                row.get("definition_hash", String.class),
+                row.get("parent_execution_id", UUID.class),
+                json(row.get("trigger_payload", Json.class), OBJECT_MAP),
+                json(row.get("step_outputs", Json.class), OBJECT_MAP),
+                json(row.get("step_states", Json.class), STRING_MAP),
+                row.get("created_at", Instant.class),
+                row.get("updated_at", Instant.class));
+    }
+
+    private ExecutionEvent event(Readable row) {
+        return ExecutionEvent.builder()
+                .executionId(row.get("execution_id", UUID.class))
+                .seq(row.get("seq", Integer.class))
+                .type(ExecutionEventType.valueOf(row.get("type", String.class)))
+                .stepIndex(row.get("step_index", Integer.class))
+                .payload(json(row.get("payload", Json.class), OBJECT_MAP))
+                .createdAt(row.get("created_at", Instant.class))
+                .persisted(true)
+                .build();
+    }
+
+    private <T> T json(Json value, TypeReference<T> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value.asArray(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable jsonb column", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.flowforge.orchestrator.repository;
+
+import com.flowforge.orchestrator.entity.WorkflowDefinitionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface WorkflowDefinitionSnapshotRepository extends JpaRepository<WorkflowDefinitionSnapshot, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}workflow_definition_snapshots (hash, actions, created_at) "
+            + "VALUES (:hash, CAST(:actions AS jsonb), now()) ON CONFLICT (hash) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("actions") String actionsJson);
+}
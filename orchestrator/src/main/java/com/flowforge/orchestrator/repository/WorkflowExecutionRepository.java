@@ -2,10 +2,14 @@ package com.flowforge.orchestrator.repository;
 
 import com.flowforge.orchestrator.entity.WorkflowExecution;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -14,4 +18,47 @@ public interface WorkflowExecutionRepository extends JpaRepository<WorkflowExecu
     Page<WorkflowExecution> findByUserId(UUID userId, Pageable pageable);
     Page<WorkflowExecution> findByUserIdAndWorkflowId(UUID userId, UUID workflowId, Pageable pageable);
     Optional<WorkflowExecution> findByIdAndUserId(UUID id, UUID userId);
+
+    // Keyset pages, newest first: the row comparison is an index range on
+    // idx_executions_user_created, so a deep page costs the same as the first one.
+    @Query(value = "SELECT * FROM {h-schema}workflow_executions WHERE user_id = :userId "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<WorkflowExecution> findFirstPage(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM {h-schema}workflow_executions WHERE user_id = :userId "
+            + "AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<WorkflowExecution> findPageAfter(@Param("userId") UUID userId, @Param("createdAt") Instant createdAt,
+                                          @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM {h-schema}workflow_executions WHERE user_id = :userId AND workflow_id = :workflowId "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<WorkflowExecution> findFirstPage(@Param("userId") UUID userId, @Param("workflowId") UUID workflowId,
+                                          @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM {h-schema}workflow_executions WHERE user_id = :userId AND workflow_id = :workflowId "
+            + "AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<WorkflowExecution> findPageAfter(@Param("userId") UUID userId, @Param("workflowId") UUID workflowId,
+                                          @Param("createdAt") Instant createdAt, @Param("id") UUID id,
+                                          @Param("limit") int limit);
+
+    /**
+     * Terminal executions created before {@code before}, locked for archival. Rows another instance
+     * is archiving are skipped; on a partitioned table only the old partitions are scanned.
+     */
+    @Query(value = "SELECT * FROM {h-schema}workflow_executions WHERE created_at < :before "
+            + "AND status IN ('COMPLETED', 'FAILED', 'CANCELLED') LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WorkflowExecution> findArchivable(@Param("before") Instant before, @Param("limit") int limit);
+
+    long countByUserId(UUID userId);
+    long countByUserIdAndWorkflowId(UUID userId, UUID workflowId);
+
+    /**
+     * Ids of PENDING and RUNNING executions after {@code after}, in id order, for paging through them
+     * without loading their rows.
+     */
+    @Query(value = "SELECT id FROM {h-schema}workflow_executions WHERE status IN ('PENDING', 'RUNNING') "
+            + "AND id > :after ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<UUID> findRunningIdsAfter(@Param("after") UUID after, @Param("limit") int limit);
 }
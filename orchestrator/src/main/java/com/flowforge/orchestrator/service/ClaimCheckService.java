@@ -0,0 +1,66 @@
+package com.flowforge.orchestrator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.blob.BlobReference;
+import com.flowforge.common.blob.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Claim-check for trigger payloads and step outputs: values whose JSON exceeds the threshold are
+ * written to the {@link BlobStore} once and replaced by a {@link BlobReference} everywhere they
+ * would otherwise be copied (execution row, journal, every execution.start message).
+ */
+@Service
+@Slf4j
+public class ClaimCheckService {
+
+    private final BlobStore blobStore;
+    private final ObjectMapper objectMapper;
+    private final int thresholdBytes;
+
+    public ClaimCheckService(BlobStore blobStore,
+                             ObjectMapper objectMapper,
+                             @Value("${app.claim-check.threshold-bytes:16384}") int thresholdBytes) {
+        this.blobStore = blobStore;
+        this.objectMapper = objectMapper;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    public Map<String, Object> offload(Map<String, Object> value) {
+        if (value == null || BlobReference.isReference(value)) {
+            return value;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Value is not serializable", e);
+        }
+        if (json.length <= thresholdBytes) {
+            return value;
+        }
+        String key = blobStore.put(json);
+        log.debug("Offloaded {} bytes to blob {}", json.length, key);
+        return BlobReference.of(key, json.length);
+    }
+
+    public Map<String, Object> resolve(Map<String, Object> value) {
+        String key = BlobReference.keyOf(value);
+        if (key == null) {
+            return value;
+        }
+        try {
+            return objectMapper.readValue(blobStore.get(key), new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + key, e);
+        }
+    }
+}
@@ -1,21 +1,48 @@
 package com.flowforge.orchestrator.service;
 
-import com.flowforge.orchestrator.client.WorkflowServiceClient;
+import com.flowforge.common.blob.BlobReference;
+import com.flowforge.orchestrator.cache.WorkflowDefinitionCache;
+import com.flowforge.orchestrator.cache.WorkflowKey;
+import com.flowforge.orchestrator.dedupe.ResultDeduplicator;
 import com.flowforge.orchestrator.dto.*;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
 import com.flowforge.orchestrator.entity.ExecutionStatus;
 import com.flowforge.orchestrator.entity.WorkflowExecution;
-import com.flowforge.orchestrator.kafka.producer.ExecutionStartProducer;
+import com.flowforge.orchestrator.expression.ExpressionContext;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.kafka.producer.ExecutionCancellationProducer;
+import com.flowforge.orchestrator.outbox.ExecutionOutbox;
+import com.flowforge.orchestrator.plan.ExecutionPlan;
+import com.flowforge.orchestrator.plan.RetryPolicy;
 import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import com.flowforge.orchestrator.state.ExecutionStateStore;
+import com.flowforge.orchestrator.stream.ExecutionUpdateBus;
+import com.flowforge.orchestrator.timer.ExecutionTimerService;
+import com.flowforge.orchestrator.timer.StepTimer;
+import com.flowforge.orchestrator.timer.TimerActions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -23,110 +50,597 @@ import java.util.UUID;
 @Slf4j
 public class OrchestrationService {
 
+    public static final String SUB_WORKFLOW = "SUB_WORKFLOW";
+    private static final String SUB_WORKFLOW_FAILED = "SUB_WORKFLOW_FAILED";
+    private static final String SUB_WORKFLOW_PENDING = "SUB_WORKFLOW_PENDING";
+
     private final WorkflowExecutionRepository executionRepository;
-    private final WorkflowServiceClient workflowServiceClient;
-    private final ExecutionStartProducer executionStartProducer;
+    private final WorkflowDefinitionCache workflowDefinitionCache;
+    private final WorkflowDefinitionSnapshotService definitionSnapshotService;
+    private final ExecutionJournal executionJournal;
+    private final ExecutionStateStore executionStateStore;
+    private final ResultDeduplicator resultDeduplicator;
+    private final ClaimCheckService claimCheckService;
+    private final ExecutionOutbox executionOutbox;
+    private final ExecutionTimerService executionTimers;
+    private final ExecutionUpdateBus executionUpdates;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.sub-workflows.max-depth:5}")
+    private int maxSubWorkflowDepth;
+
+    @Value("${app.sub-workflows.definition-lookups:5}")
+    private int maxDefinitionLookups = 5;
+
+    @Value("${app.sub-workflows.lookup-backoff:PT2S}")
+    private Duration definitionLookupBackoff = Duration.ofSeconds(2);
 
-    @Transactional
     public void startWorkflowExecution(TriggerEventDto triggerEvent) {
-        UUID workflowId = triggerEvent.getWorkflowId();
-        UUID userId = triggerEvent.getUserId();
+        startWorkflowExecutions(List.of(triggerEvent));
+    }
 
-        workflowServiceClient.getWorkflowById(workflowId, userId)
-                .doOnError(WebClientResponseException.NotFound.class, e -> {
-                    log.error("Workflow not found for id: {}. Cannot start execution.", workflowId);
-                })
-                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
-                .subscribe(workflowResponse -> {
-                    if (!workflowResponse.isEnabled()) {
-                        log.warn("Workflow {} is disabled. Skipping execution.", workflowId);
-                        return;
-                    }
+    /**
+     * Starts one execution per trigger event. Each distinct workflow in the batch is resolved once,
+     * then all executions are created in a single transaction and their first steps dispatched together.
+     * Runs on the caller's thread and returns only once the rows and their outbox entries are
+     * committed, so a Kafka listener does not commit its offset before then.
+     * <p>
+     * If a workflow could not be resolved (the workflow service failed or timed out), the triggers
+     * before the first such trigger are still started and a {@link WorkflowUnavailableException}
+     * names it, so that only it and the triggers after it are redelivered.
+     * <p>
+     * The workflows they start as sub-workflows are fetched into the cache in the same pass, so a
+     * SUB_WORKFLOW step normally finds its definition there (see {@link #prepareChild}).
+     */
+    public void startWorkflowExecutions(List<TriggerEventDto> triggerEvents) {
+        WorkflowDefinitionCache.Resolution resolution = workflowDefinitionCache.resolveWorkflows(triggerEvents.stream()
+                .map(event -> new WorkflowKey(event.getWorkflowId(), event.getUserId()))
+                .toList());
+        List<WorkflowKey> children = resolution.workflows().entrySet().stream()
+                .filter(entry -> entry.getValue().getActions() != null)
+                .flatMap(entry -> entry.getValue().getActions().stream()
+                        .filter(action -> SUB_WORKFLOW.equalsIgnoreCase(action.getType()))
+                        .flatMap(action -> childKey(action, entry.getKey().userId()).stream()))
+                .toList();
+        if (!children.isEmpty()) {
+            workflowDefinitionCache.resolveWorkflows(children);
+        }
+        int failed = 0;
+        while (failed < triggerEvents.size() && !resolution.failures().containsKey(
+                new WorkflowKey(triggerEvents.get(failed).getWorkflowId(), triggerEvents.get(failed).getUserId()))) {
+            failed++;
+        }
+        List<TriggerEventDto> resolved = triggerEvents.subList(0, failed);
+        transactionTemplate.executeWithoutResult(status -> createExecutions(resolved, resolution.workflows()));
+        if (failed < triggerEvents.size()) {
+            TriggerEventDto trigger = triggerEvents.get(failed);
+            throw new WorkflowUnavailableException(failed, resolution.failures()
+                    .get(new WorkflowKey(trigger.getWorkflowId(), trigger.getUserId())));
+        }
+    }
+
+    private void createExecutions(List<TriggerEventDto> triggerEvents, Map<WorkflowKey, WorkflowResponseDto> workflows) {
+        List<WorkflowExecution> executions = new ArrayList<>();
+        for (TriggerEventDto triggerEvent : triggerEvents) {
+            UUID workflowId = triggerEvent.getWorkflowId();
+            WorkflowResponseDto workflowResponse = workflows.get(new WorkflowKey(workflowId, triggerEvent.getUserId()));
+            if (workflowResponse == null) {
+                continue;
+            }
+            if (!workflowResponse.isEnabled()) {
+                log.warn("Workflow {} is disabled. Skipping execution.", workflowId);
+                continue;
+            }
 
-                    WorkflowExecution execution = WorkflowExecution.builder()
-                            .workflowId(workflowId)
-                            .userId(userId)
-                            .status(ExecutionStatus.PENDING)
-                            .currentStep(0)
-                            .triggerPayload(triggerEvent.getPayload())
-                            .stepOutputs(new HashMap<>())
-                            .build();
+            String definitionHash;
+            try {
+                definitionHash = definitionSnapshotService.pin(workflowResponse.getActions());
+            } catch (IllegalArgumentException e) {
+                log.error("Workflow {} has an invalid definition: {}. Skipping execution.", workflowId, e.getMessage());
+                continue;
+            }
 
-                    WorkflowExecution savedExecution = executionRepository.save(execution);
-                    log.info("Created new workflow execution: id={}", savedExecution.getId());
+            executions.add(WorkflowExecution.builder()
+                    .workflowId(workflowId)
+                    .userId(triggerEvent.getUserId())
+                    .status(ExecutionStatus.PENDING)
+                    .currentStep(0)
+                    .definitionHash(definitionHash)
+                    .triggerPayload(claimCheckService.offload(triggerEvent.getPayload()))
+                    .stepOutputs(new HashMap<>())
+                    .stepStates(new HashMap<>())
+                    .build());
+        }
+        if (executions.isEmpty()) {
+            return;
+        }
 
-                    executeStep(savedExecution, workflowResponse.getActions());
-                });
+        List<ExecutionStartDto> dispatches = new ArrayList<>();
+        for (WorkflowExecution savedExecution : executionRepository.saveAll(executions)) {
+            log.info("Created new workflow execution: id={}", savedExecution.getId());
+            ExecutionPlan plan = definitionSnapshotService.getPlan(savedExecution.getDefinitionHash());
+            executeSteps(savedExecution, ExecutionState.empty(), plan, Arrays.stream(plan.roots()).boxed().toList(), dispatches);
+        }
+        executionOutbox.enqueue(dispatches);
     }
 
     @Transactional
     public void continueWorkflowExecution(ExecutionResultDto result) {
-        WorkflowExecution execution = executionRepository.findById(result.getExecutionId())
-                .orElseThrow(() -> new IllegalStateException("WorkflowExecution not found for id: " + result.getExecutionId()));
+        continueWorkflowExecutions(List.of(result));
+    }
+
+    /**
+     * Applies a batch of step results in one transaction. Results for an execution are keyed by its
+     * id on the result topic, so they arrive on a single partition, in order. Executions of partitions
+     * this instance owns are served from {@link ExecutionStateStore}; the rest are loaded with one
+     * query, and all steps that become ready are dispatched together at the end. Redelivered results
+     * are dropped by {@link ResultDeduplicator} before anything is loaded.
+     */
+    @Transactional
+    public void continueWorkflowExecutions(List<ExecutionResultDto> results) {
+        Set<ExecutionResultDto> fresh = Collections.newSetFromMap(new IdentityHashMap<>());
+        fresh.addAll(resultDeduplicator.firstDeliveries(results.stream()
+                .filter(result -> !isCancellationSignal(result))
+                .toList()));
+        Map<UUID, ExecutionStateStore.CachedExecution> executions = load(fresh);
+        List<ExecutionStartDto> dispatches = new ArrayList<>();
+
+        for (ExecutionResultDto result : results) {
+            if (isCancellationSignal(result)) {
+                // The row is already CANCELLED; drop the cached copy so the next result reloads it.
+                executionStateStore.evict(result.getExecutionId());
+                executions.remove(result.getExecutionId());
+                executionRepository.findById(result.getExecutionId())
+                        .ifPresent(cancelled -> notifyParent(cancelled, ExecutionState.empty()));
+                continue;
+            }
+            if (!fresh.contains(result)) {
+                continue;
+            }
+
+            ExecutionStateStore.CachedExecution loaded = executions.computeIfAbsent(result.getExecutionId(), this::loadOne);
+            if (loaded == null) {
+                log.error("WorkflowExecution not found for id: {}", result.getExecutionId());
+                continue;
+            }
+            applyResult(loaded.execution(), loaded.state(), result, dispatches);
+        }
+
+        executionOutbox.enqueue(dispatches);
+    }
+
+    private static boolean isCancellationSignal(ExecutionResultDto result) {
+        return ExecutionCancellationProducer.CANCELLED_STATUS.equals(result.getStatus());
+    }
 
+    private Map<UUID, ExecutionStateStore.CachedExecution> load(Collection<ExecutionResultDto> results) {
+        Map<UUID, ExecutionStateStore.CachedExecution> executions = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>();
+        for (ExecutionResultDto result : results) {
+            UUID executionId = result.getExecutionId();
+            if (executions.containsKey(executionId) || missing.contains(executionId)) {
+                continue;
+            }
+            ExecutionStateStore.CachedExecution cached = executionStateStore.get(executionId);
+            if (cached != null) {
+                executionStateStore.evictOnRollback(executionId);
+                executions.put(executionId, cached);
+            } else {
+                missing.add(executionId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return executions;
+        }
+
+        List<WorkflowExecution> rows = executionRepository.findAllById(missing);
+        Map<UUID, ExecutionState> states = executionJournal.loadAll(rows);
+        for (WorkflowExecution execution : rows) {
+            ExecutionState state = states.get(execution.getId());
+            executionStateStore.admit(execution, state);
+            executions.put(execution.getId(), new ExecutionStateStore.CachedExecution(execution, state));
+        }
+        return executions;
+    }
+
+    private ExecutionStateStore.CachedExecution loadOne(UUID executionId) {
+        ExecutionStateStore.CachedExecution cached = executionStateStore.get(executionId);
+        if (cached != null) {
+            executionStateStore.evictOnRollback(executionId);
+            return cached;
+        }
+        return executionRepository.findById(executionId)
+                .map(execution -> {
+                    ExecutionState state = executionJournal.load(execution);
+                    executionStateStore.admit(execution, state);
+                    return new ExecutionStateStore.CachedExecution(execution, state);
+                })
+                .orElse(null);
+    }
+
+    private void applyResult(WorkflowExecution execution, ExecutionState state, ExecutionResultDto result,
+                             List<ExecutionStartDto> dispatches) {
         if (execution.getStatus() == ExecutionStatus.CANCELLED) {
             log.warn("Ignoring result for cancelled executionId {} (step {}).", result.getExecutionId(), result.getStepIndex());
             return;
         }
+        if (execution.getStatus() == ExecutionStatus.COMPLETED || execution.getStatus() == ExecutionStatus.FAILED) {
+            log.warn("Ignoring result for {} executionId {} (step {}).", execution.getStatus(), result.getExecutionId(), result.getStepIndex());
+            return;
+        }
 
+        int stepIndex = result.getStepIndex();
+        ExecutionPlan plan = planOf(execution);
+        if (plan == null) {
+            log.error("Workflow not found for id: {}. Halting execution for id: {}", execution.getWorkflowId(), execution.getId());
+            transition(execution, ExecutionStatus.FAILED);
+            persist(execution);
+            notifyParent(execution, state);
+            return;
+        }
+
+        if (ExecutionTimerService.RETRY_STATUS.equals(result.getStatus())) {
+            retryStep(execution, state, plan, stepIndex, result.getAttempt(), dispatches);
+            return;
+        }
         if (!"SUCCESS".equalsIgnoreCase(result.getStatus())) {
-            log.error("Execution step {} failed for executionId {}. Error: {}", result.getStepIndex(), result.getExecutionId(), result.getErrorMessage());
-            execution.setStatus(ExecutionStatus.FAILED);
-            executionRepository.save(execution);
+            if (!scheduleRetry(execution, state, plan.retryPolicy(stepIndex), result)) {
+                failStep(execution, state, stepIndex, result.getErrorMessage());
+            }
             return;
         }
 
-        execution.getStepOutputs().put("step_" + result.getStepIndex(), result.getOutput());
+        appendEvent(execution, state, ExecutionEventType.STEP_COMPLETED, stepIndex,
+                claimCheckService.offload(result.getOutput()));
+        execution.setCurrentStep(state.completedCount());
+        executeSteps(execution, state, plan, plan.readyAfter(stepIndex, state::isResolved), dispatches);
+    }
 
-        execution.setCurrentStep(result.getStepIndex() + 1);
-        executionRepository.save(execution);
+    private ExecutionPlan planOf(WorkflowExecution execution) {
+        if (execution.getDefinitionHash() != null) {
+            return definitionSnapshotService.getPlan(execution.getDefinitionHash());
+        }
+        // Executions started before definitions were pinned still resolve the live definition.
+        WorkflowResponseDto workflowResponse = workflowDefinitionCache
+                .getWorkflows(List.of(new WorkflowKey(execution.getWorkflowId(), execution.getUserId())))
+                .values().stream().findFirst().orElse(null);
+        return (workflowResponse == null) ? null : ExecutionPlan.compile(workflowResponse.getActions());
+    }
 
-        workflowServiceClient.getWorkflowById(execution.getWorkflowId(), execution.getUserId())
-                .doOnError(WebClientResponseException.NotFound.class, e -> {
-                    log.error("Workflow not found for id: {}. Halting execution for id: {}", execution.getWorkflowId(), execution.getId());
-                    execution.setStatus(ExecutionStatus.FAILED);
-                    executionRepository.save(execution);
-                })
-                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
-                .subscribe(workflowResponse -> executeStep(execution, workflowResponse.getActions()));
+    /**
+     * Schedules the next attempt of a failed step if its retry policy covers the error. The delay is
+     * held by {@link ExecutionTimerService}, never by a blocked thread; an upstream Retry-After
+     * longer than the backoff wins.
+     */
+    private boolean scheduleRetry(WorkflowExecution execution, ExecutionState state, RetryPolicy policy, ExecutionResultDto result) {
+        int attempt = Math.max(1, result.getAttempt());
+        if (!policy.shouldRetry(result.getErrorCode(), attempt)) {
+            return false;
+        }
+        Duration delay = policy.backoff(attempt);
+        if (result.getRetryAfterMillis() != null && result.getRetryAfterMillis() > delay.toMillis()) {
+            delay = Duration.ofMillis(result.getRetryAfterMillis());
+        }
+        int stepIndex = result.getStepIndex();
+        scheduleAttempt(execution, state, stepIndex, attempt + 1, Instant.now().plus(delay),
+                result.getErrorCode(), result.getErrorMessage());
+        persist(execution);
+        log.warn("Step {} of executionId {} failed with {} on attempt {}; retrying in {}.",
+                stepIndex, execution.getId(), result.getErrorCode(), attempt, delay);
+        return true;
+    }
+
+    private void scheduleAttempt(WorkflowExecution execution, ExecutionState state, int stepIndex, int attempt,
+                                 Instant retryAt, String errorCode, String errorMessage) {
+        Map<String, Object> retry = new HashMap<>();
+        retry.put("attempt", attempt);
+        retry.put("retryAt", retryAt.toString());
+        retry.put("errorCode", errorCode);
+        retry.put("errorMessage", errorMessage);
+        appendEvent(execution, state, ExecutionEventType.STEP_RETRY_SCHEDULED, stepIndex, retry);
+        executionTimers.schedule(List.of(new StepTimer(execution.getId(), stepIndex, attempt, StepTimer.Kind.RETRY, retryAt)));
     }
 
-    private void executeStep(WorkflowExecution execution, List<ActionDto> actions) {
+    private void retryStep(WorkflowExecution execution, ExecutionState state, ExecutionPlan plan, int stepIndex, int attempt,
+                           List<ExecutionStartDto> dispatches) {
+        if (!state.isRetryScheduled(stepIndex)) {
+            log.warn("Ignoring retry of step {} for executionId {}: no retry is pending.", stepIndex, execution.getId());
+            return;
+        }
+        dispatchSteps(execution, state, plan, List.of(stepIndex), attempt, dispatches);
+    }
+
+    /**
+     * Resolves the ready steps. A step whose dependencies were skipped (per its join) or whose
+     * condition or switch case does not hold is skipped, and a SWITCH step is evaluated in place;
+     * either way its dependents are resolved in the same pass, so only steps that really run are
+     * dispatched.
+     */
+    private void executeSteps(WorkflowExecution execution, ExecutionState state, ExecutionPlan plan, List<Integer> readySteps,
+                              List<ExecutionStartDto> dispatches) {
         if (execution.getStatus() == ExecutionStatus.CANCELLED) {
             log.warn("Execution {} is cancelled; not dispatching further steps.", execution.getId());
             return;
         }
 
-        int currentStepIndex = execution.getCurrentStep();
+        ExpressionContext context = expressionContext(execution, state);
+        Deque<Integer> ready = new ArrayDeque<>(readySteps);
+        Set<Integer> toDispatch = new LinkedHashSet<>();
+        boolean resolvedInPlace = false;
+        while (!ready.isEmpty()) {
+            int step = ready.poll();
+            if (state.hasState(step) || toDispatch.contains(step)) {
+                continue;
+            }
+            if (plan.skippedByDependencies(step, state::isCompleted)) {
+                appendEvent(execution, state, ExecutionEventType.STEP_SKIPPED, step, null);
+                log.info("Skipping step {} for executionId {}: its dependencies were skipped.", step, execution.getId());
+            } else if (!plan.shouldRun(step, context)) {
+                appendEvent(execution, state, ExecutionEventType.STEP_SKIPPED, step, null);
+                log.info("Skipping step {} for executionId {}: its condition does not hold.", step, execution.getId());
+            } else if (plan.isSwitch(step)) {
+                appendEvent(execution, state, ExecutionEventType.STEP_COMPLETED, step, plan.evaluateSwitch(step, context));
+            } else {
+                toDispatch.add(step);
+                continue;
+            }
+            resolvedInPlace = true;
+            ready.addAll(plan.readyAfter(step, state::isResolved));
+        }
+        if (resolvedInPlace) {
+            execution.setCurrentStep(state.completedCount());
+        }
 
-        if (currentStepIndex >= actions.size()) {
+        if (state.resolvedCount() >= plan.size()) {
             log.info("Workflow execution {} completed successfully.", execution.getId());
-            execution.setStatus(ExecutionStatus.COMPLETED);
-            executionRepository.save(execution);
+            transition(execution, ExecutionStatus.COMPLETED);
+            persist(execution);
+            notifyParent(execution, state);
+            return;
+        }
+
+        if (toDispatch.isEmpty()) {
+            log.debug("Execution {} is waiting on in-flight steps.", execution.getId());
+            persist(execution);
+            return;
+        }
+        dispatchSteps(execution, state, plan, List.copyOf(toDispatch), 1, dispatches);
+    }
+
+    /**
+     * Conditions read the trigger payload and step outputs as stored, resolving claim-check
+     * references only when a path walks into one.
+     */
+    private ExpressionContext expressionContext(WorkflowExecution execution, ExecutionState state) {
+        return new ExpressionContext() {
+            @Override
+            public Object root(String name) {
+                return switch (name) {
+                    case "trigger" -> execution.getTriggerPayload();
+                    case "steps" -> state.getStepOutputs();
+                    default -> null;
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object deref(Object value) {
+                return BlobReference.isReference(value) ? claimCheckService.resolve((Map<String, Object>) value) : value;
+            }
+        };
+    }
+
+    private void dispatchSteps(WorkflowExecution execution, ExecutionState state, ExecutionPlan plan, List<Integer> toDispatch,
+                               int attempt, List<ExecutionStartDto> dispatches) {
+        // Timer and sub-workflow steps are handled by the orchestrator itself; only the rest go to the executor.
+        Instant now = Instant.now();
+        List<StepTimer> timers = new ArrayList<>();
+        List<ChildRun> children = new ArrayList<>();
+        List<Integer> deferred = new ArrayList<>();
+        List<Integer> toExecutor = new ArrayList<>();
+        for (int stepIndex : toDispatch) {
+            ActionDto action = plan.action(stepIndex);
+            try {
+                if (TimerActions.isTimer(action.getType())) {
+                    timers.add(new StepTimer(execution.getId(), stepIndex, attempt, StepTimer.Kind.COMPLETE, TimerActions.fireAt(action, now)));
+                } else if (SUB_WORKFLOW.equalsIgnoreCase(action.getType())) {
+                    prepareChild(execution, stepIndex, attempt, action).ifPresentOrElse(children::add, () -> deferred.add(stepIndex));
+                } else {
+                    toExecutor.add(stepIndex);
+                }
+            } catch (IllegalArgumentException e) {
+                failStep(execution, state, stepIndex, e.getMessage());
+                return;
+            }
+        }
+
+        transition(execution, ExecutionStatus.RUNNING);
+        Map<String, Object> dispatched = (attempt > 1) ? Map.of("attempt", attempt) : null;
+        toDispatch.stream()
+                .filter(step -> !deferred.contains(step))
+                .forEach(step -> appendEvent(execution, state, ExecutionEventType.STEP_DISPATCHED, step, dispatched));
+        Instant lookupAt = now.plus(definitionLookupBackoff);
+        deferred.forEach(step -> scheduleAttempt(execution, state, step, attempt + 1, lookupAt,
+                SUB_WORKFLOW_PENDING, "Sub-workflow definition is not cached yet"));
+        executionTimers.schedule(timers);
+        timers.forEach(timer -> log.info("Step {} of executionId {} waits until {}.", timer.stepIndex(), execution.getId(), timer.fireAt()));
+        children.forEach(child -> startChild(execution, child, dispatches));
+        if (toExecutor.isEmpty()) {
+            persist(execution);
             return;
         }
 
-        execution.setStatus(ExecutionStatus.RUNNING);
-        executionRepository.save(execution);
+        // The executor caches each execution's context by version, so once it has seen a version
+        // only the outputs journaled since then are sent. Outputs already folded into the snapshot
+        // carry no sequence, so a base older than the snapshot falls back to the full context.
+        Integer baseVersion = execution.getDispatchedContextVersion();
+        int version = execution.getJournalSeq();
+        boolean sendDelta = baseVersion != null && baseVersion >= execution.getSnapshotSeq();
+        execution.setDispatchedContextVersion(version);
+        persist(execution);
 
-        ActionDto nextAction = actions.get(currentStepIndex);
+        Map<String, Object> context = null;
+        if (!sendDelta) {
+            context = new HashMap<>();
+            context.put("trigger", execution.getTriggerPayload());
+            context.put("steps", state.getStepOutputs());
+        }
+
+        for (int stepIndex : toExecutor) {
+            ActionDto nextAction = plan.action(stepIndex);
 
-        Map<String, Object> context = new HashMap<>();
-        context.put("trigger", execution.getTriggerPayload());
-        context.put("steps", execution.getStepOutputs());
+            ExecutionStartDto.ExecutionStartDtoBuilder startDto = ExecutionStartDto.builder()
+                    .executionId(execution.getId())
+                    .workflowId(execution.getWorkflowId())
+                    .userId(execution.getUserId())
+                    .stepIndex(stepIndex)
+                    .attempt(attempt)
+                    .actionType(nextAction.getType())
+                    .actionConfig(nextAction.getConfig())
+                    .contextVersion(version);
+            if (sendDelta) {
+                // Steps dispatched together share one partition; the first carries the delta.
+                startDto.contextBaseVersion(baseVersion)
+                        .contextDelta(state.outputsSince(baseVersion));
+                baseVersion = version;
+            } else {
+                startDto.context(context);
+            }
 
-        ExecutionStartDto startDto = ExecutionStartDto.builder()
-                .executionId(execution.getId())
-                .workflowId(execution.getWorkflowId())
-                .userId(execution.getUserId())
-                .stepIndex(currentStepIndex)
-                .actionType(nextAction.getType())
-                .actionConfig(nextAction.getConfig())
-                .triggerPayload(execution.getTriggerPayload())
-                .context(context)
-                .build();
+            dispatches.add(startDto.build());
+            log.info("Dispatching step {} for executionId {}.", stepIndex, execution.getId());
+        }
+    }
 
-        executionStartProducer.sendExecutionStartEvent(startDto);
-        log.info("Dispatched step {} for executionId {}.", currentStepIndex, execution.getId());
+    /**
+     * Resolves and pins the workflow a SUB_WORKFLOW step runs ({@code config.workflowId}, owned by the
+     * same user). The child's trigger payload is {@code config.input}, or the parent's trigger payload.
+     * <p>
+     * Runs inside the result transaction, so the definition is only taken from the cache. On a miss
+     * the cache fetches it in the background and this returns empty: the step is retried through the
+     * timer wheel after {@code lookup-backoff}, and fails once {@code definition-lookups} attempts found
+     * nothing (the workflow does not exist or the workflow service is down).
+     */
+    private Optional<ChildRun> prepareChild(WorkflowExecution parent, int stepIndex, int attempt, ActionDto action) {
+        Map<String, Object> config = (action.getConfig() == null) ? Map.of() : action.getConfig();
+        if (config.get("workflowId") == null) {
+            throw new IllegalArgumentException("SUB_WORKFLOW requires config.workflowId");
+        }
+        if (parent.getDepth() >= maxSubWorkflowDepth) {
+            throw new IllegalArgumentException("Sub-workflows are nested deeper than " + maxSubWorkflowDepth);
+        }
+        UUID workflowId = UUID.fromString(config.get("workflowId").toString());
+        Optional<WorkflowResponseDto> cached = workflowDefinitionCache.getCached(new WorkflowKey(workflowId, parent.getUserId()));
+        if (cached.isEmpty() && attempt < maxDefinitionLookups) {
+            log.info("Definition of sub-workflow {} is not cached; step {} of executionId {} retries in {}.",
+                    workflowId, stepIndex, parent.getId(), definitionLookupBackoff);
+            return Optional.empty();
+        }
+        WorkflowResponseDto workflow = cached.orElse(null);
+        if (workflow == null || !workflow.isEnabled()) {
+            throw new IllegalArgumentException("Sub-workflow " + workflowId + " is missing, disabled or could not be fetched");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> input = (config.get("input") instanceof Map<?, ?> given)
+                ? claimCheckService.offload((Map<String, Object>) given)
+                : parent.getTriggerPayload();
+        return Optional.of(new ChildRun(stepIndex, attempt, workflowId, definitionSnapshotService.pin(workflow.getActions()), input));
+    }
+
+    private static Optional<WorkflowKey> childKey(ActionDto action, UUID userId) {
+        Object workflowId = (action.getConfig() == null) ? null : action.getConfig().get("workflowId");
+        try {
+            return (workflowId == null) ? Optional.empty() : Optional.of(new WorkflowKey(UUID.fromString(workflowId.toString()), userId));
+        } catch (IllegalArgumentException e) {
+            // Reported by prepareChild when the step runs.
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Starts the child execution in the parent's transaction. The parent step stays DISPATCHED until
+     * the child finishes and {@link #notifyParent} sends its result, so no thread waits on it.
+     */
+    private void startChild(WorkflowExecution parent, ChildRun run, List<ExecutionStartDto> dispatches) {
+        WorkflowExecution child = executionRepository.save(WorkflowExecution.builder()
+                .workflowId(run.workflowId())
+                .userId(parent.getUserId())
+                .status(ExecutionStatus.PENDING)
+                .currentStep(0)
+                .definitionHash(run.definitionHash())
+                .triggerPayload(run.input())
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>())
+                .parentExecutionId(parent.getId())
+                .parentStepIndex(run.stepIndex())
+                .parentAttempt(run.attempt())
+                .depth(parent.getDepth() + 1)
+                .build());
+        log.info("Step {} of executionId {} started sub-workflow execution {}.", run.stepIndex(), parent.getId(), child.getId());
+        ExecutionPlan plan = definitionSnapshotService.getPlan(run.definitionHash());
+        executeSteps(child, ExecutionState.empty(), plan, Arrays.stream(plan.roots()).boxed().toList(), dispatches);
+    }
+
+    /**
+     * Resumes the parent of a finished sub-workflow execution by sending the result of the step that
+     * started it: SUCCESS with the child's step outputs, or a SUB_WORKFLOW_FAILED failure. Goes
+     * through the outbox and the result topic, so it reaches whichever instance owns the parent.
+     */
+    private void notifyParent(WorkflowExecution child, ExecutionState state) {
+        if (child.getParentExecutionId() == null) {
+            return;
+        }
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(child.getParentExecutionId());
+        result.setStepIndex(child.getParentStepIndex());
+        result.setAttempt(child.getParentAttempt() == null ? 1 : child.getParentAttempt());
+        if (child.getStatus() == ExecutionStatus.COMPLETED) {
+            Map<String, Object> output = new HashMap<>();
+            output.put("executionId", child.getId().toString());
+            output.put("steps", state.getStepOutputs());
+            result.setStatus("SUCCESS");
+            result.setOutput(output);
+        } else {
+            result.setStatus("FAILURE");
+            result.setErrorCode(SUB_WORKFLOW_FAILED);
+            result.setErrorMessage("Sub-workflow execution " + child.getId() + " ended " + child.getStatus());
+        }
+        executionOutbox.enqueueResults(List.of(result));
+    }
+
+    private void failStep(WorkflowExecution execution, ExecutionState state, int stepIndex, String errorMessage) {
+        log.error("Execution step {} failed for executionId {}. Error: {}", stepIndex, execution.getId(), errorMessage);
+        Map<String, Object> failure = new HashMap<>();
+        failure.put("errorMessage", errorMessage);
+        appendEvent(execution, state, ExecutionEventType.STEP_FAILED, stepIndex, failure);
+        transition(execution, ExecutionStatus.FAILED);
+        persist(execution);
+        notifyParent(execution, state);
+    }
+
+    private record ChildRun(int stepIndex, int attempt, UUID workflowId, String definitionHash, Map<String, Object> input) {
+    }
+
+    private void appendEvent(WorkflowExecution execution, ExecutionState state, ExecutionEventType type, int stepIndex,
+                             Map<String, Object> payload) {
+        executionJournal.append(execution, state, type, stepIndex, payload);
+        executionUpdates.publishStep(execution, type, stepIndex);
+    }
+
+    private void transition(WorkflowExecution execution, ExecutionStatus status) {
+        if (execution.getStatus() != status) {
+            execution.setStatus(status);
+            executionUpdates.publishStatus(execution);
+        }
+    }
+
+    private void persist(WorkflowExecution execution) {
+        if (!executionStateStore.contains(execution.getId())) {
+            executionRepository.save(execution);
+        } else if (execution.getStatus() == ExecutionStatus.COMPLETED || execution.getStatus() == ExecutionStatus.FAILED) {
+            executionStateStore.writeThrough(execution);
+        } else {
+            executionStateStore.writeBehind(execution);
+        }
     }
 }
@@ -0,0 +1,109 @@
+package com.flowforge.orchestrator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.flowforge.orchestrator.dto.ActionDto;
+import com.flowforge.orchestrator.entity.WorkflowDefinitionSnapshot;
+import com.flowforge.orchestrator.plan.ExecutionPlan;
+import com.flowforge.orchestrator.repository.WorkflowDefinitionSnapshotRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Pins the action list an execution starts with. Snapshots are content-addressed and never change,
+ * so their compiled {@link ExecutionPlan} can be cached for as long as memory allows.
+ * <p>
+ * A snapshot is inserted in the caller's transaction, so its hash is only remembered as stored once
+ * that commits; after a rollback the next {@code pin} inserts it again.
+ */
+@Service
+@Slf4j
+public class WorkflowDefinitionSnapshotService {
+
+    private final WorkflowDefinitionSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper canonicalMapper;
+    private final Cache<String, ExecutionPlan> plans;
+    private final Cache<String, Boolean> storedHashes;
+
+    public WorkflowDefinitionSnapshotService(WorkflowDefinitionSnapshotRepository snapshotRepository,
+                                             ObjectMapper objectMapper,
+                                             @Value("${app.definition-snapshots.cache-size:10000}") long cacheSize) {
+        this.snapshotRepository = snapshotRepository;
+        this.objectMapper = objectMapper;
+        this.canonicalMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.plans = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        this.storedHashes = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Compiles the actions, stores them once per distinct content and returns the hash to keep
+     * on the execution. Throws {@link IllegalArgumentException} for an invalid dependency graph or retry policy.
+     */
+    public String pin(List<ActionDto> actions) {
+        String json = canonicalJson(actions);
+        String hash = sha256(json);
+        if (storedHashes.getIfPresent(hash) == null) {
+            ExecutionPlan plan = ExecutionPlan.compile(actions);
+            if (snapshotRepository.insertIfAbsent(hash, json) > 0) {
+                log.info("Stored new workflow definition snapshot {}", hash);
+            }
+            plans.put(hash, plan);
+            afterCommit(() -> storedHashes.put(hash, Boolean.TRUE));
+        }
+        return hash;
+    }
+
+    public ExecutionPlan getPlan(String hash) {
+        return plans.get(hash, this::load);
+    }
+
+    private ExecutionPlan load(String hash) {
+        WorkflowDefinitionSnapshot snapshot = snapshotRepository.findById(hash)
+                .orElseThrow(() -> new IllegalStateException("Workflow definition snapshot not found: " + hash));
+        return ExecutionPlan.compile(objectMapper.convertValue(snapshot.getActions(), new TypeReference<List<ActionDto>>() {}));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String canonicalJson(List<ActionDto> actions) {
+        try {
+            return canonicalMapper.writeValueAsString(actions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Workflow actions are not serializable", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.flowforge.orchestrator.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link OrchestrationService#startWorkflowExecutions} when the workflow of a trigger could
+ * not be resolved. Executions of the triggers before {@code triggerIndex} are committed; that trigger
+ * and the ones after it are not started.
+ */
+@Getter
+public class WorkflowUnavailableException extends RuntimeException {
+
+    private final int triggerIndex;
+
+    public WorkflowUnavailableException(int triggerIndex, Throwable cause) {
+        super("Workflow of trigger " + triggerIndex + " could not be resolved", cause);
+        this.triggerIndex = triggerIndex;
+    }
+}
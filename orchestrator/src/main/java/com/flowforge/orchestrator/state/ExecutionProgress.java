@@ -0,0 +1,51 @@
+package com.flowforge.orchestrator.state;
+
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The mutable columns of a {@link WorkflowExecution} captured for a deferred row update.
+ * {@code stepOutputs}/{@code stepStates} are null when the snapshot has not moved since the last
+ * capture, so routine flushes leave the snapshot documents alone.
+ */
+public record ExecutionProgress(
+        UUID executionId,
+        ExecutionStatus status,
+        int currentStep,
+        int journalSeq,
+        int snapshotSeq,
+        Integer dispatchedContextVersion,
+        Map<String, Object> stepOutputs,
+        Map<String, String> stepStates
+) {
+
+    static ExecutionProgress of(WorkflowExecution execution, boolean includeSnapshot) {
+        return new ExecutionProgress(
+                execution.getId(),
+                execution.getStatus(),
+                execution.getCurrentStep(),
+                execution.getJournalSeq(),
+                execution.getSnapshotSeq(),
+                execution.getDispatchedContextVersion(),
+                includeSnapshot ? execution.getStepOutputs() : null,
+                includeSnapshot ? execution.getStepStates() : null);
+    }
+
+    public boolean hasSnapshot() {
+        return stepStates != null;
+    }
+
+    /**
+     * This (newer) capture, keeping a snapshot carried by an older capture it replaces.
+     */
+    ExecutionProgress supersede(ExecutionProgress older) {
+        if (hasSnapshot() || !older.hasSnapshot()) {
+            return this;
+        }
+        return new ExecutionProgress(executionId, status, currentStep, journalSeq, snapshotSeq,
+                dispatchedContextVersion, older.stepOutputs, older.stepStates);
+    }
+}
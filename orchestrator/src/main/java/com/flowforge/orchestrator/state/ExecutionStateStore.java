@@ -0,0 +1,361 @@
+package com.flowforge.orchestrator.state;
+
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.repository.ExecutionProgressWriter;
+import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory state of the running executions whose results this instance consumes.
+ * <p>
+ * Results are keyed by execution id, so each execution belongs to exactly one partition of the
+ * result topic. Entries are grouped by that partition: they are preloaded in the background once
+ * the partition is assigned and flushed and dropped when it is revoked, so only the owning instance
+ * ever holds an execution and a hit can be trusted without going back to Postgres. Until the preload
+ * reaches an execution, a miss loads it as usual.
+ * <p>
+ * Journal events are still written synchronously and remain the source of truth. Only the execution
+ * row is written behind: progress captures are queued after the transaction commits and flushed in
+ * batches. Terminal states are written through immediately. A row that lags behind its journal is
+ * repaired by {@link ExecutionJournal#load} on the next load.
+ */
+@Component
+@Slf4j
+public class ExecutionStateStore {
+
+    private static final int PRELOAD_PAGE_SIZE = 1000;
+
+    private final WorkflowExecutionRepository executionRepository;
+    private final ExecutionJournal executionJournal;
+    private final ExecutionProgressWriter progressWriter;
+    private final boolean enabled;
+    private final boolean preload;
+
+    private final Map<Integer, Map<UUID, Entry>> partitions = new ConcurrentHashMap<>();
+    private final Map<UUID, ExecutionProgress> dirty = new ConcurrentHashMap<>();
+    // Per partition being preloaded: executions evicted meanwhile, which the preload must not bring back
+    private final Map<Integer, Set<UUID>> evictedWhilePreloading = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor preloader = new ThreadPoolTaskExecutor();
+    private volatile int partitionCount;
+
+    public ExecutionStateStore(WorkflowExecutionRepository executionRepository,
+                               ExecutionJournal executionJournal,
+                               ExecutionProgressWriter progressWriter,
+                               @Value("${app.execution-state.enabled:true}") boolean enabled,
+                               @Value("${app.execution-state.preload:true}") boolean preload) {
+        this.executionRepository = executionRepository;
+        this.executionJournal = executionJournal;
+        this.progressWriter = progressWriter;
+        this.enabled = enabled;
+        this.preload = preload;
+        preloader.setCorePoolSize(1);
+        preloader.setThreadNamePrefix("execution-state-preload-");
+        preloader.initialize();
+    }
+
+    /**
+     * The cached execution and its state, or null if this instance does not hold it.
+     */
+    public CachedExecution get(UUID executionId) {
+        Map<UUID, Entry> entries = entriesFor(executionId);
+        Entry entry = (entries == null) ? null : entries.get(executionId);
+        return (entry == null) ? null : new CachedExecution(entry.execution, entry.state);
+    }
+
+    public boolean contains(UUID executionId) {
+        Map<UUID, Entry> entries = entriesFor(executionId);
+        return entries != null && entries.containsKey(executionId);
+    }
+
+    /**
+     * Caches an execution loaded from the database, once the loading transaction commits, if its
+     * partition is owned here.
+     */
+    public void admit(WorkflowExecution execution, ExecutionState state) {
+        if (isTerminal(execution.getStatus())) {
+            return;
+        }
+        afterCommit(() -> {
+            Map<UUID, Entry> entries = entriesFor(execution.getId());
+            if (entries != null) {
+                entries.put(execution.getId(), new Entry(execution, state));
+            }
+        });
+    }
+
+    /**
+     * Drops the entry if the surrounding transaction rolls back, so memory never runs ahead of the journal.
+     */
+    public void evictOnRollback(UUID executionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evict(executionId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Queues the execution row for the next flush once the current transaction commits.
+     */
+    public void writeBehind(WorkflowExecution execution) {
+        Entry entry = entry(execution.getId());
+        boolean snapshotMoved = entry == null || entry.capturedSnapshotSeq != execution.getSnapshotSeq();
+        if (entry != null) {
+            entry.capturedSnapshotSeq = execution.getSnapshotSeq();
+        }
+        ExecutionProgress progress = ExecutionProgress.of(execution, snapshotMoved);
+        afterCommit(() -> dirty.merge(progress.executionId(), progress, (older, newer) -> newer.supersede(older)));
+    }
+
+    /**
+     * Writes the execution row now, inside the current transaction, and stops holding the
+     * execution once that commits. Used for terminal states, which must not be lost.
+     */
+    public void writeThrough(WorkflowExecution execution) {
+        ExecutionProgress queued = dirty.remove(execution.getId());
+        ExecutionProgress progress = ExecutionProgress.of(execution, true);
+        progressWriter.write(List.of(queued == null ? progress : progress.supersede(queued)));
+        afterCommit(() -> evict(execution.getId()));
+    }
+
+    public void evict(UUID executionId) {
+        Map<UUID, Entry> entries = entriesFor(executionId);
+        if (entries == null) {
+            return;
+        }
+        Set<UUID> evicted = evictedWhilePreloading.get(partitionOf(executionId));
+        if (evicted == null) {
+            entries.remove(executionId);
+            return;
+        }
+        entries.compute(executionId, (id, entry) -> {
+            evicted.add(id);
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.execution-state.flush-interval:500}")
+    public void flush() {
+        flush(dirty.keySet());
+    }
+
+    /**
+     * Takes ownership of newly assigned result partitions and starts preloading their running
+     * executions off the calling (rebalance) thread. The returned future completes once the preload
+     * has finished.
+     */
+    public CompletableFuture<Void> assign(Collection<Integer> assigned, int partitionCount) {
+        if (!enabled || assigned.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (this.partitionCount != partitionCount) {
+            // Partition count changed: every key may have moved, so nothing cached is trustworthy.
+            flush();
+            partitions.clear();
+            evictedWhilePreloading.clear();
+            this.partitionCount = partitionCount;
+        }
+        Map<Integer, Map<UUID, Entry>> owned = new HashMap<>();
+        for (Integer partition : assigned) {
+            Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+            if (preload) {
+                evictedWhilePreloading.put(partition, ConcurrentHashMap.newKeySet());
+            }
+            partitions.put(partition, entries);
+            owned.put(partition, entries);
+        }
+        if (!preload) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> preload(owned, partitionCount), preloader);
+    }
+
+    /**
+     * Walks the ids of running executions page by page, and loads rows and journals only for those
+     * of {@code owned}. An entry the consumer admitted or evicted in the meantime is left alone.
+     */
+    private void preload(Map<Integer, Map<UUID, Entry>> owned, int partitionCount) {
+        int loaded = 0;
+        try {
+            List<UUID> page;
+            UUID after = new UUID(0, 0);
+            do {
+                page = executionRepository.findRunningIdsAfter(after, PRELOAD_PAGE_SIZE);
+                if (this.partitionCount != partitionCount) {
+                    return;
+                }
+                List<UUID> mine = page.stream().filter(id -> owned.containsKey(partitionOf(id))).toList();
+                if (!mine.isEmpty()) {
+                    List<WorkflowExecution> running = executionRepository.findAllById(mine).stream()
+                            .filter(execution -> !isTerminal(execution.getStatus()))
+                            .toList();
+                    Map<UUID, ExecutionState> states = executionJournal.loadAll(running);
+                    for (WorkflowExecution execution : running) {
+                        int partition = partitionOf(execution.getId());
+                        if (preloaded(partition, owned.get(partition), execution, states.get(execution.getId()))) {
+                            loaded++;
+                        }
+                    }
+                }
+                after = page.isEmpty() ? after : page.get(page.size() - 1);
+            } while (page.size() == PRELOAD_PAGE_SIZE);
+            log.info("Preloaded {} running executions for result partitions {}", loaded, owned.keySet());
+        } catch (RuntimeException e) {
+            log.error("Preloading result partitions {} failed after {} executions; the rest load on first use",
+                    owned.keySet(), loaded, e);
+        } finally {
+            owned.keySet().forEach(partition -> {
+                Set<UUID> evicted = evictedWhilePreloading.get(partition);
+                if (evicted != null && partitions.get(partition) == owned.get(partition)) {
+                    evictedWhilePreloading.remove(partition, evicted);
+                }
+            });
+        }
+    }
+
+    private boolean preloaded(int partition, Map<UUID, Entry> entries, WorkflowExecution execution, ExecutionState state) {
+        Set<UUID> evicted = evictedWhilePreloading.get(partition);
+        if (partitions.get(partition) != entries || evicted == null) {
+            return false; // Revoked, or reassigned and preloading again
+        }
+        boolean[] added = new boolean[1];
+        entries.compute(execution.getId(), (id, entry) -> {
+            if (entry != null || evicted.contains(id)) {
+                return entry;
+            }
+            added[0] = true;
+            return new Entry(execution, state);
+        });
+        return added[0];
+    }
+
+    /**
+     * Flushes and drops the executions of revoked result partitions before another instance takes them.
+     */
+    public void revoke(Collection<Integer> revoked) {
+        if (partitionCount == 0) {
+            return;
+        }
+        Set<Integer> lost = new HashSet<>(revoked);
+        flush(dirty.keySet().stream().filter(id -> lost.contains(partitionOf(id))).toList());
+        revoked.forEach(partition -> {
+            partitions.remove(partition);
+            evictedWhilePreloading.remove(partition);
+        });
+        log.info("Released result partitions {}", revoked);
+    }
+
+    /**
+     * Whether this instance consumes the result partition of the execution. Always true while the store
+     * is disabled, since partitions are then not tracked; false until partitions have been assigned.
+     */
+    public boolean ownsPartitionOf(UUID executionId) {
+        if (!enabled) {
+            return true;
+        }
+        return partitionCount != 0 && partitions.containsKey(partitionOf(executionId));
+    }
+
+    @PreDestroy
+    public void close() {
+        preloader.shutdown();
+        flush();
+    }
+
+    int partitionOf(UUID executionId) {
+        // Same as the producer's default partitioner for the String key the executor sends.
+        return Utils.toPositive(Utils.murmur2(executionId.toString().getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    private void flush(Collection<UUID> executionIds) {
+        List<ExecutionProgress> batch = new ArrayList<>();
+        for (UUID executionId : List.copyOf(executionIds)) {
+            ExecutionProgress progress = dirty.remove(executionId);
+            if (progress != null) {
+                batch.add(progress);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            progressWriter.write(batch);
+            log.debug("Flushed {} execution rows", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} execution rows; will retry", batch.size(), e);
+            batch.forEach(progress -> dirty.merge(progress.executionId(), progress, (queued, failed) -> queued.supersede(failed)));
+        }
+    }
+
+    private Entry entry(UUID executionId) {
+        Map<UUID, Entry> entries = entriesFor(executionId);
+        return (entries == null) ? null : entries.get(executionId);
+    }
+
+    private Map<UUID, Entry> entriesFor(UUID executionId) {
+        if (!enabled || partitionCount == 0) {
+            return null;
+        }
+        return partitions.get(partitionOf(executionId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean isTerminal(ExecutionStatus status) {
+        return status == ExecutionStatus.COMPLETED || status == ExecutionStatus.FAILED || status == ExecutionStatus.CANCELLED;
+    }
+
+    public record CachedExecution(WorkflowExecution execution, ExecutionState state) {
+    }
+
+    private static final class Entry {
+        private final WorkflowExecution execution;
+        private final ExecutionState state;
+        private int capturedSnapshotSeq; // Snapshot already handed to a progress capture
+
+        private Entry(WorkflowExecution execution, ExecutionState state) {
+            this.execution = execution;
+            this.state = state;
+            this.capturedSnapshotSeq = execution.getSnapshotSeq();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.flowforge.orchestrator.stream;
+
+import com.flowforge.orchestrator.dto.ExecutionUpdateDto;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.kafka.producer.ExecutionUpdateProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process bus of execution updates behind the stream endpoint.
+ * <p>
+ * Only executions somebody is watching on this instance have a sink, so emitting an update locally
+ * is a map lookup. Updates raised inside a transaction are held until it commits, then emitted
+ * locally and, with {@code fan-out} on, sent to the updates topic so subscribers connected to another
+ * instance see them too; each instance skips the copies it sent itself. The topic does not know who
+ * watches where, so with fan-out every step and status update of every execution is one Kafka record,
+ * consumed by every instance; turn it off when a single instance serves the streams. Slow subscribers drop
+ * updates rather than hold up the publisher, except the terminal status: it is kept for each
+ * subscriber until requested, so a stream that lags still ends.
+ */
+@Component
+@Slf4j
+public class ExecutionUpdateBus {
+
+    private final ExecutionUpdateProducer updateProducer;
+    private final boolean fanOut;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<UUID, Topic> topics = new ConcurrentHashMap<>();
+
+    public ExecutionUpdateBus(ExecutionUpdateProducer updateProducer,
+                              @Value("${app.execution-updates.fan-out:true}") boolean fanOut) {
+        this.updateProducer = updateProducer;
+        this.fanOut = fanOut;
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Live updates of one execution, from the moment of subscription.
+     */
+    public Flux<ExecutionUpdateDto> updates(UUID executionId) {
+        return Flux.defer(() -> {
+            Topic topic = topics.compute(executionId, (id, existing) -> {
+                Topic subscribed = (existing == null) ? new Topic() : existing;
+                subscribed.subscribers++;
+                return subscribed;
+            });
+            return Flux.merge(topic.sink.asFlux().filter(update -> !update.isTerminal()), topic.terminal.asMono()).doFinally(signal -> topics.computeIfPresent(executionId,
+                    (id, existing) -> (--existing.subscribers == 0) ? null : existing));
+        });
+    }
+
+    public void publishStatus(WorkflowExecution execution) {
+        publish(ExecutionUpdateDto.builder()
+                .type(ExecutionUpdateDto.STATUS)
+                .executionId(execution.getId())
+                .userId(execution.getUserId())
+                .status(execution.getStatus())
+                .seq(execution.getJournalSeq())
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    public void publishStep(WorkflowExecution execution, ExecutionEventType event, int stepIndex) {
+        publish(ExecutionUpdateDto.builder()
+                .type(ExecutionUpdateDto.STEP)
+                .executionId(execution.getId())
+                .userId(execution.getUserId())
+                .stepIndex(stepIndex)
+                .event(event)
+                .seq(execution.getJournalSeq())
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Delivers an update received from the updates topic; copies this instance sent are ignored.
+     */
+    public void deliverRemote(ExecutionUpdateDto update) {
+        if (!instanceId.equals(update.getInstanceId())) {
+            emit(update);
+        }
+    }
+
+    private void publish(ExecutionUpdateDto update) {
+        update.setInstanceId(instanceId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(List.of(update));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ExecutionUpdateDto> pending = (List<ExecutionUpdateDto>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<ExecutionUpdateDto> batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ExecutionUpdateBus.this);
+                    if (status == STATUS_COMMITTED) {
+                        dispatch(batch);
+                    }
+                }
+            });
+            pending = batch;
+        }
+        pending.add(update);
+    }
+
+    private void dispatch(List<ExecutionUpdateDto> updates) {
+        updates.forEach(this::emit);
+        if (fanOut) {
+            try {
+                updateProducer.sendUpdates(updates);
+            } catch (RuntimeException e) {
+                log.warn("Failed to fan out {} execution updates", updates.size(), e);
+            }
+        }
+    }
+
+    private void emit(ExecutionUpdateDto update) {
+        Topic topic = topics.get(update.getExecutionId());
+        if (topic != null) {
+            synchronized (topic) {
+                if (update.isTerminal()) {
+                    topic.terminal.tryEmitValue(update);
+                } else {
+                    topic.sink.tryEmitNext(update);
+                }
+            }
+        }
+    }
+
+    private static final class Topic {
+        private final Sinks.Many<ExecutionUpdateDto> sink = Sinks.many().multicast().directBestEffort();
+        private final Sinks.One<ExecutionUpdateDto> terminal = Sinks.one();
+        private int subscribers; // Guarded by the topics map's compute
+    }
+}
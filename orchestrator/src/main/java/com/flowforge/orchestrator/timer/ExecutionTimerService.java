@@ -0,0 +1,233 @@
+package com.flowforge.orchestrator.timer;
+
+import com.flowforge.orchestrator.dedupe.ResultKey;
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.kafka.producer.ExecutionResultProducer;
+import com.flowforge.orchestrator.repository.ExecutionTimerRepository;
+import com.flowforge.orchestrator.state.ExecutionStateStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fires DELAY / WAIT_UNTIL steps and step retries.
+ * <p>
+ * Every pending timer is a row in {@code execution_timers}, written in the transaction that
+ * dispatched its step. Timers due within {@code horizon} are also held in a
+ * {@link HierarchicalTimingWheel}, so scheduling and expiry cost O(1) however many are pending;
+ * the rest are picked up by the periodic reload, which also runs at startup and adopts timers
+ * left behind by an instance that stopped. The reload only takes timers of executions whose
+ * {@code execution.result} partition this instance owns (see {@link ExecutionStateStore}), so each
+ * instance holds its share of the wheel and instances do not race to claim the same timers; at most
+ * {@code reload-limit} are taken per reload.
+ * <p>
+ * Ticks and reloads run on the service's own two-thread scheduler: firing waits for the broker
+ * inside the claim transaction, and a slow broker must not hold up the other scheduled jobs.
+ * <p>
+ * A due timer is claimed by deleting its row and published on the result topic, where the instance
+ * owning the execution handles it: a SUCCESS result completes a timer step, a {@value #RETRY_STATUS}
+ * signal re-dispatches a failed step. Claim and publish share a transaction: if the publish fails
+ * the row stays and the timer is retried, and a crash after the publish at worst repeats a message
+ * the deduplicator drops.
+ */
+@Component
+@Slf4j
+public class ExecutionTimerService {
+
+    public static final String RETRY_STATUS = "RETRY";
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final int RELOAD_PAGE_SIZE = 1000;
+
+    private final ExecutionTimerRepository timerRepository;
+    private final ExecutionResultProducer resultProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutionStateStore stateStore;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final Duration reloadInterval;
+    private final int reloadLimit;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    private final HierarchicalTimingWheel<StepTimer> wheel;
+    private final Map<ResultKey, HierarchicalTimingWheel.Timeout<StepTimer>> pending = new HashMap<>(); // Guarded by wheel
+    private final Counter fired;
+
+    public ExecutionTimerService(ExecutionTimerRepository timerRepository,
+                                 ExecutionResultProducer resultProducer,
+                                 TransactionTemplate transactionTemplate,
+                                 ExecutionStateStore stateStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.timers.tick-interval:100}") long tickMillis,
+                                 @Value("${app.timers.wheel-size:512}") int wheelSize,
+                                 @Value("${app.timers.horizon:PT10M}") Duration horizon,
+                                 @Value("${app.timers.reload-interval:PT1M}") Duration reloadInterval,
+                                 @Value("${app.timers.reload-limit:20000}") int reloadLimit) {
+        this.timerRepository = timerRepository;
+        this.resultProducer = resultProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.stateStore = stateStore;
+        this.tickMillis = tickMillis;
+        this.horizon = horizon;
+        this.reloadInterval = reloadInterval;
+        this.reloadLimit = reloadLimit;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        this.fired = Counter.builder("flowforge.timers.fired")
+                .description("Timers fired: timer steps completed and step retries released")
+                .register(meterRegistry);
+        Gauge.builder("flowforge.timers.pending", this, service -> service.pendingCount())
+                .description("Timers held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("timers-");
+        scheduler.initialize();
+        scheduler.scheduleAtFixedRate(this::tick, Duration.ofMillis(tickMillis));
+        scheduler.scheduleWithFixedDelay(this::reload, reloadInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Records the timers in the current transaction; they are armed once it commits.
+     */
+    public void schedule(List<StepTimer> timers) {
+        if (timers.isEmpty()) {
+            return;
+        }
+        timerRepository.insert(timers);
+        afterCommit(() -> arm(timers));
+    }
+
+    public void tick() {
+        List<StepTimer> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advanceTo(System.currentTimeMillis(), timer -> {
+                pending.remove(timer.key());
+                due.add(timer);
+            });
+        }
+        if (!due.isEmpty()) {
+            fire(due);
+        }
+    }
+
+    /**
+     * Reloads on the timer scheduler, for when this instance has taken over result partitions.
+     */
+    public void reloadSoon() {
+        scheduler.execute(this::reload);
+    }
+
+    public void reload() {
+        try {
+            Instant until = Instant.now().plus(horizon);
+            List<StepTimer> upcoming = new ArrayList<>();
+            List<StepTimer> page;
+            StepTimer after = null;
+            do {
+                page = timerRepository.findDueBefore(until, after, RELOAD_PAGE_SIZE);
+                page.stream()
+                        .filter(timer -> stateStore.ownsPartitionOf(timer.executionId()))
+                        .limit(reloadLimit - upcoming.size())
+                        .forEach(upcoming::add);
+                after = page.isEmpty() ? null : page.get(page.size() - 1);
+            } while (page.size() == RELOAD_PAGE_SIZE && upcoming.size() < reloadLimit);
+            int armed = arm(upcoming);
+            if (armed > 0) {
+                log.info("Loaded {} timers due within {}", armed, horizon);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to load pending timers", e);
+        }
+    }
+
+    int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void fire(List<StepTimer> due) {
+        try {
+            List<StepTimer> claimed = transactionTemplate.execute(status -> {
+                List<StepTimer> mine = timerRepository.claim(due);
+                resultProducer.sendResults(mine.stream().map(ExecutionTimerService::completion).toList());
+                return mine;
+            });
+            int count = (claimed == null) ? 0 : claimed.size();
+            fired.increment(count);
+            log.debug("Fired {} timers ({} already fired elsewhere)", count, due.size() - count);
+        } catch (RuntimeException e) {
+            log.error("Failed to fire {} timers; retrying in {}", due.size(), RETRY_DELAY, e);
+            Instant retryAt = Instant.now().plus(RETRY_DELAY);
+            arm(due.stream().map(timer -> timer.withFireAt(retryAt)).toList());
+        }
+    }
+
+    private int arm(Collection<StepTimer> timers) {
+        long armBefore = Instant.now().plus(horizon).toEpochMilli();
+        int armed = 0;
+        synchronized (wheel) {
+            for (StepTimer timer : timers) {
+                long deadline = timer.fireAt().toEpochMilli();
+                if (deadline >= armBefore || pending.containsKey(timer.key())) {
+                    continue; // Left to a later reload, or already armed
+                }
+                pending.put(timer.key(), wheel.schedule(deadline, timer));
+                armed++;
+            }
+        }
+        return armed;
+    }
+
+    private static ExecutionResultDto completion(StepTimer timer) {
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(timer.executionId());
+        result.setStepIndex(timer.stepIndex());
+        result.setAttempt(timer.attempt());
+        if (timer.kind() == StepTimer.Kind.RETRY) {
+            result.setStatus(RETRY_STATUS);
+        } else {
+            result.setStatus("SUCCESS");
+            result.setOutput(Map.of("firedAt", Instant.now().toString()));
+        }
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
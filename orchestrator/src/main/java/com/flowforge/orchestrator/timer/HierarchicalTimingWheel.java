@@ -0,0 +1,199 @@
+package com.flowforge.orchestrator.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed hierarchical timing wheel.
+ * <p>
+ * The first level has {@code wheelSize} buckets of {@code tickMillis} each; every further level
+ * covers a whole rotation of the level below per bucket and is created on demand. A timer goes into
+ * the lowest level whose span reaches its deadline, so insertion and cancellation are O(1)
+ * regardless of how many timers are pending. When a higher-level bucket comes due its timers are
+ * redistributed into the lower levels, and a first-level bucket that comes due fires. Deadlines are
+ * honoured to within one tick.
+ * <p>
+ * Not thread-safe on its own; callers serialize access.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final Level root;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize at least 2");
+        }
+        this.root = new Level(tickMillis, wheelSize, startMillis);
+    }
+
+    /**
+     * Schedules {@code payload} to fire at {@code deadlineMillis}. A deadline that is already due
+     * fires on the next {@link #advanceTo}.
+     */
+    public Timeout<T> schedule(long deadlineMillis, T payload) {
+        Timeout<T> timeout = new Timeout<>(this, Math.max(deadlineMillis, root.currentTime), payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the clock to {@code nowMillis}, handing every timer that came due to {@code onExpire}
+     * in deadline order (to tick precision). Returns the number fired.
+     */
+    public int advanceTo(long nowMillis, Consumer<T> onExpire) {
+        int fired = 0;
+        List<Timeout<T>> due = new ArrayList<>();
+        drainCurrent(root, due);
+        fired += expireOrCascade(due, onExpire);
+
+        while (root.currentTime + root.tickMillis <= nowMillis) {
+            long time = root.currentTime + root.tickMillis;
+            for (Level level = root; level != null; level = level.overflow) {
+                long levelTime = time - (time % level.tickMillis);
+                if (levelTime == level.currentTime) {
+                    break; // this level did not cross a bucket boundary, so no level above did either
+                }
+                level.currentTime = levelTime;
+                drainCurrent(level, due);
+            }
+            fired += expireOrCascade(due, onExpire);
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long currentTime() {
+        return root.currentTime;
+    }
+
+    private int expireOrCascade(List<Timeout<T>> due, Consumer<T> onExpire) {
+        int fired = 0;
+        for (Timeout<T> timeout : due) {
+            if (timeout.deadline < root.currentTime + root.tickMillis) {
+                size--;
+                fired++;
+                onExpire.accept(timeout.payload);
+            } else {
+                place(timeout);
+            }
+        }
+        due.clear();
+        return fired;
+    }
+
+    private void drainCurrent(Level level, List<Timeout<T>> into) {
+        Bucket<T> bucket = level.bucketFor(level.currentTime);
+        for (Timeout<T> timeout = bucket.head.next; timeout != bucket.head; ) {
+            Timeout<T> next = timeout.next;
+            bucket.unlink(timeout);
+            into.add(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        Level level = root;
+        while (timeout.deadline >= level.currentTime + level.interval) {
+            if (level.overflow == null) {
+                level.overflow = new Level(level.interval, level.wheelSize, level.currentTime);
+            }
+            level = level.overflow;
+        }
+        // Due timers land in the current first-level bucket and fire on the next advance.
+        level.bucketFor(Math.max(timeout.deadline, level.currentTime)).link(timeout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private final class Level {
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket<T>[] buckets;
+        private long currentTime;
+        private Level overflow;
+
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.interval = tickMillis * wheelSize;
+            this.currentTime = startMillis - (startMillis % tickMillis);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        private Bucket<T> bucketFor(long time) {
+            return buckets[(int) ((time / tickMillis) % wheelSize)];
+        }
+    }
+
+    private static final class Bucket<T> {
+        private final Timeout<T> head = new Timeout<>(null, 0, null);
+
+        private Bucket() {
+            head.next = head;
+            head.prev = head;
+        }
+
+        private void link(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = head.prev;
+            timeout.next = head;
+            head.prev.next = timeout;
+            head.prev = timeout;
+        }
+
+        private void unlink(Timeout<T> timeout) {
+            timeout.prev.next = timeout.next;
+            timeout.next.prev = timeout.prev;
+            timeout.next = null;
+            timeout.prev = null;
+            timeout.bucket = null;
+        }
+    }
+
+    /**
+     * Handle to a scheduled timer.
+     */
+    public static final class Timeout<T> {
+        private final HierarchicalTimingWheel<T> wheel;
+        private final long deadline;
+        private final T payload;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HierarchicalTimingWheel<T> wheel, long deadline, T payload) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        /**
+         * Removes the timer if it has not fired yet. Returns whether it was pending.
+         */
+        public boolean cancel() {
+            if (bucket == null) {
+                return false;
+            }
+            bucket.unlink(this);
+            wheel.size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.flowforge.orchestrator.timer;
+
+import com.flowforge.orchestrator.dedupe.ResultKey;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A pending timer. A {@link Kind#COMPLETE} timer completes a DELAY / WAIT_UNTIL step; a
+ * {@link Kind#RETRY} timer re-dispatches a failed step as {@code attempt}.
+ */
+public record StepTimer(UUID executionId, int stepIndex, int attempt, Kind kind, Instant fireAt) {
+
+    public enum Kind {
+        COMPLETE,
+        RETRY
+    }
+
+    public StepTimer withFireAt(Instant at) {
+        return new StepTimer(executionId, stepIndex, attempt, kind, at);
+    }
+
+    public ResultKey key() {
+        return new ResultKey(executionId, stepIndex, attempt);
+    }
+}
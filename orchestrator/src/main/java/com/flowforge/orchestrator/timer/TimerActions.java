@@ -0,0 +1,58 @@
+package com.flowforge.orchestrator.timer;
+
+import com.flowforge.orchestrator.dto.ActionDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Action types the orchestrator completes itself, by timer, instead of dispatching to an executor.
+ * <ul>
+ *   <li>{@code DELAY}: waits {@code config.duration} (ISO-8601, e.g. {@code PT15M}) or {@code config.seconds}.</li>
+ *   <li>{@code WAIT_UNTIL}: waits until {@code config.until} (ISO-8601 instant).</li>
+ * </ul>
+ */
+public final class TimerActions {
+
+    public static final String DELAY = "DELAY";
+    public static final String WAIT_UNTIL = "WAIT_UNTIL";
+
+    private TimerActions() {
+    }
+
+    public static boolean isTimer(String actionType) {
+        return DELAY.equalsIgnoreCase(actionType) || WAIT_UNTIL.equalsIgnoreCase(actionType);
+    }
+
+    /**
+     * When a timer action dispatched at {@code now} fires. Throws IllegalArgumentException on a bad config.
+     */
+    public static Instant fireAt(ActionDto action, Instant now) {
+        Map<String, Object> config = (action.getConfig() == null) ? Map.of() : action.getConfig();
+        try {
+            if (WAIT_UNTIL.equalsIgnoreCase(action.getType())) {
+                Object until = config.get("until");
+                if (until == null) {
+                    throw new IllegalArgumentException("WAIT_UNTIL requires config.until");
+                }
+                return Instant.parse(until.toString());
+            }
+            Duration delay;
+            if (config.get("duration") != null) {
+                delay = Duration.parse(config.get("duration").toString());
+            } else if (config.get("seconds") instanceof Number seconds) {
+                delay = Duration.ofMillis((long) (seconds.doubleValue() * 1000));
+            } else {
+                throw new IllegalArgumentException("DELAY requires config.duration or config.seconds");
+            }
+            if (delay.isNegative()) {
+                throw new IllegalArgumentException("DELAY duration must not be negative: " + delay);
+            }
+            return now.plus(delay);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + action.getType() + " config: " + e.getMessage(), e);
+        }
+    }
+}
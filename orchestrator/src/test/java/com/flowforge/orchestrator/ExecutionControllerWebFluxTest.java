@@ -1,30 +1,47 @@
 package com.flowforge.orchestrator;
 
+import com.flowforge.orchestrator.archive.ArchivedExecution;
 import com.flowforge.orchestrator.controller.ExecutionController;
+import com.flowforge.orchestrator.dto.ExecutionCursorPageDto;
+import com.flowforge.orchestrator.dto.ExecutionUpdateDto;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
 import com.flowforge.orchestrator.entity.ExecutionStatus;
 import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.kafka.producer.ExecutionCancellationProducer;
+import com.flowforge.orchestrator.repository.ExecutionArchiveRepository;
+import com.flowforge.orchestrator.repository.ExecutionEventRepository;
+import com.flowforge.orchestrator.repository.JpaExecutionQueryRepository;
 import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import com.flowforge.orchestrator.stream.ExecutionUpdateBus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@WebFluxTest(controllers = ExecutionController.class)
+@WebFluxTest(controllers = ExecutionController.class, properties = "app.execution-updates.heartbeat=PT0.5S")
+@Import({ExecutionJournal.class, JpaExecutionQueryRepository.class})
 class ExecutionControllerWebFluxTest {
 
     @Autowired
@@ -33,6 +50,18 @@ class ExecutionControllerWebFluxTest {
     @MockBean
     private WorkflowExecutionRepository executionRepository;
 
+    @MockBean
+    private ExecutionEventRepository eventRepository;
+
+    @MockBean
+    private ExecutionCancellationProducer cancellationProducer;
+
+    @MockBean
+    private ExecutionUpdateBus executionUpdateBus;
+
+    @MockBean
+    private ExecutionArchiveRepository archiveRepository;
+
     @Test
     void listExecutionsReturnsDemoPage() {
         UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
@@ -63,6 +92,143 @@ class ExecutionControllerWebFluxTest {
                 .jsonPath("$.content[0].status").isEqualTo("PENDING");
     }
 
+    @Test
+    void cursorListingSeeksPastThePreviousPageWithoutCounting() {
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        List<WorkflowExecution> rows = List.of(
+                execution("00000000-0000-0000-0000-000000000003", userId, "2026-01-03T00:00:00Z"),
+                execution("00000000-0000-0000-0000-000000000002", userId, "2026-01-02T00:00:00Z"),
+                execution("00000000-0000-0000-0000-000000000001", userId, "2026-01-01T00:00:00Z"));
+        when(executionRepository.findFirstPage(userId, 3)).thenReturn(rows);
+        when(executionRepository.findPageAfter(userId, Instant.parse("2026-01-02T00:00:00Z"),
+                UUID.fromString("00000000-0000-0000-0000-000000000002"), 3)).thenReturn(rows.subList(2, 3));
+
+        String nextCursor = webTestClient.get()
+                .uri("/api/v1/executions/cursor?size=2")
+                .header("X-User-Id", userId.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ExecutionCursorPageDto.class)
+                .returnResult()
+                .getResponseBody()
+                .getNextCursor();
+        assertThat(nextCursor).isNotNull();
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/v1/executions/cursor").queryParam("size", 2).queryParam("cursor", nextCursor).build())
+                .header("X-User-Id", userId.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo("00000000-0000-0000-0000-000000000001")
+                .jsonPath("$.nextCursor").doesNotExist()
+                .jsonPath("$.totalElements").doesNotExist();
+        verify(executionRepository, never()).countByUserId(any());
+
+        webTestClient.get()
+                .uri("/api/v1/executions/cursor?cursor=not-a-cursor")
+                .header("X-User-Id", userId.toString())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void archivedExecutionIsServedWhenTheHotTableMisses() {
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        UUID executionId = UUID.fromString("dddddddd-dddd-dddd-dddd-dddddddddddd");
+        when(executionRepository.findByIdAndUserId(executionId, userId)).thenReturn(Optional.empty());
+        when(archiveRepository.findByIdAndUserId(executionId, userId)).thenReturn(Optional.of(new ArchivedExecution(
+                executionId, UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"), userId, ExecutionStatus.COMPLETED,
+                "hash", null, Map.of(), Map.of("step_0", Map.of("sent", true)), Map.of("step_0", "COMPLETED"),
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-01-01T00:00:05Z"))));
+
+        webTestClient.get()
+                .uri("/api/v1/executions/{id}", executionId)
+                .header("X-User-Id", userId.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("COMPLETED")
+                .jsonPath("$.stepOutputs.step_0.sent").isEqualTo(true);
+    }
+
+    @Test
+    void streamStartsWithSnapshotAndEndsWithTerminalStatus() {
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(executionId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(userId)
+                .status(ExecutionStatus.RUNNING)
+                .stepOutputs(Map.of())
+                .stepStates(Map.of("step_0", "DISPATCHED"))
+                .journalSeq(3)
+                .snapshotSeq(3)
+                .build();
+        when(executionRepository.findByIdAndUserId(executionId, userId)).thenReturn(Optional.of(running));
+        when(executionUpdateBus.updates(executionId)).thenReturn(Flux.just(
+                        ExecutionUpdateDto.builder().type(ExecutionUpdateDto.STEP).executionId(executionId) // In the snapshot
+                                .stepIndex(0).event(ExecutionEventType.STEP_DISPATCHED).seq(3).build(),
+                        ExecutionUpdateDto.builder().type(ExecutionUpdateDto.STEP).executionId(executionId)
+                                .stepIndex(0).event(ExecutionEventType.STEP_COMPLETED).seq(4).build(),
+                        ExecutionUpdateDto.builder().type(ExecutionUpdateDto.STATUS).executionId(executionId)
+                                .status(ExecutionStatus.COMPLETED).seq(4).build())
+                .delaySubscription(Duration.ofMillis(200)));
+
+        List<ExecutionUpdateDto> events = webTestClient.get()
+                .uri("/api/v1/executions/{id}/stream", executionId)
+                .header("X-User-Id", userId.toString())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ExecutionUpdateDto.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(events).extracting(ExecutionUpdateDto::getType)
+                .containsExactly(ExecutionUpdateDto.SNAPSHOT, ExecutionUpdateDto.STEP, ExecutionUpdateDto.STATUS);
+        assertThat(events.get(0).getStepStates()).containsEntry("step_0", "DISPATCHED");
+        assertThat(events.get(0).getSeq()).isEqualTo(3);
+        assertThat(events.get(1).getEvent()).isEqualTo(ExecutionEventType.STEP_COMPLETED);
+    }
+
+    @Test
+    void streamEndsAtTheNextHeartbeatWhenItsTerminalUpdateIsLost() {
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        WorkflowExecution.WorkflowExecutionBuilder execution = WorkflowExecution.builder()
+                .id(executionId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(userId)
+                .stepOutputs(Map.of())
+                .stepStates(Map.of())
+                .journalSeq(3)
+                .snapshotSeq(3);
+        when(executionRepository.findByIdAndUserId(executionId, userId)).thenReturn(
+                Optional.of(execution.status(ExecutionStatus.RUNNING).build()),
+                Optional.of(execution.status(ExecutionStatus.FAILED).build()));
+        when(executionUpdateBus.updates(executionId)).thenReturn(Flux.never());
+
+        List<ExecutionUpdateDto> events = webTestClient.get()
+                .uri("/api/v1/executions/{id}/stream", executionId)
+                .header("X-User-Id", userId.toString())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ExecutionUpdateDto.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(events).extracting(ExecutionUpdateDto::getType)
+                .containsExactly(ExecutionUpdateDto.SNAPSHOT, ExecutionUpdateDto.STATUS);
+        assertThat(events.get(1).getStatus()).isEqualTo(ExecutionStatus.FAILED);
+    }
+
     @Test
     void cancelExecutionTransitionsToCancelled() {
         UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
@@ -91,5 +257,17 @@ class ExecutionControllerWebFluxTest {
                 .expectBody()
                 .jsonPath("$.status").isEqualTo("CANCELLED");
     }
-}
 
+    private static WorkflowExecution execution(String id, UUID userId, String createdAt) {
+        return WorkflowExecution.builder()
+                .id(UUID.fromString(id))
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(userId)
+                .status(ExecutionStatus.COMPLETED)
+                .stepOutputs(Map.of())
+                .stepStates(Map.of())
+                .createdAt(Instant.parse(createdAt))
+                .updatedAt(Instant.parse(createdAt))
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.entity.ExecutionEvent;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.repository.ExecutionEventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares bytes written per step by the old whole-row rewrite against the journal.
+ * Sizes are the JSON bodies each approach sends to Postgres for the jsonb columns.
+ */
+class ExecutionJournalWriteBenchmarkTest {
+
+    private static final int SNAPSHOT_INTERVAL = 20;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void journalWritesStayConstantPerStepWhileRowRewritesGrow() throws Exception {
+        JournalBytes first = null;
+        for (int steps : new int[]{5, 20, 100}) {
+            long rewrite = rowRewriteBytes(steps) / steps;
+            JournalBytes journal = journalBytes(steps);
+            long eventsPerStep = journal.events() / steps;
+            long journalPerStep = (journal.events() + journal.snapshots()) / steps;
+
+            assertThat(journalPerStep).as("journal bytes per step at %d steps", steps).isLessThan(rewrite);
+            if (first == null) {
+                first = journal;
+            } else {
+                // Event bytes per step do not depend on how many steps came before
+                assertThat(eventsPerStep).as("event bytes per step at %d steps", steps)
+                        .isBetween(first.events() / 5 * 9 / 10, first.events() / 5 * 11 / 10);
+            }
+            if (steps == 100) {
+                assertThat(journalPerStep * 5).isLessThan(rewrite);
+            }
+        }
+    }
+
+    private record JournalBytes(long events, long snapshots) {
+    }
+
+    /** Before the journal: every step result rewrote the whole step_outputs document. */
+    private long rowRewriteBytes(int steps) throws Exception {
+        Map<String, Object> stepOutputs = new HashMap<>();
+        long bytes = 0;
+        for (int i = 0; i < steps; i++) {
+            stepOutputs.put("step_" + i, output(i));
+            bytes += objectMapper.writeValueAsBytes(stepOutputs).length;
+        }
+        return bytes;
+    }
+
+    /** With the journal: one event per dispatch and per result, plus a snapshot every interval. */
+    private JournalBytes journalBytes(int steps) throws Exception {
+        ExecutionEventRepository eventRepository = mock(ExecutionEventRepository.class);
+        long[] eventBytes = {0};
+        when(eventRepository.save(any())).thenAnswer(invocation -> {
+            ExecutionEvent event = invocation.getArgument(0);
+            eventBytes[0] += event.getPayload() == null ? 0 : objectMapper.writeValueAsBytes(event.getPayload()).length;
+            return event;
+        });
+        ExecutionJournal journal = new ExecutionJournal(eventRepository, SNAPSHOT_INTERVAL);
+
+        WorkflowExecution execution = WorkflowExecution.builder()
+                .id(UUID.randomUUID())
+                .status(ExecutionStatus.RUNNING)
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>())
+                .build();
+        ExecutionState state = ExecutionState.empty();
+
+        long snapshotBytes = 0;
+        for (int i = 0; i < steps; i++) {
+            journal.append(execution, state, ExecutionEventType.STEP_DISPATCHED, i, null);
+            int snapshotSeq = execution.getSnapshotSeq();
+            journal.append(execution, state, ExecutionEventType.STEP_COMPLETED, i, output(i));
+            if (execution.getSnapshotSeq() != snapshotSeq) {
+                snapshotBytes += objectMapper.writeValueAsBytes(execution.getStepOutputs()).length
+                        + objectMapper.writeValueAsBytes(execution.getStepStates()).length;
+            }
+        }
+        assertThat(state.completedCount()).isEqualTo(steps);
+        return new JournalBytes(eventBytes[0], snapshotBytes);
+    }
+
+    private Map<String, Object> output(int step) {
+        return Map.of("statusCode", 200, "sent", true, "updatedRange", "Sheet1!A" + step + ":F" + step,
+                "note", "x".repeat(120));
+    }
+}
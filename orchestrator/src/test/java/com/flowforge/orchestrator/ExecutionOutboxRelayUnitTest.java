@@ -0,0 +1,172 @@
+package com.flowforge.orchestrator;
+
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.dto.ExecutionStartDto;
+import com.flowforge.orchestrator.entity.ExecutionOutboxMessage;
+import com.flowforge.orchestrator.kafka.producer.ExecutionResultProducer;
+import com.flowforge.orchestrator.kafka.producer.ExecutionStartProducer;
+import com.flowforge.orchestrator.outbox.ExecutionOutbox;
+import com.flowforge.orchestrator.outbox.ExecutionOutboxRelay;
+import com.flowforge.orchestrator.repository.ExecutionOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.apache.kafka.common.errors.NotLeaderOrFollowerException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ExecutionOutboxRelayUnitTest {
+
+    private ExecutionOutboxRepository repository;
+    private ExecutionOutbox outbox;
+    private ExecutionStartProducer producer;
+    private ExecutionResultProducer resultProducer;
+    private SimpleMeterRegistry registry;
+    private ExecutionOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ExecutionOutboxRepository.class);
+        outbox = mock(ExecutionOutbox.class);
+        producer = mock(ExecutionStartProducer.class);
+        registry = new SimpleMeterRegistry();
+        resultProducer = mock(ExecutionResultProducer.class);
+        relay = new ExecutionOutboxRelay(repository, outbox, producer, resultProducer,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), registry, 2, 3, Duration.ofSeconds(1));
+        when(repository.findFirstByDeadLetteredAtIsNullOrderByCreatedAtAscIdAsc()).thenReturn(Optional.empty());
+        when(producer.send(any(ExecutionStartDto.class))).thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+        when(resultProducer.send(any(ExecutionResultDto.class))).thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void drainsFullBatchesThenStops() {
+        when(repository.claimBatch(2)).thenReturn(messages(1, 2), messages(3), List.of());
+
+        relay.relay();
+
+        verify(repository, times(2)).claimBatch(2);
+        verify(producer, times(3)).send(any(ExecutionStartDto.class));
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(registry.get("flowforge.outbox.published").counter().count()).isEqualTo(3);
+        assertThat(registry.get("flowforge.outbox.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void sendsQueuedResultsToResultTopic() {
+        UUID parentId = UUID.randomUUID();
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(parentId);
+        ExecutionOutboxMessage resultMessage = ExecutionOutboxMessage.builder()
+                .id(3L)
+                .messageKey(parentId.toString())
+                .result(result)
+                .createdAt(Instant.now())
+                .build();
+        List<ExecutionOutboxMessage> batch = new ArrayList<>(messages(1));
+        batch.add(resultMessage);
+        when(repository.claimBatch(2)).thenReturn(batch, List.of());
+
+        relay.relay();
+
+        verify(producer, times(1)).send(any(ExecutionStartDto.class));
+        verify(resultProducer).send(result);
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 3L));
+    }
+
+    @Test
+    void failedSendKeepsRowsForNextRound() {
+        List<ExecutionOutboxMessage> batch = messages(1);
+        when(repository.claimBatch(anyInt())).thenReturn(batch);
+        when(producer.send(any(ExecutionStartDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(new NotLeaderOrFollowerException("broker down")));
+
+        relay.relay();
+
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        assertThat(registry.get("flowforge.outbox.published").counter().count()).isZero();
+        assertThat(batch.get(0).getAttempts()).as("retriable failures are not counted").isZero();
+        assertThat(batch.get(0).getLastError()).contains("broker down");
+    }
+
+    @Test
+    void rejectedRowDoesNotHoldBackItsBatchAndIsDeadLetteredAfterMaxAttempts() {
+        List<ExecutionOutboxMessage> batch = messages(1, 2);
+        ExecutionOutboxMessage poisoned = batch.get(1);
+        when(repository.claimBatch(2)).thenReturn(batch, List.of(poisoned), List.of(poisoned));
+        when(producer.send(poisoned.getPayload()))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+
+        relay.relay();
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(poisoned.getAttempts()).isEqualTo(1);
+        assertThat(poisoned.getDeadLetteredAt()).isNull();
+        verify(outbox, never()).enqueueResults(any());
+
+        relay.relay();
+        relay.relay();
+
+        verify(producer, times(1)).send(batch.get(0).getPayload());
+        assertThat(poisoned.getAttempts()).isEqualTo(3);
+        assertThat(poisoned.getDeadLetteredAt()).isNotNull();
+        assertThat(registry.get("flowforge.outbox.dead_lettered").counter().count()).isEqualTo(1);
+        verify(outbox).enqueueResults(argThat(results -> results.size() == 1
+                && results.get(0).getExecutionId().equals(poisoned.getPayload().getExecutionId())
+                && results.get(0).getStepIndex() == 0
+                && results.get(0).getAttempt() == 2
+                && "FAILURE".equals(results.get(0).getStatus())
+                && ExecutionOutboxRelay.DEAD_LETTERED_ERROR_CODE.equals(results.get(0).getErrorCode())));
+    }
+
+    @Test
+    void deadLetteredReplacementIsNotReplacedAgain() {
+        ExecutionResultDto replacement = new ExecutionResultDto();
+        replacement.setExecutionId(UUID.randomUUID());
+        replacement.setStatus("FAILURE");
+        replacement.setErrorCode(ExecutionOutboxRelay.DEAD_LETTERED_ERROR_CODE);
+        ExecutionOutboxMessage message = ExecutionOutboxMessage.builder()
+                .id(1L)
+                .messageKey(replacement.getExecutionId().toString())
+                .result(replacement)
+                .attempts(2)
+                .createdAt(Instant.now())
+                .build();
+        when(repository.claimBatch(2)).thenReturn(List.of(message));
+        when(resultProducer.send(replacement))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+
+        relay.relay();
+
+        assertThat(message.getDeadLetteredAt()).isNotNull();
+        verify(outbox, never()).enqueueResults(any());
+    }
+
+    private static List<ExecutionOutboxMessage> messages(long... ids) {
+        return IntStream.range(0, ids.length)
+                .mapToObj(i -> {
+                    UUID executionId = UUID.randomUUID();
+                    return ExecutionOutboxMessage.builder()
+                            .id(ids[i])
+                            .messageKey(executionId.toString())
+                            .payload(ExecutionStartDto.builder().executionId(executionId).stepIndex(0).attempt(2).build())
+                            .createdAt(Instant.now())
+                            .build();
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,181 @@
+package com.flowforge.orchestrator;
+
+import com.flowforge.orchestrator.dto.ActionDto;
+import com.flowforge.orchestrator.expression.ExpressionContext;
+import com.flowforge.orchestrator.plan.ExecutionPlan;
+import com.flowforge.orchestrator.plan.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutionPlanUnitTest {
+
+    @Test
+    void actionsWithoutDependenciesRunSequentially() {
+        ExecutionPlan plan = ExecutionPlan.compile(List.of(
+                action(null, "SLACK_MESSAGE", null),
+                action(null, "GOOGLE_SHEET_ROW", null),
+                action(null, "SLACK_MESSAGE", null)));
+
+        assertThat(plan.roots()).containsExactly(0);
+        assertThat(plan.readyAfter(0, step -> step == 0)).containsExactly(1);
+        assertThat(plan.readyAfter(1, step -> step <= 1)).containsExactly(2);
+        assertThat(plan.readyAfter(2, step -> true)).isEmpty();
+    }
+
+    @Test
+    void independentActionsFanOutAndJoinWaitsForAllBranches() {
+        ExecutionPlan plan = ExecutionPlan.compile(List.of(
+                action("slack", "SLACK_MESSAGE", List.of()),
+                action("sheet", "GOOGLE_SHEET_ROW", List.of()),
+                action("audit", "SLACK_MESSAGE", List.of()),
+                action("summary", "SLACK_MESSAGE", List.of("slack", "sheet", "step_2"))));
+
+        assertThat(plan.roots()).containsExactly(0, 1, 2);
+
+        Set<Integer> completed = new HashSet<>();
+        completed.add(1);
+        assertThat(plan.readyAfter(1, completed::contains)).isEmpty();
+        completed.add(0);
+        assertThat(plan.readyAfter(0, completed::contains)).isEmpty();
+        completed.add(2);
+        assertThat(plan.readyAfter(2, completed::contains)).containsExactly(3);
+    }
+
+    @Test
+    void rejectsUnknownReferencesAndCycles() {
+        assertThatThrownBy(() -> ExecutionPlan.compile(List.of(action("a", "SLACK_MESSAGE", List.of("missing")))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing");
+
+        assertThatThrownBy(() -> ExecutionPlan.compile(List.of(
+                action("a", "SLACK_MESSAGE", List.of("b")),
+                action("b", "SLACK_MESSAGE", List.of("a")))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cycle");
+    }
+
+    @Test
+    void compilesRetryPoliciesAndRejectsInvalidOnes() {
+        ActionDto retried = action("a", "SLACK_MESSAGE", null);
+        retried.setConfig(Map.of("retry", Map.of("maxAttempts", 4, "backoff", "PT2S", "multiplier", 3, "jitter", 0,
+                "retryOn", List.of("http_429"))));
+        ExecutionPlan plan = ExecutionPlan.compile(List.of(retried, action("b", "SLACK_MESSAGE", null)));
+
+        RetryPolicy policy = plan.retryPolicy(0);
+        assertThat(policy.shouldRetry("HTTP_429", 3)).isTrue();
+        assertThat(policy.shouldRetry("HTTP_429", 4)).isFalse();
+        assertThat(policy.shouldRetry("HTTP_503", 1)).isFalse();
+        assertThat(policy.backoff(1)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(policy.backoff(3)).isEqualTo(Duration.ofSeconds(18));
+        assertThat(plan.retryPolicy(1)).isEqualTo(RetryPolicy.NONE);
+
+        ActionDto invalid = action("c", "SLACK_MESSAGE", null);
+        invalid.setConfig(Map.of("retry", Map.of("maxAttempts", 0)));
+        assertThatThrownBy(() -> ExecutionPlan.compile(List.of(invalid)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxAttempts");
+    }
+
+    @Test
+    void switchRunsOnlyTheMatchingCaseAndConditionsGuardSteps() {
+        ActionDto route = action("route", "SWITCH", List.of());
+        route.setConfig(Map.of("value", "trigger.tier", "cases", Map.of("gold", List.of("vip")), "default", List.of("std")));
+        ActionDto vip = action("vip", "SLACK_MESSAGE", List.of("route"));
+        ActionDto std = action("std", "SLACK_MESSAGE", List.of("route"));
+        std.setCondition("trigger.amount >= 100");
+        ExecutionPlan plan = ExecutionPlan.compile(List.of(route, vip, std));
+
+        Map<String, Object> trigger = Map.of("tier", "silver", "amount", 250);
+        Map<String, Object> steps = new HashMap<>();
+        ExpressionContext context = name -> switch (name) {
+            case "trigger" -> trigger;
+            case "steps" -> steps;
+            default -> null;
+        };
+
+        assertThat(plan.isSwitch(0)).isTrue();
+        Map<String, Object> output = plan.evaluateSwitch(0, context);
+        assertThat(output).containsEntry("value", "silver").containsEntry("case", null);
+        steps.put("step_0", output);
+        assertThat(plan.shouldRun(1, context)).isFalse();
+        assertThat(plan.shouldRun(2, context)).isTrue();
+
+        steps.put("step_0", Map.of("value", "gold", "case", "gold"));
+        assertThat(plan.shouldRun(1, context)).isTrue();
+        assertThat(plan.shouldRun(2, context)).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidConditionsAndSwitchTargetsOutsideTheSwitch() {
+        ActionDto badCondition = action("a", "SLACK_MESSAGE", null);
+        badCondition.setCondition("trigger.x ==");
+        assertThatThrownBy(() -> ExecutionPlan.compile(List.of(badCondition)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("invalid condition");
+
+        ActionDto route = action("route", "SWITCH", List.of());
+        route.setConfig(Map.of("value", "trigger.tier", "cases", Map.of("gold", List.of("other"))));
+        assertThatThrownBy(() -> ExecutionPlan.compile(List.of(route, action("other", "SLACK_MESSAGE", List.of()))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must depend on switch");
+    }
+
+    @Test
+    void skipsPropagateThroughATwoLevelBranchUpToTheJoin() {
+        ActionDto route = action("route", "SWITCH", List.of());
+        route.setConfig(Map.of("value", "trigger.tier", "cases", Map.of("gold", List.of("vip")), "default", List.of("std")));
+        ActionDto anyMerge = action("anyMerge", "SLACK_MESSAGE", List.of("vipFollowUp", "stdFollowUp"));
+        ActionDto allMerge = action("allMerge", "SLACK_MESSAGE", List.of("vipFollowUp", "stdFollowUp"));
+        allMerge.setJoin("all");
+        ExecutionPlan plan = ExecutionPlan.compile(List.of(route,
+                action("vip", "SLACK_MESSAGE", List.of("route")),
+                action("vipFollowUp", "SLACK_MESSAGE", List.of("vip")),
+                action("std", "SLACK_MESSAGE", List.of("route")),
+                action("stdFollowUp", "SLACK_MESSAGE", List.of("std")),
+                anyMerge, allMerge));
+
+        // gold selected: the vip branch ran, std was skipped by its case
+        Set<Integer> ran = Set.of(0, 1, 2);
+        assertThat(plan.skippedByDependencies(2, ran::contains)).isFalse();
+        assertThat(plan.skippedByDependencies(4, ran::contains)).isTrue();
+        assertThat(plan.skippedByDependencies(5, ran::contains)).isFalse();
+        assertThat(plan.skippedByDependencies(6, ran::contains)).isTrue();
+
+        // Neither branch ran: the any-join is skipped too
+        Set<Integer> onlyRoute = Set.of(0);
+        assertThat(plan.skippedByDependencies(5, onlyRoute::contains)).isTrue();
+        assertThat(plan.skippedByDependencies(0, onlyRoute::contains)).isFalse();
+    }
+
+    @Test
+    void sequentialActionsDoNotPropagateSkipsAndInvalidJoinsAreRejected() {
+        ExecutionPlan plan = ExecutionPlan.compile(List.of(
+                action(null, "SLACK_MESSAGE", null),
+                action(null, "SLACK_MESSAGE", null)));
+        assertThat(plan.skippedByDependencies(1, step -> false)).isFalse();
+
+        ActionDto invalid = action("a", "SLACK_MESSAGE", List.of());
+        invalid.setJoin("some");
+        assertThatThrownBy(() -> ExecutionPlan.compile(List.of(invalid)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("invalid join");
+    }
+
+    private ActionDto action(String id, String type, List<String> dependsOn) {
+        ActionDto action = new ActionDto();
+        action.setId(id);
+        action.setType(type);
+        action.setConfig(Map.of());
+        action.setDependsOn(dependsOn);
+        return action;
+    }
+}
@@ -0,0 +1,189 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.repository.ExecutionArchiveRepository;
+import com.flowforge.orchestrator.repository.ExecutionQueryRepository;
+import com.flowforge.orchestrator.repository.JpaExecutionQueryRepository;
+import com.flowforge.orchestrator.repository.R2dbcExecutionQueryRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the two execution read paths against Postgres: p50/p99 latency and peak live threads while
+ * {@value #REQUESTS} reads (alternately one execution by id and a first page of {@value #PAGE_SIZE})
+ * run {@value #CONCURRENCY} at a time. Both paths get a pool of {@value #POOL_SIZE} connections.
+ * <p>
+ * Needs Docker and runs only on request:
+ * {@code mvn -pl orchestrator test -Dtest=ExecutionQueryPathBenchmarkTest -Dbenchmark=true}.
+ * The R2DBC path runs first, so its event-loop threads are still alive while the JPA path is
+ * measured; the thread comparison errs in the R2DBC path's disfavour.
+ */
+@Slf4j
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "spring.jpa.hibernate.ddl-auto=none"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Seeded rows must be committed for R2DBC to see them
+@Import({JpaExecutionQueryRepository.class, ExecutionArchiveRepository.class, ExecutionJournal.class, JacksonAutoConfiguration.class})
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExecutionQueryPathBenchmarkTest {
+
+    private static final int EXECUTIONS = 5_000;
+    private static final int TAIL_EVENTS = 5;
+    private static final int REQUESTS = 5_000;
+    private static final int WARMUP_REQUESTS = 1_000;
+    private static final int CONCURRENCY = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int POOL_SIZE = 20;
+    private static final UUID USER = UUID.randomUUID();
+    private static final List<UUID> IDS = new ArrayList<>();
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCopyFileToContainer(MountableFile.forHostPath("../db/00_ddl.sql"), "/docker-entrypoint-initdb.d/00_ddl.sql");
+
+    private static ConnectionPool connectionPool;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private JpaExecutionQueryRepository jpaQueries;
+    @Autowired
+    private ExecutionJournal executionJournal;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> POOL_SIZE);
+    }
+
+    @BeforeAll
+    static void connectionPool() {
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                        .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                        .option(ConnectionFactoryOptions.HOST, POSTGRES.getHost())
+                        .option(ConnectionFactoryOptions.PORT, POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                        .option(ConnectionFactoryOptions.DATABASE, POSTGRES.getDatabaseName())
+                        .option(ConnectionFactoryOptions.USER, POSTGRES.getUsername())
+                        .option(ConnectionFactoryOptions.PASSWORD, POSTGRES.getPassword())
+                        .build()))
+                .maxSize(POOL_SIZE)
+                .build());
+    }
+
+    @AfterAll
+    static void closeConnectionPool() {
+        connectionPool.dispose();
+    }
+
+    @Test
+    void r2dbcPathServesTheSameLoadWithFewerThreads() {
+        seed();
+        ExecutionQueryRepository r2dbcQueries = new R2dbcExecutionQueryRepository(
+                DatabaseClient.create(connectionPool), executionJournal, new ObjectMapper(), "orchestrator");
+
+        Result r2dbc = measure(r2dbcQueries);
+        Result jpa = measure(jpaQueries);
+
+        log.info("r2dbc: p50 {} ms, p99 {} ms, peak threads {}", r2dbc.p50(), r2dbc.p99(), r2dbc.peakThreads());
+        log.info("jpa:   p50 {} ms, p99 {} ms, peak threads {}", jpa.p50(), jpa.p99(), jpa.peakThreads());
+        assertThat(r2dbc.peakThreads()).isLessThan(jpa.peakThreads());
+    }
+
+    private Result measure(ExecutionQueryRepository queries) {
+        run(queries, WARMUP_REQUESTS);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long[] latencies = run(queries, REQUESTS);
+        return new Result(percentile(latencies, 0.50), percentile(latencies, 0.99), threads.getPeakThreadCount());
+    }
+
+    private static long[] run(ExecutionQueryRepository queries, int requests) {
+        List<Long> latencies = Flux.range(0, requests)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    Flux<?> read = (i % 2 == 0)
+                            ? queries.findByIdAndUserId(IDS.get(ThreadLocalRandom.current().nextInt(IDS.size())), USER).flux()
+                            : queries.findPage(USER, null, null, PAGE_SIZE);
+                    return read.then().thenReturn((System.nanoTime() - start) / 1_000_000);
+                }, CONCURRENCY)
+                .collectList()
+                .block(Duration.ofMinutes(5));
+        assertThat(latencies).hasSize(requests);
+        return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    /**
+     * Executions with a snapshot of {@value #TAIL_EVENTS} completed steps and as many journal events
+     * after it, so every read folds a tail.
+     */
+    private void seed() {
+        Instant now = Instant.now();
+        List<Object[]> executions = new ArrayList<>(EXECUTIONS);
+        List<Object[]> events = new ArrayList<>(EXECUTIONS * TAIL_EVENTS);
+        for (int i = 0; i < EXECUTIONS; i++) {
+            UUID id = UUID.randomUUID();
+            IDS.add(id);
+            StringBuilder outputs = new StringBuilder("{");
+            StringBuilder states = new StringBuilder("{");
+            for (int step = 0; step < TAIL_EVENTS; step++) {
+                String separator = (step == 0) ? "" : ",";
+                outputs.append(separator).append("\"step_").append(step).append("\":{\"ok\":true,\"rows\":").append(step).append('}');
+                states.append(separator).append("\"step_").append(step).append("\":\"COMPLETED\"");
+                events.add(new Object[]{id, TAIL_EVENTS + step + 1, TAIL_EVENTS + step, Timestamp.from(now)});
+            }
+            Timestamp createdAt = Timestamp.from(now.minusSeconds(i));
+            executions.add(new Object[]{id, UUID.randomUUID(), USER, outputs.append('}').toString(),
+                    states.append('}').toString(), 2 * TAIL_EVENTS, TAIL_EVENTS, createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orchestrator.workflow_executions (id, workflow_id, user_id, status, current_step,"
+                + " trigger_payload, step_outputs, step_states, journal_seq, snapshot_seq, depth, created_at, updated_at)"
+                + " VALUES (?, ?, ?, 'RUNNING', 0, '{}'::jsonb, ?::jsonb, ?::jsonb, ?, ?, 0, ?, ?)", executions);
+        jdbcTemplate.batchUpdate("INSERT INTO orchestrator.execution_events (execution_id, seq, type, step_index, payload, created_at)"
+                + " VALUES (?, ?, 'STEP_COMPLETED', ?, '{\"ok\":true}'::jsonb, ?)", events);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private record Result(long p50, long p99, int peakThreads) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.concurrent.KeyedSequencer;
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.kafka.consumer.ExecutionResultConsumer;
+import com.flowforge.orchestrator.service.OrchestrationService;
+import com.flowforge.orchestrator.state.ExecutionStateStore;
+import com.flowforge.orchestrator.timer.ExecutionTimerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionResultConsumerUnitTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrchestrationService orchestrationService = mock(OrchestrationService.class);
+
+    @Test
+    void virtualThreadModeAppliesEachExecutionAsOneOrderedGroup() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<List<Integer>> applied = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<ExecutionResultDto> group = invocation.getArgument(0);
+            applied.add(group.stream().map(ExecutionResultDto::getStepIndex).toList());
+            assertThat(group).extracting(ExecutionResultDto::getExecutionId).containsOnly(group.get(0).getExecutionId());
+            return null;
+        }).when(orchestrationService).continueWorkflowExecutions(anyList());
+
+        try (KeyedSequencer sequencer = new KeyedSequencer("test", 8)) {
+            consumer(sequencer).consumeExecutionResults(List.of(
+                    message(first, 0), message(second, 0), message(first, 1), message(second, 1), message(first, 2)));
+        }
+
+        assertThat(applied).containsExactlyInAnyOrder(List.of(0, 1, 2), List.of(0, 1));
+    }
+
+    @Test
+    void virtualThreadModeReportsTheEarliestFailedPosition() throws Exception {
+        UUID healthy = UUID.randomUUID();
+        UUID broken = UUID.randomUUID();
+        doAnswer(invocation -> {
+            List<ExecutionResultDto> group = invocation.getArgument(0);
+            if (group.get(0).getExecutionId().equals(broken)) {
+                throw new IllegalStateException("batch failed");
+            }
+            return null;
+        }).when(orchestrationService).continueWorkflowExecutions(anyList());
+        doAnswer(invocation -> {
+            ExecutionResultDto result = invocation.getArgument(0);
+            if (result.getExecutionId().equals(broken) && result.getStepIndex() == 1) {
+                throw new IllegalStateException("poison");
+            }
+            return null;
+        }).when(orchestrationService).continueWorkflowExecution(any());
+
+        try (KeyedSequencer sequencer = new KeyedSequencer("test", 8)) {
+            ExecutionResultConsumer consumer = consumer(sequencer);
+            assertThatThrownBy(() -> consumer.consumeExecutionResults(List.of(
+                    message(healthy, 0), message(broken, 0), message(healthy, 1), message(broken, 1), message(healthy, 2))))
+                    .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                            e -> assertThat(e.getIndex()).isEqualTo(3));
+        }
+    }
+
+    @Test
+    void withoutSequencerTheBatchIsAppliedInOneCall() throws Exception {
+        doThrow(new IllegalStateException("unused")).when(orchestrationService).continueWorkflowExecution(any());
+        consumer(null).consumeExecutionResults(List.of(message(UUID.randomUUID(), 0), message(UUID.randomUUID(), 0)));
+        verify(orchestrationService).continueWorkflowExecutions(argThat(results -> results.size() == 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ExecutionResultConsumer consumer(KeyedSequencer sequencer) {
+        ObjectProvider<KeyedSequencer> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(sequencer);
+        return new ExecutionResultConsumer(orchestrationService, mock(ExecutionStateStore.class),
+                mock(ExecutionTimerService.class), mock(KafkaTemplate.class), objectMapper, provider);
+    }
+
+    private String message(UUID executionId, int stepIndex) throws Exception {
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(executionId);
+        result.setStepIndex(stepIndex);
+        result.setStatus("SUCCESS");
+        return objectMapper.writeValueAsString(result);
+    }
+}
@@ -0,0 +1,147 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.flowforge.common.blob.BlobStore;
+import com.flowforge.common.blob.FileSystemBlobStore;
+import com.flowforge.orchestrator.archive.BlobRetentionJob;
+import com.flowforge.orchestrator.archive.ExecutionArchiver;
+import com.flowforge.orchestrator.archive.ExecutionRetentionJob;
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.repository.BlobReferenceRepository;
+import com.flowforge.orchestrator.repository.ExecutionArchiveRepository;
+import com.flowforge.orchestrator.repository.ExecutionEventRepository;
+import com.flowforge.orchestrator.repository.ExecutionPartitionRepository;
+import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ExecutionRetentionUnitTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @TempDir
+    Path blobDir;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Test
+    void fileModeWritesFoldedExecutionsAsGzippedNdjsonBeforeDeletingThem() throws IOException {
+        WorkflowExecutionRepository executionRepository = mock(WorkflowExecutionRepository.class);
+        ExecutionArchiveRepository archiveRepository = mock(ExecutionArchiveRepository.class);
+        WorkflowExecution completed = WorkflowExecution.builder()
+                .id(UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc"))
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.COMPLETED)
+                .triggerPayload(Map.of("demo", true))
+                .stepOutputs(Map.of("step_0", Map.of("sent", true)))
+                .stepStates(Map.of("step_0", "COMPLETED"))
+                .createdAt(Instant.parse("2026-01-01T00:00:00Z"))
+                .updatedAt(Instant.parse("2026-01-01T00:01:00Z"))
+                .build();
+        when(executionRepository.findArchivable(any(), eq(500))).thenReturn(List.of(completed));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        ExecutionArchiver archiver = new ExecutionArchiver(executionRepository,
+                new ExecutionJournal(mock(ExecutionEventRepository.class), 20), archiveRepository, objectMapper,
+                transactionTemplate, "file", archiveDir, 500);
+        ReflectionTestUtils.setField(archiver, "entityManager", mock(EntityManager.class));
+
+        assertThat(archiver.archiveBatch(Instant.parse("2026-04-01T00:00:00Z"))).isEqualTo(1);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(archiveDir)) {
+            files = listing.toList();
+        }
+        assertThat(files).singleElement().satisfies(file -> assertThat(file.toString()).endsWith(".ndjson.gz"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(files.get(0))), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertThat(lines).hasSize(1);
+            JsonNode archived = objectMapper.readTree(lines.get(0));
+            assertThat(archived.get("id").asText()).isEqualTo("cccccccc-cccc-cccc-cccc-cccccccccccc");
+            assertThat(archived.get("status").asText()).isEqualTo("COMPLETED");
+            assertThat(archived.at("/stepOutputs/step_0/sent").asBoolean()).isTrue();
+        }
+        verify(archiveRepository, never()).insert(any());
+        verify(archiveRepository).deleteExecutions(List.of(completed.getId()));
+    }
+
+    @Test
+    void createsPartitionsAheadAndDropsOnlyEmptyOnesPastTheHorizon() {
+        ExecutionPartitionRepository partitions = mock(ExecutionPartitionRepository.class);
+        ExecutionArchiver archiver = mock(ExecutionArchiver.class);
+        ExecutionRetentionJob job = new ExecutionRetentionJob(partitions, archiver, transactionTemplate,
+                true, true, Duration.ofDays(90), 2, 10);
+
+        ReflectionTestUtils.invokeMethod(job, "createPartitions", YearMonth.of(2026, 10));
+        verify(partitions).createPartition(YearMonth.of(2026, 10));
+        verify(partitions).createPartition(YearMonth.of(2026, 11));
+        verify(partitions).createPartition(YearMonth.of(2026, 12));
+
+        when(partitions.partitionNames()).thenReturn(List.of("workflow_executions_default",
+                "workflow_executions_p202605", "workflow_executions_p202606", "workflow_executions_p202607"));
+        when(partitions.isEmpty(YearMonth.of(2026, 5))).thenReturn(true);
+        when(partitions.isEmpty(YearMonth.of(2026, 6))).thenReturn(false);
+        ReflectionTestUtils.invokeMethod(job, "dropEmptyPartitions", Instant.parse("2026-07-15T00:00:00Z"));
+
+        verify(partitions).dropPartition(YearMonth.of(2026, 5));
+        verify(partitions, never()).dropPartition(YearMonth.of(2026, 6));
+        // July is not entirely past the horizon yet.
+        verify(partitions, never()).isEmpty(YearMonth.of(2026, 7));
+        verify(partitions, never()).dropPartition(YearMonth.of(2026, 7));
+    }
+
+    @Test
+    void blobSweepDeletesOnlyOldUnreferencedBlobs() throws IOException {
+        BlobStore blobStore = new FileSystemBlobStore(blobDir);
+        String referenced = blobStore.put("referenced".getBytes(StandardCharsets.UTF_8));
+        String orphaned = blobStore.put("orphaned".getBytes(StandardCharsets.UTF_8));
+        String storedAgain = blobStore.put("stored again".getBytes(StandardCharsets.UTF_8));
+        String recent = blobStore.put("recent".getBytes(StandardCharsets.UTF_8));
+        Instant horizon = Instant.now().minus(Duration.ofDays(90));
+        for (String key : List.of(referenced, orphaned, storedAgain)) {
+            Files.setLastModifiedTime(blobDir.resolve(key.substring(7, 9)).resolve(key.substring(7)),
+                    FileTime.from(horizon.minus(Duration.ofDays(1))));
+        }
+        // The same bytes put again by a new execution are young again.
+        blobStore.put("stored again".getBytes(StandardCharsets.UTF_8));
+        BlobReferenceRepository references = mock(BlobReferenceRepository.class);
+        when(references.referencedKeys()).thenReturn(Set.of(referenced));
+        BlobRetentionJob job = new BlobRetentionJob(blobStore, references, true, Duration.ofDays(90));
+
+        assertThat((Integer) ReflectionTestUtils.invokeMethod(job, "sweep", horizon)).isEqualTo(1);
+
+        assertThat(blobStore.keysStoredBefore(Instant.now().plusSeconds(1)))
+                .containsExactlyInAnyOrder(referenced, storedAgain, recent);
+    }
+}
@@ -0,0 +1,61 @@
+package com.flowforge.orchestrator;
+
+import com.flowforge.orchestrator.expression.Expression;
+import com.flowforge.orchestrator.expression.ExpressionContext;
+import com.flowforge.orchestrator.expression.ExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionParserUnitTest {
+
+    private final Map<String, Object> trigger = Map.of(
+            "order", Map.of("total", 120, "currency", "EUR", "lines", List.of(Map.of("sku", "A-1"))),
+            "priority", true);
+    private final Map<String, Object> steps = Map.of("step_0", Map.of("status", "ok"));
+    private final ExpressionContext context = name -> switch (name) {
+        case "trigger" -> trigger;
+        case "steps" -> steps;
+        default -> null;
+    };
+
+    @Test
+    void evaluatesComparisonsPathsAndBooleanOperators() {
+        assertThat(test("trigger.order.total > 100")).isTrue();
+        assertThat(test("trigger.order.total <= 100.5")).isFalse();
+        assertThat(test("trigger.order.currency == 'EUR' && !(trigger.order.total < 50)")).isTrue();
+        assertThat(test("trigger.order.lines[0].sku == \"A-1\"")).isTrue();
+        assertThat(test("trigger.missing.deep == null || trigger.priority")).isTrue();
+        assertThat(test("trigger.order.lines[3].sku")).isFalse();
+        assertThat(test("trigger.order.currency != 'USD'")).isTrue();
+    }
+
+    @Test
+    void resolvesStepAliasesAtCompileTime() {
+        Expression expression = ExpressionParser.compile("steps.lookup.status == 'ok'", Map.of("lookup", "step_0"));
+
+        assertThat(expression.test(context)).isTrue();
+        assertThat(ExpressionParser.compile("steps.step_0.status", Map.of()).evaluate(context)).isEqualTo("ok");
+    }
+
+    @Test
+    void rejectsMalformedExpressionsWithPosition() {
+        assertThatThrownBy(() -> ExpressionParser.compile("trigger.a ==", Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("position 12");
+        assertThatThrownBy(() -> ExpressionParser.compile("env.HOME == 'x'", Map.of()))
+                .hasMessageContaining("Unknown root");
+        assertThatThrownBy(() -> ExpressionParser.compile("(trigger.a", Map.of()))
+                .hasMessageContaining("Expected ')'");
+        assertThatThrownBy(() -> ExpressionParser.compile("'open", Map.of()))
+                .hasMessageContaining("Unterminated");
+    }
+
+    private boolean test(String source) {
+        return ExpressionParser.compile(source, Map.of()).test(context);
+    }
+}
@@ -0,0 +1,78 @@
+package com.flowforge.orchestrator;
+
+import com.flowforge.orchestrator.timer.HierarchicalTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelUnitTest {
+
+    @Test
+    void firesEachTimerOnTheTickItIsDue() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1_000);
+        wheel.schedule(1_035, "a");
+        wheel.schedule(1_012, "b");
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(1_029, fired::add);
+        assertThat(fired).containsExactly("b");
+
+        wheel.advanceTo(1_040, fired::add);
+        assertThat(fired).containsExactly("b", "a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesTimersBeyondTheFirstLevel() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long deadline = random.nextInt(100_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> late = new ArrayList<>();
+        for (long now = 0; now <= 100_000; now += 7) {
+            long current = now;
+            wheel.advanceTo(now, deadline -> {
+                // Fires once the clock reaches the tick containing its deadline, and no later than the next advance.
+                if (deadline - deadline % 10 > current || current - deadline >= 10 + 7) {
+                    late.add(deadline);
+                }
+            });
+        }
+        assertThat(late).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 16, 5_000);
+        wheel.schedule(1_000, "overdue");
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(5_000, fired::add);
+
+        assertThat(fired).containsExactly("overdue");
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule(500, "cancelled");
+        wheel.schedule(500, "kept");
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(1_000, fired::add);
+
+        assertThat(fired).containsExactly("kept");
+    }
+}
@@ -1,30 +1,98 @@
 package com.flowforge.orchestrator;
 
-import com.flowforge.orchestrator.client.WorkflowServiceClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.common.blob.BlobStore;
+import com.flowforge.orchestrator.cache.WorkflowDefinitionCache;
+import com.flowforge.orchestrator.cache.WorkflowKey;
+import com.flowforge.orchestrator.dedupe.ResultDeduplicator;
+import com.flowforge.orchestrator.dedupe.ResultKey;
+import com.flowforge.orchestrator.dto.ActionDto;
 import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.dto.ExecutionStartDto;
+import com.flowforge.orchestrator.dto.ExecutionUpdateDto;
+import com.flowforge.orchestrator.entity.ExecutionEventType;
+import com.flowforge.orchestrator.dto.TriggerEventDto;
+import com.flowforge.orchestrator.dto.WorkflowResponseDto;
 import com.flowforge.orchestrator.entity.ExecutionStatus;
 import com.flowforge.orchestrator.entity.WorkflowExecution;
-import com.flowforge.orchestrator.kafka.producer.ExecutionStartProducer;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.kafka.producer.ExecutionUpdateProducer;
+import com.flowforge.orchestrator.outbox.ExecutionOutbox;
+import com.flowforge.orchestrator.plan.ExecutionPlan;
+import com.flowforge.orchestrator.repository.ExecutionEventRepository;
+import com.flowforge.orchestrator.repository.ExecutionProgressWriter;
+import com.flowforge.orchestrator.repository.ProcessedResultRepository;
 import com.flowforge.orchestrator.repository.WorkflowExecutionRepository;
+import com.flowforge.orchestrator.service.ClaimCheckService;
 import com.flowforge.orchestrator.service.OrchestrationService;
+import com.flowforge.orchestrator.service.WorkflowDefinitionSnapshotService;
+import com.flowforge.orchestrator.service.WorkflowUnavailableException;
+import com.flowforge.orchestrator.state.ExecutionProgress;
+import com.flowforge.orchestrator.state.ExecutionStateStore;
+import com.flowforge.orchestrator.timer.ExecutionTimerService;
+import com.flowforge.orchestrator.stream.ExecutionUpdateBus;
+import com.flowforge.orchestrator.timer.StepTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class OrchestrationServiceUnitTest {
 
+    private WorkflowExecutionRepository repository;
+    private WorkflowDefinitionCache workflowDefinitionCache;
+    private WorkflowDefinitionSnapshotService snapshotService;
+    private ExecutionOutbox outbox;
+    private ExecutionProgressWriter progressWriter;
+    private ExecutionStateStore stateStore;
+    private ExecutionTimerService timers;
+    private ExecutionUpdateBus updates;
+    private OrchestrationService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(WorkflowExecutionRepository.class);
+        workflowDefinitionCache = mock(WorkflowDefinitionCache.class);
+        snapshotService = mock(WorkflowDefinitionSnapshotService.class);
+        outbox = mock(ExecutionOutbox.class);
+        timers = mock(ExecutionTimerService.class);
+        updates = new ExecutionUpdateBus(mock(ExecutionUpdateProducer.class), false);
+        ExecutionJournal journal = new ExecutionJournal(mock(ExecutionEventRepository.class), 20);
+        ClaimCheckService claimCheckService = new ClaimCheckService(mock(BlobStore.class), new ObjectMapper(), 16384);
+        progressWriter = mock(ExecutionProgressWriter.class);
+        stateStore = new ExecutionStateStore(repository, journal, progressWriter, true, true);
+        ProcessedResultRepository processedResults = mock(ProcessedResultRepository.class);
+        when(processedResults.claim(any())).thenAnswer(invocation -> new HashSet<>(invocation.<Collection<ResultKey>>getArgument(0)));
+        ResultDeduplicator deduplicator = new ResultDeduplicator(processedResults, new SimpleMeterRegistry(), 1000, Duration.ofDays(7));
+        service = new OrchestrationService(repository, workflowDefinitionCache, snapshotService, journal,
+                stateStore, deduplicator, claimCheckService, outbox, timers, updates, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "maxSubWorkflowDepth", 5);
+    }
+
     @Test
     void cancelledExecutionIgnoresIncomingResults() {
-        WorkflowExecutionRepository repository = mock(WorkflowExecutionRepository.class);
-        WorkflowServiceClient workflowServiceClient = mock(WorkflowServiceClient.class);
-        ExecutionStartProducer producer = mock(ExecutionStartProducer.class);
-        OrchestrationService service = new OrchestrationService(repository, workflowServiceClient, producer);
-
         UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
         UUID workflowId = UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb");
         UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
@@ -39,7 +107,7 @@ class OrchestrationServiceUnitTest {
                 .stepOutputs(Map.of())
                 .build();
 
-        when(repository.findById(executionId)).thenReturn(Optional.of(cancelled));
+        when(repository.findAllById(any())).thenReturn(List.of(cancelled));
 
         ExecutionResultDto result = new ExecutionResultDto();
         result.setExecutionId(executionId);
@@ -51,10 +119,641 @@ class OrchestrationServiceUnitTest {
 
         service.continueWorkflowExecution(result);
 
-        verify(repository, times(1)).findById(executionId);
+        verify(repository, times(1)).findAllById(Set.of(executionId));
         verify(repository, never()).save(any());
-        verifyNoInteractions(workflowServiceClient);
-        verifyNoInteractions(producer);
+        verifyNoInteractions(workflowDefinitionCache);
+        verify(outbox).enqueue(List.of());
     }
-}
 
+    @Test
+    void pinnedExecutionDispatchesNextStepWithoutFetchingDefinition() {
+        UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(executionId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .currentStep(0)
+                .definitionHash("abc123")
+                .triggerPayload(Map.of())
+                .stepOutputs(new HashMap<>())
+                .dispatchedContextVersion(0)
+                .build();
+
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        first.setConfig(Map.of("webhookUrl", "https://example.com"));
+        ActionDto second = new ActionDto();
+        second.setType("GOOGLE_SHEET_ROW");
+        second.setConfig(Map.of("spreadsheetId", "sheet"));
+
+        when(repository.findAllById(any())).thenReturn(List.of(running));
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(first, second)));
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(executionId);
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        result.setOutput(Map.of("sent", true));
+
+        service.continueWorkflowExecution(result);
+
+        ExecutionStartDto dispatched = singleDispatch();
+        assertThat(dispatched.getStepIndex()).isEqualTo(1);
+        assertThat(dispatched.getActionType()).isEqualTo("GOOGLE_SHEET_ROW");
+        assertThat(dispatched.getContext()).isNull();
+        assertThat(dispatched.getContextBaseVersion()).isZero();
+        assertThat(dispatched.getContextDelta()).isEqualTo(Map.of("step_0", Map.of("sent", true)));
+        verifyNoInteractions(workflowDefinitionCache);
+    }
+
+    @Test
+    void ownedExecutionIsServedFromMemoryAndWrittenBehind() {
+        UUID executionId = UUID.fromString("dddddddd-dddd-dddd-dddd-dddddddddddd");
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(executionId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .currentStep(0)
+                .definitionHash("abc123")
+                .triggerPayload(Map.of())
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        ActionDto second = new ActionDto();
+        second.setType("SLACK_MESSAGE");
+
+        when(repository.findRunningIdsAfter(any(), anyInt())).thenReturn(List.of(executionId));
+        when(repository.findAllById(List.of(executionId))).thenReturn(List.of(running));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(first, second)));
+        stateStore.assign(List.of(0), 1).join();
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(executionId);
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        result.setOutput(Map.of("sent", true));
+        service.continueWorkflowExecution(result);
+
+        verify(repository, times(1)).findAllById(any()); // By the preload only
+        verify(repository, never()).save(any());
+        assertThat(singleDispatch().getStepIndex()).isEqualTo(1);
+        verifyNoInteractions(progressWriter);
+
+        stateStore.flush();
+        ArgumentCaptor<List<ExecutionProgress>> flushed = ArgumentCaptor.forClass(List.class);
+        verify(progressWriter).write(flushed.capture());
+        assertThat(flushed.getValue()).singleElement().satisfies(progress -> {
+            assertThat(progress.journalSeq()).isEqualTo(2);
+            assertThat(progress.currentStep()).isEqualTo(1);
+            assertThat(progress.hasSnapshot()).isFalse();
+        });
+    }
+
+    @Test
+    void preloadDoesNotBringBackAnExecutionEvictedWhileItRuns() {
+        UUID executionId = UUID.fromString("eeeeeeee-eeee-eeee-eeee-eeeeeeeeeeee");
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(executionId)
+                .status(ExecutionStatus.RUNNING)
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>())
+                .build();
+        when(repository.findRunningIdsAfter(any(), anyInt())).thenReturn(List.of(executionId));
+        when(repository.findAllById(List.of(executionId))).thenAnswer(invocation -> {
+            stateStore.evict(executionId); // The consumer finished it after the preload read its id
+            return List.of(running);
+        });
+
+        stateStore.assign(List.of(0), 1).join();
+
+        assertThat(stateStore.contains(executionId)).isFalse();
+        assertThat(stateStore.ownsPartitionOf(executionId)).isTrue();
+    }
+
+    @Test
+    void batchOfResultsLoadsRowsOnceAndDispatchesTogether() {
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        ActionDto second = new ActionDto();
+        second.setType("SLACK_MESSAGE");
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(first, second)));
+
+        List<WorkflowExecution> rows = new ArrayList<>();
+        List<ExecutionResultDto> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID executionId = UUID.randomUUID();
+            rows.add(WorkflowExecution.builder()
+                    .id(executionId)
+                    .workflowId(UUID.randomUUID())
+                    .userId(UUID.randomUUID())
+                    .status(ExecutionStatus.RUNNING)
+                    .definitionHash("abc123")
+                    .stepOutputs(new HashMap<>())
+                    .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                    .build());
+            ExecutionResultDto result = new ExecutionResultDto();
+            result.setExecutionId(executionId);
+            result.setStepIndex(0);
+            result.setStatus("SUCCESS");
+            results.add(result);
+        }
+        when(repository.findAllById(any())).thenReturn(rows);
+
+        service.continueWorkflowExecutions(results);
+
+        verify(repository, times(1)).findAllById(any());
+        verify(repository, never()).findById(any());
+        ArgumentCaptor<List<ExecutionStartDto>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(outbox, times(1)).enqueue(dispatched.capture());
+        assertThat(dispatched.getValue()).hasSize(3).allSatisfy(start -> assertThat(start.getStepIndex()).isEqualTo(1));
+    }
+
+    @Test
+    void triggerBatchIsCommittedAndDispatchedBeforeReturning() {
+        UUID workflowId = UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb");
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        ActionDto action = new ActionDto();
+        action.setType("SLACK_MESSAGE");
+        WorkflowResponseDto workflow = new WorkflowResponseDto();
+        workflow.setId(workflowId);
+        workflow.setUserId(userId);
+        workflow.setEnabled(true);
+        workflow.setActions(List.of(action));
+
+        when(workflowDefinitionCache.resolveWorkflows(any())).thenReturn(
+                new WorkflowDefinitionCache.Resolution(Map.of(new WorkflowKey(workflowId, userId), workflow), Map.of()));
+        when(snapshotService.pin(any())).thenReturn("abc123");
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(action)));
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<WorkflowExecution> executions = invocation.getArgument(0);
+            executions.forEach(execution -> execution.setId(UUID.randomUUID()));
+            return executions;
+        });
+
+        List<TriggerEventDto> triggers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            TriggerEventDto trigger = new TriggerEventDto();
+            trigger.setWorkflowId(workflowId);
+            trigger.setUserId(userId);
+            trigger.setPayload(Map.of("n", i));
+            triggers.add(trigger);
+        }
+
+        service.startWorkflowExecutions(triggers);
+
+        verify(workflowDefinitionCache, times(1)).resolveWorkflows(List.of(new WorkflowKey(workflowId, userId), new WorkflowKey(workflowId, userId)));
+        verify(repository, times(1)).saveAll(any());
+        ArgumentCaptor<List<ExecutionStartDto>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(outbox, times(1)).enqueue(dispatched.capture());
+        assertThat(dispatched.getValue()).hasSize(2);
+    }
+
+    @Test
+    void triggersBeforeAnUnresolvableWorkflowAreStartedAndTheRestRedelivered() {
+        UUID workflowId = UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb");
+        UUID downWorkflowId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        ActionDto action = new ActionDto();
+        action.setType("SLACK_MESSAGE");
+        WorkflowResponseDto workflow = new WorkflowResponseDto();
+        workflow.setId(workflowId);
+        workflow.setUserId(userId);
+        workflow.setEnabled(true);
+        workflow.setActions(List.of(action));
+
+        RuntimeException outage = new IllegalStateException("503 from workflow service");
+        when(workflowDefinitionCache.resolveWorkflows(any())).thenReturn(new WorkflowDefinitionCache.Resolution(
+                Map.of(new WorkflowKey(workflowId, userId), workflow), Map.of(new WorkflowKey(downWorkflowId, userId), outage)));
+        when(snapshotService.pin(any())).thenReturn("abc123");
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(action)));
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<WorkflowExecution> executions = invocation.getArgument(0);
+            executions.forEach(execution -> execution.setId(UUID.randomUUID()));
+            return executions;
+        });
+
+        List<TriggerEventDto> triggers = new ArrayList<>();
+        for (UUID id : List.of(workflowId, workflowId, downWorkflowId, workflowId)) {
+            TriggerEventDto trigger = new TriggerEventDto();
+            trigger.setWorkflowId(id);
+            trigger.setUserId(userId);
+            triggers.add(trigger);
+        }
+
+        assertThatThrownBy(() -> service.startWorkflowExecutions(triggers))
+                .isInstanceOfSatisfying(WorkflowUnavailableException.class, e -> {
+                    assertThat(e.getTriggerIndex()).isEqualTo(2);
+                    assertThat(e.getCause()).isSameAs(outage);
+                });
+        ArgumentCaptor<List<ExecutionStartDto>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(outbox, times(1)).enqueue(dispatched.capture());
+        assertThat(dispatched.getValue()).hasSize(2);
+    }
+
+    @Test
+    void delayStepIsScheduledAsTimerInsteadOfDispatched() {
+        UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(executionId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("abc123")
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .dispatchedContextVersion(0)
+                .build();
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        ActionDto delay = new ActionDto();
+        delay.setType("DELAY");
+        delay.setConfig(Map.of("duration", "PT15M"));
+        when(repository.findAllById(any())).thenReturn(List.of(running));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(first, delay)));
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(executionId);
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        Instant before = Instant.now();
+        service.continueWorkflowExecution(result);
+
+        ArgumentCaptor<List<StepTimer>> scheduled = ArgumentCaptor.forClass(List.class);
+        verify(timers).schedule(scheduled.capture());
+        assertThat(scheduled.getValue()).singleElement().satisfies(timer -> {
+            assertThat(timer.stepIndex()).isEqualTo(1);
+            assertThat(timer.fireAt()).isAfterOrEqualTo(before.plus(Duration.ofMinutes(15)));
+        });
+        verify(outbox).enqueue(List.of());
+        // No executor saw the new version, so the next dispatch still sends the delta from version 0.
+        assertThat(running.getDispatchedContextVersion()).isZero();
+        assertThat(running.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+    }
+
+    @Test
+    void invalidTimerConfigFailsTheStep() {
+        UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(executionId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("abc123")
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        ActionDto waitUntil = new ActionDto();
+        waitUntil.setType("WAIT_UNTIL");
+        waitUntil.setConfig(Map.of("until", "tomorrow"));
+        when(repository.findAllById(any())).thenReturn(List.of(running));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(first, waitUntil)));
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(executionId);
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        service.continueWorkflowExecution(result);
+
+        assertThat(running.getStatus()).isEqualTo(ExecutionStatus.FAILED);
+        verify(timers, never()).schedule(any());
+    }
+
+    @Test
+    void retryableFailureSchedulesNextAttemptInsteadOfFailing() {
+        WorkflowExecution running = runningWithRetryableStep();
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(running.getId());
+        result.setStepIndex(0);
+        result.setAttempt(1);
+        result.setStatus("FAILURE");
+        result.setErrorCode("HTTP_503");
+        result.setRetryAfterMillis(60_000L);
+        Instant before = Instant.now();
+        service.continueWorkflowExecution(result);
+
+        assertThat(running.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+        ArgumentCaptor<List<StepTimer>> scheduled = ArgumentCaptor.forClass(List.class);
+        verify(timers).schedule(scheduled.capture());
+        assertThat(scheduled.getValue()).singleElement().satisfies(timer -> {
+            assertThat(timer.kind()).isEqualTo(StepTimer.Kind.RETRY);
+            assertThat(timer.attempt()).isEqualTo(2);
+            // Retry-After outweighs the 1s backoff.
+            assertThat(timer.fireAt()).isAfterOrEqualTo(before.plusSeconds(60));
+        });
+        verify(outbox).enqueue(List.of());
+    }
+
+    @Test
+    void retrySignalRedispatchesStepWithNextAttempt() {
+        WorkflowExecution running = runningWithRetryableStep();
+        running.setStepStates(new HashMap<>(Map.of("step_0", "RETRY_SCHEDULED")));
+
+        ExecutionResultDto signal = new ExecutionResultDto();
+        signal.setExecutionId(running.getId());
+        signal.setStepIndex(0);
+        signal.setAttempt(2);
+        signal.setStatus(ExecutionTimerService.RETRY_STATUS);
+        service.continueWorkflowExecution(signal);
+
+        ExecutionStartDto dispatched = singleDispatch();
+        assertThat(dispatched.getStepIndex()).isZero();
+        assertThat(dispatched.getAttempt()).isEqualTo(2);
+    }
+
+    @Test
+    void failureOutsideRetryPolicyFailsExecutionAndNotifiesStreams() {
+        WorkflowExecution running = runningWithRetryableStep();
+        List<ExecutionUpdateDto> streamed = new ArrayList<>();
+        Disposable stream = updates.updates(running.getId()).subscribe(streamed::add);
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(running.getId());
+        result.setStepIndex(0);
+        result.setAttempt(1);
+        result.setStatus("FAILURE");
+        result.setErrorCode("HTTP_400");
+        service.continueWorkflowExecution(result);
+
+        assertThat(running.getStatus()).isEqualTo(ExecutionStatus.FAILED);
+        verify(timers, never()).schedule(any());
+        assertThat(streamed).extracting(ExecutionUpdateDto::getType, ExecutionUpdateDto::getEvent, ExecutionUpdateDto::getStatus)
+                .containsExactly(tuple(ExecutionUpdateDto.STEP, ExecutionEventType.STEP_FAILED, null),
+                        tuple(ExecutionUpdateDto.STATUS, null, ExecutionStatus.FAILED));
+        stream.dispose();
+    }
+
+    @Test
+    void subWorkflowStepStartsLinkedChildAndDispatchesItsFirstStep() {
+        UUID parentId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        UUID childWorkflowId = UUID.fromString("eeeeeeee-eeee-eeee-eeee-eeeeeeeeeeee");
+        UUID childId = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+        WorkflowExecution parent = WorkflowExecution.builder()
+                .id(parentId)
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(userId)
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("parent")
+                .triggerPayload(Map.of("order", 7))
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        ActionDto sub = new ActionDto();
+        sub.setType("SUB_WORKFLOW");
+        sub.setConfig(Map.of("workflowId", childWorkflowId.toString()));
+        ActionDto childAction = new ActionDto();
+        childAction.setType("GOOGLE_SHEET_ROW");
+        WorkflowResponseDto childWorkflow = new WorkflowResponseDto();
+        childWorkflow.setId(childWorkflowId);
+        childWorkflow.setEnabled(true);
+        childWorkflow.setActions(List.of(childAction));
+
+        when(repository.findAllById(any())).thenReturn(List.of(parent));
+        when(snapshotService.getPlan("parent")).thenReturn(ExecutionPlan.compile(List.of(first, sub)));
+        when(workflowDefinitionCache.getCached(new WorkflowKey(childWorkflowId, userId))).thenReturn(Optional.of(childWorkflow));
+        when(snapshotService.pin(any())).thenReturn("child");
+        when(snapshotService.getPlan("child")).thenReturn(ExecutionPlan.compile(List.of(childAction)));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            WorkflowExecution saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(childId);
+            }
+            return saved;
+        });
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(parentId);
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        service.continueWorkflowExecution(result);
+
+        ArgumentCaptor<WorkflowExecution> saved = ArgumentCaptor.forClass(WorkflowExecution.class);
+        verify(repository, atLeastOnce()).save(saved.capture());
+        assertThat(saved.getAllValues()).anySatisfy(child -> {
+            assertThat(child.getId()).isEqualTo(childId);
+            assertThat(child.getParentExecutionId()).isEqualTo(parentId);
+            assertThat(child.getParentStepIndex()).isEqualTo(1);
+            assertThat(child.getDepth()).isEqualTo(1);
+            assertThat(child.getTriggerPayload()).isEqualTo(Map.of("order", 7));
+        });
+        ExecutionStartDto dispatched = singleDispatch();
+        assertThat(dispatched.getExecutionId()).isEqualTo(childId);
+        assertThat(dispatched.getActionType()).isEqualTo("GOOGLE_SHEET_ROW");
+        assertThat(parent.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+    }
+
+    @Test
+    void subWorkflowMissingFromTheCacheIsRetriedThroughTheTimerWithoutBlocking() {
+        UUID userId = UUID.fromString("55555555-5555-5555-5555-555555555555");
+        UUID childWorkflowId = UUID.fromString("eeeeeeee-eeee-eeee-eeee-eeeeeeeeeeee");
+        WorkflowExecution parent = WorkflowExecution.builder()
+                .id(UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc"))
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(userId)
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("parent")
+                .triggerPayload(Map.of())
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto first = new ActionDto();
+        first.setType("SLACK_MESSAGE");
+        ActionDto sub = new ActionDto();
+        sub.setType("SUB_WORKFLOW");
+        sub.setConfig(Map.of("workflowId", childWorkflowId.toString()));
+        when(repository.findAllById(any())).thenReturn(List.of(parent));
+        when(snapshotService.getPlan("parent")).thenReturn(ExecutionPlan.compile(List.of(first, sub)));
+        when(workflowDefinitionCache.getCached(any())).thenReturn(Optional.empty());
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(parent.getId());
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        service.continueWorkflowExecution(result);
+
+        verify(workflowDefinitionCache, never()).getWorkflows(any());
+        verify(workflowDefinitionCache, never()).resolveWorkflows(any());
+        verify(snapshotService, never()).pin(any());
+        ArgumentCaptor<List<StepTimer>> scheduled = ArgumentCaptor.forClass(List.class);
+        verify(timers, atLeastOnce()).schedule(scheduled.capture());
+        assertThat(scheduled.getAllValues().stream().flatMap(List::stream).toList()).singleElement().satisfies(timer -> {
+            assertThat(timer.stepIndex()).isEqualTo(1);
+            assertThat(timer.attempt()).isEqualTo(2);
+            assertThat(timer.kind()).isEqualTo(StepTimer.Kind.RETRY);
+        });
+        assertThat(parent.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+
+        // Once the lookups are used up, the step fails instead of waiting forever.
+        ReflectionTestUtils.setField(service, "maxDefinitionLookups", 2);
+        parent.setStepStates(new HashMap<>(Map.of("step_0", "COMPLETED", "step_1", "RETRY_SCHEDULED")));
+        ExecutionResultDto retry = new ExecutionResultDto();
+        retry.setExecutionId(parent.getId());
+        retry.setStepIndex(1);
+        retry.setAttempt(2);
+        retry.setStatus(ExecutionTimerService.RETRY_STATUS);
+        service.continueWorkflowExecution(retry);
+
+        assertThat(parent.getStatus()).isEqualTo(ExecutionStatus.FAILED);
+        verify(snapshotService, never()).pin(any());
+    }
+
+    @Test
+    void completedChildResumesParentThroughOutbox() {
+        UUID parentId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        UUID childId = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+        WorkflowExecution child = WorkflowExecution.builder()
+                .id(childId)
+                .workflowId(UUID.fromString("eeeeeeee-eeee-eeee-eeee-eeeeeeeeeeee"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("child")
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .parentExecutionId(parentId)
+                .parentStepIndex(1)
+                .parentAttempt(2)
+                .depth(1)
+                .build();
+        ActionDto childAction = new ActionDto();
+        childAction.setType("GOOGLE_SHEET_ROW");
+        when(repository.findAllById(any())).thenReturn(List.of(child));
+        when(snapshotService.getPlan("child")).thenReturn(ExecutionPlan.compile(List.of(childAction)));
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(childId);
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        result.setOutput(Map.of("updatedRange", "A1"));
+        service.continueWorkflowExecution(result);
+
+        assertThat(child.getStatus()).isEqualTo(ExecutionStatus.COMPLETED);
+        ArgumentCaptor<List<ExecutionResultDto>> resumed = ArgumentCaptor.forClass(List.class);
+        verify(outbox).enqueueResults(resumed.capture());
+        assertThat(resumed.getValue()).singleElement().satisfies(parentResult -> {
+            assertThat(parentResult.getExecutionId()).isEqualTo(parentId);
+            assertThat(parentResult.getStepIndex()).isEqualTo(1);
+            assertThat(parentResult.getAttempt()).isEqualTo(2);
+            assertThat(parentResult.getStatus()).isEqualTo("SUCCESS");
+            assertThat(parentResult.getOutput()).containsEntry("executionId", childId.toString())
+                    .containsEntry("steps", Map.of("step_0", Map.of("updatedRange", "A1")));
+        });
+    }
+
+    @Test
+    void switchAndConditionsDispatchOnlyTheSelectedBranch() {
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc"))
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("abc123")
+                .triggerPayload(Map.of("notify", false))
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto lookup = action("lookup", "GOOGLE_SHEET_ROW", List.of());
+        ActionDto route = action("route", "SWITCH", List.of("lookup"));
+        route.setConfig(Map.of("value", "steps.lookup.tier", "cases", Map.of("gold", List.of("vip")), "default", List.of("std")));
+        ActionDto vip = action("vip", "SLACK_MESSAGE", List.of("route"));
+        ActionDto std = action("std", "SLACK_MESSAGE", List.of("route"));
+        ActionDto audit = action("audit", "SLACK_MESSAGE", List.of("route"));
+        audit.setCondition("trigger.notify == true");
+        when(repository.findAllById(any())).thenReturn(List.of(running));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(lookup, route, vip, std, audit)));
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(running.getId());
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        result.setOutput(Map.of("tier", "gold"));
+        service.continueWorkflowExecution(result);
+
+        ExecutionStartDto dispatched = singleDispatch();
+        assertThat(dispatched.getStepIndex()).isEqualTo(2);
+        assertThat(dispatched.getContext()).containsEntry("steps", Map.of(
+                "step_0", Map.of("tier", "gold"),
+                "step_1", Map.of("value", "gold", "case", "gold")));
+        assertThat(running.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+    }
+
+    @Test
+    void stepsBehindAnUnselectedBranchAreSkippedInsteadOfDispatched() {
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc"))
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("abc123")
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto lookup = action("lookup", "GOOGLE_SHEET_ROW", List.of());
+        ActionDto route = action("route", "SWITCH", List.of("lookup"));
+        route.setConfig(Map.of("value", "steps.lookup.tier", "cases", Map.of("gold", List.of("vip")), "default", List.of("std")));
+        ActionDto vip = action("vip", "SLACK_MESSAGE", List.of("route"));
+        ActionDto std = action("std", "SLACK_MESSAGE", List.of("route"));
+        ActionDto stdFollowUp = action("stdFollowUp", "SLACK_MESSAGE", List.of("std"));
+        ActionDto merge = action("merge", "SLACK_MESSAGE", List.of("vip", "stdFollowUp"));
+        when(repository.findAllById(any())).thenReturn(List.of(running));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(lookup, route, vip, std, stdFollowUp, merge)));
+
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(running.getId());
+        result.setStepIndex(0);
+        result.setStatus("SUCCESS");
+        result.setOutput(Map.of("tier", "gold"));
+        service.continueWorkflowExecution(result);
+
+        // std is skipped by its case, stdFollowUp by std; merge waits on vip alone
+        assertThat(singleDispatch().getStepIndex()).isEqualTo(2);
+        assertThat(running.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+    }
+
+    private static ActionDto action(String id, String type, List<String> dependsOn) {
+        ActionDto action = new ActionDto();
+        action.setId(id);
+        action.setType(type);
+        action.setConfig(Map.of());
+        action.setDependsOn(dependsOn);
+        return action;
+    }
+
+    private WorkflowExecution runningWithRetryableStep() {
+        WorkflowExecution running = WorkflowExecution.builder()
+                .id(UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc"))
+                .workflowId(UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
+                .userId(UUID.fromString("55555555-5555-5555-5555-555555555555"))
+                .status(ExecutionStatus.RUNNING)
+                .definitionHash("abc123")
+                .stepOutputs(new HashMap<>())
+                .stepStates(new HashMap<>(Map.of("step_0", "DISPATCHED")))
+                .build();
+        ActionDto slack = new ActionDto();
+        slack.setType("SLACK_MESSAGE");
+        slack.setConfig(Map.of("webhookUrl", "https://example.com",
+                "retry", Map.of("maxAttempts", 3, "backoff", "PT1S", "jitter", 0)));
+        ActionDto next = new ActionDto();
+        next.setType("SLACK_MESSAGE");
+        when(repository.findAllById(any())).thenReturn(List.of(running));
+        when(snapshotService.getPlan("abc123")).thenReturn(ExecutionPlan.compile(List.of(slack, next)));
+        return running;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ExecutionStartDto singleDispatch() {
+        ArgumentCaptor<List<ExecutionStartDto>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(outbox).enqueue(dispatched.capture());
+        assertThat(dispatched.getValue()).hasSize(1);
+        return dispatched.getValue().get(0);
+    }
+}
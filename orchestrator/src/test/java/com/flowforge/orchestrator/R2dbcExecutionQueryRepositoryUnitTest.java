@@ -0,0 +1,266 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.dto.ExecutionCursor;
+import com.flowforge.orchestrator.entity.ExecutionStatus;
+import com.flowforge.orchestrator.entity.WorkflowExecution;
+import com.flowforge.orchestrator.journal.ExecutionJournal;
+import com.flowforge.orchestrator.journal.ExecutionState;
+import com.flowforge.orchestrator.repository.ExecutionEventRepository;
+import com.flowforge.orchestrator.repository.ExecutionQueryRepository.LoadedExecution;
+import com.flowforge.orchestrator.repository.R2dbcExecutionQueryRepository;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Parameter;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the R2DBC query path through a real {@link DatabaseClient} over a scripted connection: each
+ * statement records its SQL and bindings and answers with the rows the test queued for its table.
+ */
+class R2dbcExecutionQueryRepositoryUnitTest {
+
+    private static final UUID USER = UUID.randomUUID();
+    private static final UUID WORKFLOW = UUID.randomUUID();
+    private static final Instant CREATED = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final List<Query> queries = new ArrayList<>();
+    private final List<Map<String, Object>> executionRows = new ArrayList<>();
+    private final List<Map<String, Object>> eventRows = new ArrayList<>();
+    private final List<Map<String, Object>> archiveRows = new ArrayList<>();
+    private final R2dbcExecutionQueryRepository repository = new R2dbcExecutionQueryRepository(
+            DatabaseClient.create(connectionFactory()),
+            new ExecutionJournal(mock(ExecutionEventRepository.class), 20),
+            new ObjectMapper(),
+            "orchestrator");
+
+    @Test
+    void decodesJsonbColumnsAndFoldsTheJournalTail() {
+        UUID id = UUID.randomUUID();
+        executionRows.add(executionRow(id, CREATED, 1, 1,
+                "{\"step_0\":{\"rows\":3}}", "{\"step_0\":\"COMPLETED\"}"));
+        eventRows.add(eventRow(id, 2, "STEP_COMPLETED", 1, "{\"sent\":true}"));
+        eventRows.add(eventRow(id, 3, "STEP_DISPATCHED", 2, null));
+
+        LoadedExecution loaded = repository.findByIdAndUserId(id, USER).block(Duration.ofSeconds(5));
+
+        WorkflowExecution execution = loaded.execution();
+        assertThat(execution.getStatus()).isEqualTo(ExecutionStatus.RUNNING);
+        assertThat(execution.getTriggerPayload()).isEqualTo(Map.of("order", Map.of("id", 7)));
+        assertThat(execution.getParentExecutionId()).isNull();
+        assertThat(execution.getJournalSeq()).isEqualTo(3); // Caught up with the tail
+        ExecutionState state = loaded.state();
+        assertThat(state.getStepOutputs()).isEqualTo(Map.of("step_0", Map.of("rows", 3), "step_1", Map.of("sent", true)));
+        assertThat(state.getStepStates()).isEqualTo(Map.of(
+                "step_0", "COMPLETED", "step_1", "COMPLETED", "step_2", "DISPATCHED"));
+
+        assertThat(queries).hasSize(2);
+        assertThat(queries.get(0).sql()).contains("FROM orchestrator.workflow_executions WHERE id = $1 AND user_id = $2");
+        assertThat(queries.get(0).bindings()).containsExactly(id, USER);
+        assertThat(queries.get(1).sql())
+                .contains("JOIN unnest(CAST($1 AS uuid[]), CAST($2 AS int[])) AS s(execution_id, snapshot_seq)");
+        assertThat(queries.get(1).bindings()).containsExactly(new UUID[]{id}, new Integer[]{1});
+    }
+
+    @Test
+    void keysetPageKeepsRowOrderAndGivesEachExecutionItsOwnTail() {
+        UUID newer = UUID.randomUUID();
+        UUID older = UUID.randomUUID();
+        executionRows.add(executionRow(newer, CREATED.plusSeconds(60), 0, 0, "{}", "{}"));
+        executionRows.add(executionRow(older, CREATED, 4, 2, "{}", "{\"step_0\":\"COMPLETED\",\"step_1\":\"COMPLETED\"}"));
+        // Tails come back ordered by execution id, not by page order
+        eventRows.add(eventRow(older, 3, "STEP_FAILED", 2, null));
+        eventRows.add(eventRow(newer, 1, "STEP_SKIPPED", 0, null));
+        ExecutionCursor after = new ExecutionCursor(CREATED.plusSeconds(120), UUID.randomUUID());
+
+        List<LoadedExecution> page = repository.findPage(USER, WORKFLOW, after, 2).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(page).extracting(loaded -> loaded.execution().getId()).containsExactly(newer, older);
+        assertThat(page.get(0).state().getStepStates()).isEqualTo(Map.of("step_0", "SKIPPED"));
+        assertThat(page.get(1).state().getStepStates()).isEqualTo(Map.of(
+                "step_0", "COMPLETED", "step_1", "COMPLETED", "step_2", "FAILED"));
+        assertThat(page.get(1).execution().getJournalSeq()).isEqualTo(4); // Row already ahead of its tail
+
+        Query pageQuery = queries.get(0);
+        assertThat(pageQuery.sql()).endsWith("WHERE user_id = $1 AND workflow_id = $2 AND (created_at, id) < ($3, $4)"
+                + " ORDER BY created_at DESC, id DESC LIMIT $5");
+        assertThat(pageQuery.bindings()).containsExactly(USER, WORKFLOW, after.createdAt(), after.id(), 2);
+        assertThat(queries.get(1).bindings()).containsExactly(new UUID[]{newer, older}, new Integer[]{0, 2});
+    }
+
+    @Test
+    void emptyPageSkipsTheTailQuery() {
+        List<LoadedExecution> page = repository.findPage(USER, null, null, 20).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(page).isEmpty();
+        assertThat(queries).extracting(Query::sql).noneMatch(sql -> sql.contains("execution_events"));
+        assertThat(queries.get(0).sql()).doesNotContain("workflow_id =").doesNotContain("(created_at, id) <");
+    }
+
+    @Test
+    void shortHotPageIsCompletedFromTheArchiveInKeysetOrder() {
+        UUID running = UUID.randomUUID();
+        UUID newerArchived = UUID.randomUUID();
+        UUID olderArchived = UUID.randomUUID();
+        executionRows.add(executionRow(running, CREATED, 0, 0, "{}", "{}"));
+        archiveRows.add(archiveRow(newerArchived, CREATED.plusSeconds(60)));
+        archiveRows.add(archiveRow(olderArchived, CREATED.minusSeconds(60)));
+        ExecutionCursor after = new ExecutionCursor(CREATED.plusSeconds(120), UUID.randomUUID());
+
+        List<LoadedExecution> page = repository.findPage(USER, WORKFLOW, after, 2).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(page).extracting(loaded -> loaded.execution().getId()).containsExactly(newerArchived, running);
+        assertThat(page.get(0).execution().getStatus()).isEqualTo(ExecutionStatus.COMPLETED);
+        assertThat(page.get(0).state().getStepStates()).isEqualTo(Map.of("step_0", "COMPLETED"));
+        Query archiveQuery = queries.get(queries.size() - 1);
+        assertThat(archiveQuery.sql()).contains("FROM orchestrator.workflow_executions_archive WHERE user_id = $1"
+                + " AND workflow_id = $2 AND (created_at, id) < ($3, $4)");
+        assertThat(archiveQuery.bindings()).containsExactly(USER, WORKFLOW, after.createdAt(), after.id(), 2);
+    }
+
+    @Test
+    void lookupFallsBackToTheArchive() {
+        UUID id = UUID.randomUUID();
+        archiveRows.add(archiveRow(id, CREATED));
+
+        LoadedExecution loaded = repository.findByIdAndUserId(id, USER).block(Duration.ofSeconds(5));
+
+        assertThat(loaded.execution().getId()).isEqualTo(id);
+        assertThat(loaded.execution().getCurrentStep()).isEqualTo(1);
+        assertThat(loaded.state().getStepOutputs()).isEqualTo(Map.of("step_0", Map.of("rows", 3)));
+        assertThat(queries).extracting(Query::sql).noneMatch(sql -> sql.contains("execution_events"));
+    }
+
+    private static Map<String, Object> executionRow(UUID id, Instant createdAt, int journalSeq, int snapshotSeq,
+                                                    String stepOutputs, String stepStates) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("workflow_id", WORKFLOW);
+        row.put("user_id", USER);
+        row.put("status", "RUNNING");
+        row.put("current_step", 0);
+        row.put("definition_hash", "hash");
+        row.put("trigger_payload", Json.of("{\"order\":{\"id\":7}}"));
+        row.put("step_outputs", Json.of(stepOutputs));
+        row.put("step_states", Json.of(stepStates));
+        row.put("journal_seq", journalSeq);
+        row.put("snapshot_seq", snapshotSeq);
+        row.put("dispatched_context_version", 0);
+        row.put("depth", 0);
+        row.put("created_at", createdAt);
+        row.put("updated_at", createdAt);
+        return row;
+    }
+
+    private static Map<String, Object> archiveRow(UUID id, Instant createdAt) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("workflow_id", WORKFLOW);
+        row.put("user_id", USER);
+        row.put("status", "COMPLETED");
+        row.put("definition_hash", "hash");
+        row.put("trigger_payload", Json.of("{}"));
+        row.put("step_outputs", Json.of("{\"step_0\":{\"rows\":3}}"));
+        row.put("step_states", Json.of("{\"step_0\":\"COMPLETED\"}"));
+        row.put("created_at", createdAt);
+        row.put("updated_at", createdAt);
+        return row;
+    }
+
+    private static Map<String, Object> eventRow(UUID executionId, int seq, String type, int stepIndex, String payload) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("execution_id", executionId);
+        row.put("seq", seq);
+        row.put("type", type);
+        row.put("step_index", stepIndex);
+        row.put("payload", payload == null ? null : Json.of(payload));
+        row.put("created_at", CREATED);
+        return row;
+    }
+
+    private ConnectionFactory connectionFactory() {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        doReturn(Mono.empty()).when(connection).close();
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        doReturn(Mono.just(connection)).when(connectionFactory).create();
+        when(connectionFactory.getMetadata()).thenReturn(() -> "PostgreSQL");
+        return connectionFactory;
+    }
+
+    private Statement statement(String sql) {
+        Query query = new Query(sql, new ArrayList<>());
+        queries.add(query);
+        Statement statement = mock(Statement.class);
+        when(statement.bind(anyInt(), any())).thenAnswer(invocation -> {
+            Object value = invocation.getArgument(1);
+            query.bindings().add(value instanceof Parameter parameter ? parameter.getValue() : value);
+            return statement;
+        });
+        List<Map<String, Object>> rows = sql.contains("execution_events") ? eventRows
+                : sql.contains("workflow_executions_archive") ? archiveRows : executionRows;
+        doReturn(Flux.just(new RowsResult(rows))).when(statement).execute();
+        return statement;
+    }
+
+    private record Query(String sql, List<Object> bindings) {
+    }
+
+    private record RowsResult(List<Map<String, Object>> rows) implements Result {
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.fromIterable(rows).map(values -> mappingFunction.apply(row(values), mock(RowMetadata.class)));
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return Mono.just(0L);
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            return this;
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return Flux.empty();
+        }
+
+        private static Row row(Map<String, Object> values) {
+            Row row = mock(Row.class);
+            when(row.get(anyString(), any())).thenAnswer(invocation ->
+                    ((Class<?>) invocation.getArgument(1)).cast(values.get(invocation.<String>getArgument(0))));
+            return row;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.flowforge.orchestrator;
+
+import com.flowforge.orchestrator.dedupe.ResultDeduplicator;
+import com.flowforge.orchestrator.dedupe.ResultKey;
+import com.flowforge.orchestrator.dto.ExecutionResultDto;
+import com.flowforge.orchestrator.repository.ProcessedResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ResultDeduplicatorUnitTest {
+
+    private final UUID executionId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+
+    private ProcessedResultRepository repository;
+    private SimpleMeterRegistry registry;
+    private ResultDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProcessedResultRepository.class);
+        registry = new SimpleMeterRegistry();
+        deduplicator = new ResultDeduplicator(repository, registry, 1000, Duration.ofDays(7));
+    }
+
+    @Test
+    void keepsOnlyResultsClaimedInDatabase() {
+        when(repository.claim(any())).thenReturn(Set.of(new ResultKey(executionId, 1, 1)));
+        ExecutionResultDto alreadyApplied = result(0, 1);
+        ExecutionResultDto fresh = result(1, 1);
+
+        assertThat(deduplicator.firstDeliveries(List.of(alreadyApplied, fresh))).containsExactly(fresh);
+        assertThat(registry.get("flowforge.results.duplicates").tag("source", "database").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void redeliveryIsRejectedFromMemoryWithoutQuery() {
+        when(repository.claim(any())).thenReturn(Set.of(new ResultKey(executionId, 0, 1)));
+        deduplicator.firstDeliveries(List.of(result(0, 1)));
+
+        assertThat(deduplicator.firstDeliveries(List.of(result(0, 1)))).isEmpty();
+        verify(repository, times(1)).claim(any());
+    }
+
+    @Test
+    void newAttemptOfSameStepIsNotADuplicate() {
+        when(repository.claim(any())).thenAnswer(invocation -> Set.copyOf(invocation.<java.util.Collection<ResultKey>>getArgument(0)));
+        deduplicator.firstDeliveries(List.of(result(0, 1)));
+
+        assertThat(deduplicator.firstDeliveries(List.of(result(0, 2)))).hasSize(1);
+    }
+
+    @Test
+    void duplicateWithinBatchIsDropped() {
+        when(repository.claim(any())).thenAnswer(invocation -> Set.copyOf(invocation.<java.util.Collection<ResultKey>>getArgument(0)));
+        ExecutionResultDto first = result(0, 1);
+
+        assertThat(deduplicator.firstDeliveries(List.of(first, result(0, 1)))).containsExactly(first);
+    }
+
+    private ExecutionResultDto result(int stepIndex, int attempt) {
+        ExecutionResultDto result = new ExecutionResultDto();
+        result.setExecutionId(executionId);
+        result.setStepIndex(stepIndex);
+        result.setAttempt(attempt);
+        result.setStatus("SUCCESS");
+        return result;
+    }
+}
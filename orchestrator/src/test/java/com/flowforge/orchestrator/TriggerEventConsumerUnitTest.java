@@ -0,0 +1,73 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.dto.TriggerEventDto;
+import com.flowforge.orchestrator.kafka.consumer.TriggerEventConsumer;
+import com.flowforge.orchestrator.service.OrchestrationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TriggerEventConsumerUnitTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrchestrationService orchestrationService = mock(OrchestrationService.class);
+    private final TriggerEventConsumer consumer = new TriggerEventConsumer(orchestrationService, objectMapper);
+
+    @Test
+    void skipsTriggersWithoutWorkflowOrUser() throws Exception {
+        UUID valid = UUID.randomUUID();
+
+        consumer.consumeTriggerEvents(List.of(
+                message(UUID.randomUUID(), null, UUID.randomUUID()),
+                message(UUID.randomUUID(), UUID.randomUUID(), null),
+                message(valid, UUID.randomUUID(), UUID.randomUUID())));
+
+        verify(orchestrationService).startWorkflowExecutions(argThat(events ->
+                events.size() == 1 && events.get(0).getEventId().equals(valid)));
+    }
+
+    @Test
+    void reportsThePositionOfTheTriggerThatFailsOnItsOwn() throws Exception {
+        UUID poison = UUID.randomUUID();
+        UUID behindPoison = UUID.randomUUID();
+        doAnswer(invocation -> {
+            List<TriggerEventDto> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getEventId().equals(poison))) {
+                throw new IllegalStateException("poison");
+            }
+            return null;
+        }).when(orchestrationService).startWorkflowExecutions(anyList());
+
+        List<String> messages = List.of(
+                message(UUID.randomUUID(), null, UUID.randomUUID()), // Skipped, still counts as a position
+                message(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()),
+                message(poison, UUID.randomUUID(), UUID.randomUUID()),
+                message(behindPoison, UUID.randomUUID(), UUID.randomUUID()));
+
+        assertThatThrownBy(() -> consumer.consumeTriggerEvents(messages))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(2));
+        verify(orchestrationService, never()).startWorkflowExecutions(argThat(events ->
+                events.size() == 1 && events.get(0).getEventId().equals(behindPoison)));
+    }
+
+    private String message(UUID eventId, UUID workflowId, UUID userId) throws Exception {
+        TriggerEventDto event = new TriggerEventDto();
+        event.setEventId(eventId);
+        event.setWorkflowId(workflowId);
+        event.setUserId(userId);
+        return objectMapper.writeValueAsString(event);
+    }
+}
@@ -0,0 +1,131 @@
+package com.flowforge.orchestrator;
+
+import com.flowforge.orchestrator.cache.WorkflowDefinitionCache;
+import com.flowforge.orchestrator.cache.WorkflowKey;
+import com.flowforge.orchestrator.client.WorkflowServiceClient;
+import com.flowforge.orchestrator.dto.WorkflowResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class WorkflowDefinitionCacheUnitTest {
+
+    private static final UUID WORKFLOW_ID = UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb");
+    private static final UUID USER_ID = UUID.fromString("55555555-5555-5555-5555-555555555555");
+
+    @Test
+    void repeatedLookupsAreServedFromCacheUntilInvalidated() {
+        WorkflowServiceClient client = mock(WorkflowServiceClient.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WorkflowDefinitionCache cache = new WorkflowDefinitionCache(client, registry, 100, Duration.ofMinutes(5), 4, Duration.ofSeconds(5));
+
+        WorkflowResponseDto workflow = workflow(Instant.parse("2026-01-01T00:00:00Z"));
+        when(client.getWorkflowById(WORKFLOW_ID, USER_ID)).thenReturn(Mono.just(workflow));
+
+        assertThat(cache.getWorkflow(WORKFLOW_ID, USER_ID).block()).isSameAs(workflow);
+        assertThat(cache.getWorkflow(WORKFLOW_ID, USER_ID).block()).isSameAs(workflow);
+        verify(client, times(1)).getWorkflowById(WORKFLOW_ID, USER_ID);
+
+        // A change event older than the cached version is ignored.
+        cache.invalidate(WORKFLOW_ID, Instant.parse("2025-12-31T00:00:00Z"));
+        cache.getWorkflow(WORKFLOW_ID, USER_ID).block();
+        verify(client, times(1)).getWorkflowById(WORKFLOW_ID, USER_ID);
+
+        cache.invalidate(WORKFLOW_ID, Instant.parse("2026-01-02T00:00:00Z"));
+        cache.getWorkflow(WORKFLOW_ID, USER_ID).block();
+        verify(client, times(2)).getWorkflowById(WORKFLOW_ID, USER_ID);
+
+        assertThat(registry.get("cache.gets").tag("cache", "workflowDefinitions").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void fetchThatStartedBeforeAnUpdateDoesNotCacheTheOldVersion() {
+        WorkflowServiceClient client = mock(WorkflowServiceClient.class);
+        WorkflowDefinitionCache cache = new WorkflowDefinitionCache(client, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), 4, Duration.ofSeconds(5));
+        Sinks.One<WorkflowResponseDto> inFlight = Sinks.one();
+        WorkflowResponseDto updated = workflow(Instant.parse("2026-01-02T00:00:00Z"));
+        when(client.getWorkflowById(WORKFLOW_ID, USER_ID)).thenReturn(inFlight.asMono(), Mono.just(updated));
+
+        WorkflowResponseDto[] first = new WorkflowResponseDto[1];
+        cache.getWorkflow(WORKFLOW_ID, USER_ID).subscribe(workflow -> first[0] = workflow);
+        cache.invalidate(WORKFLOW_ID, updated.getUpdatedAt()); // Nothing cached yet
+        inFlight.tryEmitValue(workflow(Instant.parse("2026-01-01T00:00:00Z")));
+
+        assertThat(first[0]).isNotNull();
+        assertThat(cache.getWorkflow(WORKFLOW_ID, USER_ID).block()).isSameAs(updated);
+        assertThat(cache.getWorkflow(WORKFLOW_ID, USER_ID).block()).isSameAs(updated);
+        verify(client, times(2)).getWorkflowById(WORKFLOW_ID, USER_ID);
+    }
+
+    @Test
+    void changeStampedWithNanosecondsDoesNotRefuseTheStoredVersion() {
+        WorkflowServiceClient client = mock(WorkflowServiceClient.class);
+        WorkflowDefinitionCache cache = new WorkflowDefinitionCache(client, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), 4, Duration.ofSeconds(5));
+        // The change event carries the in-memory stamp; the database kept it rounded down to microseconds.
+        Instant changedAt = Instant.parse("2026-01-02T00:00:00.123456789Z");
+        WorkflowResponseDto stored = workflow(Instant.parse("2026-01-02T00:00:00.123456Z"));
+        when(client.getWorkflowById(WORKFLOW_ID, USER_ID)).thenReturn(Mono.just(stored));
+
+        cache.invalidate(WORKFLOW_ID, changedAt);
+        assertThat(cache.getWorkflow(WORKFLOW_ID, USER_ID).block()).isSameAs(stored);
+        cache.invalidate(WORKFLOW_ID, changedAt); // Redelivered change event
+        assertThat(cache.getWorkflow(WORKFLOW_ID, USER_ID).block()).isSameAs(stored);
+
+        verify(client, times(1)).getWorkflowById(WORKFLOW_ID, USER_ID);
+    }
+
+    @Test
+    void resolutionReportsFailedWorkflowsAndKeepsTheOthers() {
+        WorkflowServiceClient client = mock(WorkflowServiceClient.class);
+        WorkflowDefinitionCache cache = new WorkflowDefinitionCache(client, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), 4, Duration.ofSeconds(5));
+        UUID brokenId = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
+        UUID missingId = UUID.fromString("dddddddd-dddd-dddd-dddd-dddddddddddd");
+        WorkflowResponseDto workflow = workflow(Instant.now());
+        when(client.getWorkflowById(WORKFLOW_ID, USER_ID)).thenReturn(Mono.just(workflow));
+        when(client.getWorkflowById(brokenId, USER_ID)).thenReturn(Mono.error(
+                WebClientResponseException.create(503, "Service Unavailable", null, null, null)));
+        when(client.getWorkflowById(missingId, USER_ID)).thenReturn(Mono.error(
+                WebClientResponseException.create(404, "Not Found", null, null, null)));
+
+        WorkflowDefinitionCache.Resolution resolution = cache.resolveWorkflows(List.of(
+                new WorkflowKey(WORKFLOW_ID, USER_ID), new WorkflowKey(brokenId, USER_ID), new WorkflowKey(missingId, USER_ID)));
+
+        assertThat(resolution.workflows()).containsOnlyKeys(new WorkflowKey(WORKFLOW_ID, USER_ID));
+        assertThat(resolution.failures()).containsOnlyKeys(new WorkflowKey(brokenId, USER_ID));
+    }
+
+    @Test
+    void cachedDefinitionIsNotServedToAnotherUser() {
+        WorkflowServiceClient client = mock(WorkflowServiceClient.class);
+        WorkflowDefinitionCache cache = new WorkflowDefinitionCache(client, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), 4, Duration.ofSeconds(5));
+        UUID otherUser = UUID.fromString("66666666-6666-6666-6666-666666666666");
+
+        when(client.getWorkflowById(WORKFLOW_ID, USER_ID)).thenReturn(Mono.just(workflow(Instant.now())));
+        when(client.getWorkflowById(WORKFLOW_ID, otherUser)).thenReturn(Mono.empty());
+
+        cache.getWorkflow(WORKFLOW_ID, USER_ID).block();
+        assertThat(cache.getWorkflow(WORKFLOW_ID, otherUser).block()).isNull();
+        verify(client, times(1)).getWorkflowById(WORKFLOW_ID, otherUser);
+    }
+
+    private WorkflowResponseDto workflow(Instant updatedAt) {
+        WorkflowResponseDto workflow = new WorkflowResponseDto();
+        workflow.setId(WORKFLOW_ID);
+        workflow.setUserId(USER_ID);
+        workflow.setName("Demo");
+        workflow.setEnabled(true);
+        workflow.setUpdatedAt(updatedAt);
+        return workflow;
+    }
+}
@@ -0,0 +1,69 @@
+package com.flowforge.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowforge.orchestrator.dto.ActionDto;
+import com.flowforge.orchestrator.repository.WorkflowDefinitionSnapshotRepository;
+import com.flowforge.orchestrator.service.WorkflowDefinitionSnapshotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WorkflowDefinitionSnapshotServiceUnitTest {
+
+    private final WorkflowDefinitionSnapshotRepository repository = mock(WorkflowDefinitionSnapshotRepository.class);
+    private final WorkflowDefinitionSnapshotService service =
+            new WorkflowDefinitionSnapshotService(repository, new ObjectMapper(), 100);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void insertsTheSnapshotAgainAfterARolledBackPin() {
+        List<ActionDto> actions = List.of(action());
+
+        String hash = inTransaction(() -> service.pin(actions), TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(service.getPlan(hash)).isNotNull(); // Compiled plan is still usable
+
+        inTransaction(() -> service.pin(actions), TransactionSynchronization.STATUS_COMMITTED);
+        inTransaction(() -> service.pin(actions), TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(repository, times(2)).insertIfAbsent(anyString(), anyString());
+    }
+
+    private static String inTransaction(Supplier<String> body, int outcome) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            String result = body.get();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (outcome == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ActionDto action() {
+        ActionDto action = new ActionDto();
+        action.setType("SLACK_MESSAGE");
+        action.setConfig(Map.of("text", "hello"));
+        return action;
+    }
+}
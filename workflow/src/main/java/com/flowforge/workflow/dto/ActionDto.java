@@ -1,3 +1,10 @@
 package com.flowforge.workflow.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
 import java.util.Map;
-public record ActionDto(String type, Map<String, Object> config) {}
\ No newline at end of file
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ActionDto(String id, String type, Map<String, Object> config, List<String> dependsOn, String condition, String join) {
+    public ActionDto(String type, Map<String, Object> config) {
+        this(null, type, config, null, null, null);
+    }
+}
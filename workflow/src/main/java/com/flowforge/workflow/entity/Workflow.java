@@ -9,6 +9,7 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -48,13 +49,14 @@ public class Workflow {
     @Column(nullable = false)
     private Instant updatedAt;
 
+    // Truncated to what Postgres stores, so the updatedAt published in a change event equals the one read back.
     @PrePersist
     protected void onCreate() {
-        createdAt = updatedAt = Instant.now();
+        createdAt = updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = Instant.now();
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
@@ -0,0 +1,16 @@
+package com.flowforge.workflow.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published after a workflow definition is updated or deleted so that consumers
+ * holding a copy of the definition (e.g. the orchestrator cache) can drop it.
+ */
+public record WorkflowChangedEvent(UUID workflowId, UUID userId, ChangeType changeType, Instant updatedAt) {
+
+    public enum ChangeType {
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,35 @@
+package com.flowforge.workflow.service;
+
+import com.flowforge.workflow.event.WorkflowChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WorkflowChangePublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.topics.workflow-changes}")
+    private String workflowChangesTopic;
+
+    /**
+     * Runs only once the change is committed, so a consumer that reacts by re-fetching
+     * the definition never reads the pre-change row.
+     */
+    @TransactionalEventListener
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        log.info("Publishing workflow change: workflowId={}, changeType={}", event.workflowId(), event.changeType());
+        kafkaTemplate.send(workflowChangesTopic, event.workflowId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish workflow change for {}: {}", event.workflowId(), ex.getMessage());
+                    }
+                });
+    }
+}
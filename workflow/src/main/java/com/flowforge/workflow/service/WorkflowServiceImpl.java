@@ -4,12 +4,15 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.flowforge.workflow.dto.*;
 import com.flowforge.workflow.entity.Workflow;
+import com.flowforge.workflow.event.WorkflowChangedEvent;
 import com.flowforge.workflow.exception.WorkflowNotFoundException;
 import com.flowforge.workflow.repository.WorkflowRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -21,6 +24,7 @@ public class WorkflowServiceImpl implements WorkflowService {
 
     private final WorkflowRepository workflowRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -70,7 +74,10 @@ public class WorkflowServiceImpl implements WorkflowService {
                 .collect(Collectors.toList());
         existingWorkflow.setActionsDefinition(actions);
 
-        Workflow updatedWorkflow = workflowRepository.save(existingWorkflow);
+        // Flush so @PreUpdate has stamped updatedAt before it is returned and published.
+        Workflow updatedWorkflow = workflowRepository.saveAndFlush(existingWorkflow);
+        eventPublisher.publishEvent(new WorkflowChangedEvent(workflowId, userId,
+                WorkflowChangedEvent.ChangeType.UPDATED, updatedWorkflow.getUpdatedAt()));
         return toWorkflowResponse(updatedWorkflow);
     }
 
@@ -81,6 +88,8 @@ public class WorkflowServiceImpl implements WorkflowService {
             throw new WorkflowNotFoundException("Workflow not found with ID: " + workflowId);
         }
         workflowRepository.deleteById(workflowId);
+        eventPublisher.publishEvent(new WorkflowChangedEvent(workflowId, userId,
+                WorkflowChangedEvent.ChangeType.DELETED, Instant.now()));
     }
 
     private WorkflowResponse toWorkflowResponse(Workflow workflow) {